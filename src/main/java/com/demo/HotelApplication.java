@@ -4,8 +4,10 @@ import com.github.mjstewart.querystring.dialect.QueryStringDialect;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HotelApplication {
 
 	public static void main(String[] args) {
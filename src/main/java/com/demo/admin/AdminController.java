@@ -0,0 +1,70 @@
+package com.demo.admin;
+
+import com.demo.exceptions.NotFoundException;
+import com.demo.persistance.CacheStatistics;
+import com.demo.reservation.flow.store.EvictingReservationFlowStore;
+import com.demo.reservation.inventory.RoomLocks;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * JSON statistics used to size the application from real traffic. Counts are since the application started.
+ *
+ * <p>The statistics reveal traffic and configuration, so the endpoints only exist with
+ * {@code admin.endpoints.enabled=true}, which should only be set where {@code /admin} is not reachable publicly.</p>
+ */
+@RestController
+@ConditionalOnProperty(name = "admin.endpoints.enabled", havingValue = "true")
+public class AdminController {
+
+    private RoomLocks roomLocks;
+    private CacheStatistics cacheStatistics;
+    private ObjectProvider<EvictingReservationFlowStore> flowStore;
+
+    /**
+     * @param flowStore Only present when reservation flows are kept in the {@code database} or {@code memory} store.
+     */
+    public AdminController(RoomLocks roomLocks, CacheStatistics cacheStatistics,
+                           ObjectProvider<EvictingReservationFlowStore> flowStore) {
+        this.roomLocks = roomLocks;
+        this.cacheStatistics = cacheStatistics;
+        this.flowStore = flowStore;
+    }
+
+    /**
+     * Wait times of every booking lock stripe, see {@link RoomLocks}. Stripes with a high mean or max wait compared to
+     * the others suggest increasing {@code reservation.lock.stripes}.
+     */
+    @GetMapping(value = "/admin/locks")
+    public List<RoomLocks.StripeStats> getLockStats() {
+        return roomLocks.stripeStats();
+    }
+
+    /**
+     * Hit and miss counts of every second level cache region, see {@link CacheStatistics}. A low hit ratio on a full
+     * region suggests increasing its size in {@code ehcache.xml}.
+     */
+    @GetMapping(value = "/admin/cache")
+    public List<CacheStatistics.RegionStats> getCacheStats() {
+        return cacheStatistics.regionStats();
+    }
+
+    /**
+     * Live and evicted reservation flows on this node, see {@link EvictingReservationFlowStore}. Many flows evicted
+     * over budget suggests increasing {@code reservation.flow.max-flows} or {@code reservation.flow.max-megabytes}.
+     *
+     * @throws NotFoundException if flows are kept in the session or a token instead.
+     */
+    @GetMapping(value = "/admin/flows")
+    public EvictingReservationFlowStore.FlowStats getFlowStats() throws NotFoundException {
+        EvictingReservationFlowStore store = flowStore.getIfAvailable();
+        if (store == null) {
+            throw new NotFoundException("Reservation flows are not kept in a flow store");
+        }
+        return store.flowStats();
+    }
+}
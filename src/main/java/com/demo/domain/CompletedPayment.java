@@ -12,7 +12,8 @@ import java.util.UUID;
 @Entity
 public class CompletedPayment {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "completed_payment_seq")
+    @SequenceGenerator(name = "completed_payment_seq", allocationSize = 50)
     private Long id;
 
     // Assume from payment provider
@@ -1,5 +1,8 @@
 package com.demo.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.util.Comparator;
@@ -12,9 +15,12 @@ import java.util.Objects;
  * get added to meal plans.</p>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "extra")
 public class Extra {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "extra_seq")
+    @SequenceGenerator(name = "extra_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -16,7 +16,8 @@ public class Guest {
     private UUID tempId = UUID.randomUUID();
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "guest_seq")
+    @SequenceGenerator(name = "guest_seq", allocationSize = 50)
     private Long id;
 
     @Size(min = 2, max = 20)
@@ -37,9 +38,24 @@ public class Guest {
         this.child = child;
     }
 
+    /**
+     * Recreates a guest added earlier in the reservation flow, keeping the temp id the UI refers to it by.
+     */
+    public Guest(UUID tempId, String firstName, String lastName, boolean child) {
+        this(firstName, lastName, child);
+        this.tempId = tempId;
+    }
+
     public Guest() {
     }
 
+    /**
+     * See {@link Reservation#clearGeneratedIds()}.
+     */
+    void clearId() {
+        id = null;
+    }
+
     public String getFirstName() {
         return firstName;
     }
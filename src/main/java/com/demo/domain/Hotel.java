@@ -3,6 +3,8 @@ package com.demo.domain;
 import com.demo.domain.location.Address;
 import com.demo.util.Utils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -11,15 +13,31 @@ import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotel")
+@Table(indexes = {
+        @Index(name = "idx_hotel_search_state_suburb", columnList = "search_state, search_suburb"),
+        @Index(name = "idx_hotel_search_suburb", columnList = "search_suburb"),
+        @Index(name = "idx_hotel_search_postcode", columnList = "search_postcode"),
+        // Each matches a keyset order of the hotel listing, see HotelPredicates.KEYSET.
+        @Index(name = "idx_hotel_name", columnList = "name, id"),
+        @Index(name = "idx_hotel_stars", columnList = "stars, id"),
+        @Index(name = "idx_hotel_suburb", columnList = "suburb, id"),
+        @Index(name = "idx_hotel_state", columnList = "state, id"),
+        // The postcode is kept in the value column of the embedded Postcode.
+        @Index(name = "idx_hotel_postcode", columnList = "value, id")
+})
 public class Hotel implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hotel_seq")
+    @SequenceGenerator(name = "hotel_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -35,6 +53,7 @@ public class Hotel implements Serializable {
     private String email;
 
     @OneToMany(mappedBy = "hotel", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotel.rooms")
     // Stop bidirectional relationship which cause a cycle.
     @JsonIgnore
     private Set<Room> rooms;
@@ -54,6 +73,22 @@ public class Hotel implements Serializable {
     @Column(nullable = false)
     private BigDecimal lateCheckoutFee;
 
+    /*
+     * Normalised copies of the address only used by location searches. Searching compares these indexed columns
+     * directly rather than wrapping the address columns in upper(...) which prevents any index being used.
+     */
+    @Column(name = "search_state")
+    @JsonIgnore
+    private String searchState;
+
+    @Column(name = "search_suburb")
+    @JsonIgnore
+    private String searchSuburb;
+
+    @Column(name = "search_postcode")
+    @JsonIgnore
+    private String searchPostcode;
+
     private final static LocalTime DEFAULT_EARLIEST_CHECK_IN = LocalTime.of(7, 0);
     private final static LocalTime DEFAULT_LATEST_CHECK_IN = LocalTime.of(22, 0);
     private final static LocalTime DEFAULT_STANDARD_CHECKOUT = LocalTime.of(11, 0);
@@ -90,6 +125,30 @@ public class Hotel implements Serializable {
     public Hotel() {
     }
 
+    /**
+     * The form a location search term is stored and compared in.
+     *
+     * @return The trimmed and upper cased term or {@code null} if there is nothing to search for.
+     */
+    public static String normaliseSearchTerm(String term) {
+        if (term == null || term.isBlank()) {
+            return null;
+        }
+        return term.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updateSearchColumns() {
+        if (address == null) {
+            return;
+        }
+        searchState = address.getState() == null ? null : address.getState().name();
+        // Address.getSuburb capitalises for display, normalise the raw value.
+        searchSuburb = normaliseSearchTerm(address.getRawSuburb());
+        searchPostcode = address.getPostcode() == null ? null : normaliseSearchTerm(address.getPostcode().getValue());
+    }
+
     /**
      * Adds the {@code Room} to this {@code Hotel} and sets the bidirectional relationship
      * of the {@code Room}.
@@ -1,6 +1,7 @@
 package com.demo.domain;
 
 import com.demo.util.Utils;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -15,7 +16,8 @@ public class MealPlan implements Serializable {
     public static final double CHILD_DISCOUNT_PERCENT = 0.60;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_plan_seq")
+    @SequenceGenerator(name = "meal_plan_seq", allocationSize = 50)
     private Long id;
 
     // Simplifies equal/hashCode
@@ -27,15 +29,25 @@ public class MealPlan implements Serializable {
     @OneToOne
     private Reservation reservation;
 
+    // Batch loaded for up to 16 meal plans at once rather than 1 query per meal plan.
     @ManyToMany
+    @BatchSize(size = 16)
     private List<Extra> foodExtras;
 
     @ElementCollection
+    @BatchSize(size = 16)
     private List<DietaryRequirement> dietaryRequirements;
 
     public MealPlan() {
     }
 
+    /**
+     * See {@link Reservation#clearGeneratedIds()}.
+     */
+    void clearId() {
+        id = null;
+    }
+
     public MealPlan(Guest guest, Reservation reservation) {
         this(guest, reservation, new ArrayList<>(), new ArrayList<>());
     }
@@ -83,6 +95,9 @@ public class MealPlan implements Serializable {
             throw new IllegalArgumentException("Contains invalid categories that are not Extra.Category.Food");
         }
         this.foodExtras = foodExtras;
+        if (reservation != null) {
+            reservation.invalidateQuote();
+        }
     }
 
     public List<DietaryRequirement> getDietaryRequirements() {
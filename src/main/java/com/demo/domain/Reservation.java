@@ -1,8 +1,12 @@
 package com.demo.domain;
 
+import com.demo.domain.pricing.PricingEngine;
+import com.demo.domain.pricing.Quote;
+
 import javax.persistence.*;
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -11,13 +15,24 @@ import java.util.stream.Collectors;
 public class Reservation {
     public static final double TAX_AMOUNT = 0.10;
 
+    /*
+     * Every entity allocates ids from its own sequence 50 at a time (Hibernate's pooled optimizer), so a booking
+     * inserting the reservation, guests, meal plans and payment needs no sequence round trip per row and the inserts
+     * can be sent as JDBC batches, see spring.jpa.properties.hibernate.jdbc.batch_size.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", allocationSize = 50)
     private Long id;
 
     private UUID reservationId = UUID.randomUUID();
 
-    @OneToOne(mappedBy = "reservation")
+    /*
+     * A Room can be booked many times over different dates. The nights each Reservation occupies are indexed
+     * in memory by AvailabilityIndex which is rebuilt from this table at startup.
+     */
+    @ManyToOne
+    @JoinColumn(nullable = false)
     private Room room;
 
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
@@ -50,6 +65,15 @@ public class Reservation {
     @Column(nullable = false)
     private LocalDateTime createdTime;
 
+    /*
+     * Memoised getQuote() result, cleared by every mutator that changes the price. Data binding edits the dates and
+     * meal plans in place so the priced dates are remembered and compared, and MealPlan invalidates on food changes.
+     */
+    private transient Quote quote;
+    private transient LocalDate quotedCheckInDate;
+    private transient LocalDate quotedCheckOutDate;
+    private transient boolean quotedLateCheckout;
+
     /**
      * @return The time this {@code Reservation} was successfully paid for and persisted.
      */
@@ -60,6 +84,13 @@ public class Reservation {
     public Reservation() {
     }
 
+    /**
+     * Recreates an unsaved {@code Reservation} of a reservation flow, keeping the id its room hold is placed under.
+     */
+    public Reservation(UUID reservationId) {
+        this.reservationId = reservationId;
+    }
+
     public Long getId() {
         return id;
     }
@@ -68,11 +99,25 @@ public class Reservation {
         this.id = id;
     }
 
+    /**
+     * Forgets the ids assigned by a save that was rolled back, so saving again inserts new rows rather than merging
+     * into copies of rows that were never committed.
+     */
+    public void clearGeneratedIds() {
+        id = null;
+        guests.forEach(Guest::clearId);
+        mealPlans.forEach(MealPlan::clearId);
+        if (completedPayment != null) {
+            completedPayment.setId(null);
+        }
+    }
+
     public Room getRoom() {
         return room;
     }
 
     public void setRoom(Room room) {
+        invalidateQuote();
         this.room = room;
     }
 
@@ -105,11 +150,13 @@ public class Reservation {
      */
     public void addGuest(Guest guest) {
         if (!isRoomFull()) {
+            invalidateQuote();
             guests.add(guest);
         }
     }
 
     public void clearGuests() {
+        invalidateQuote();
         guests.clear();
     }
 
@@ -121,6 +168,7 @@ public class Reservation {
      * @return {@code true} if the {@code Guest} was removed otherwise {@code false}.
      */
     public boolean removeGuestById(UUID guestId) {
+        invalidateQuote();
         return guests.removeIf(guest -> guest.getTempId().equals(guestId));
     }
 
@@ -144,6 +192,7 @@ public class Reservation {
         if (containsInvalidCategories) {
             throw new IllegalArgumentException("Contains invalid categories that are not Extra.Category.General");
         }
+        invalidateQuote();
         this.generalExtras = generalExtras;
     }
 
@@ -152,6 +201,7 @@ public class Reservation {
     }
 
     public void setMealPlans(List<MealPlan> mealPlans) {
+        invalidateQuote();
         this.mealPlans = mealPlans;
     }
 
@@ -160,6 +210,7 @@ public class Reservation {
     }
 
     public void setDates(ReservationDates dates) {
+        invalidateQuote();
         this.dates = dates;
     }
 
@@ -181,13 +232,7 @@ public class Reservation {
      * @return Depending on the room type, return {@code Extra.Type.Premium/Basic}.
      */
     public Extra.Type getExtraPricingType() {
-        switch (room.getRoomType()) {
-            case Luxury:
-            case Business:
-                return Extra.Type.Premium;
-            default:
-                return Extra.Type.Basic;
-        }
+        return room.getRoomType().getExtraPricingType();
     }
 
     /**
@@ -202,13 +247,7 @@ public class Reservation {
      * For the actual chargeable fee, use {@link #getChargeableLateCheckoutFee()}
      */
     public BigDecimal getLateCheckoutFee() {
-        switch (room.getRoomType()) {
-            case Luxury:
-            case Business:
-                return BigDecimal.ZERO;
-            default:
-                return room.getHotel().getLateCheckoutFee();
-        }
+        return room.getRoomType().hasFreeLateCheckout() ? BigDecimal.ZERO : room.getHotel().getLateCheckoutFee();
     }
 
     /**
@@ -288,6 +327,33 @@ public class Reservation {
         return getTotalCostExcludingTax().add(getTaxableAmount());
     }
 
+    /**
+     * Prices the whole reservation in a single pass, views should prefer this over calling each of the
+     * {@code BigDecimal} total methods which recalculate every sub total they depend on. The quote is only
+     * recalculated after something affecting the price changes.
+     *
+     * @return The price breakdown rounded to whole cents.
+     */
+    public Quote getQuote() {
+        if (quote == null
+                || !Objects.equals(quotedCheckInDate, dates.getCheckInDate())
+                || !Objects.equals(quotedCheckOutDate, dates.getCheckOutDate())
+                || quotedLateCheckout != dates.isLateCheckout()) {
+            quote = PricingEngine.quote(this);
+            quotedCheckInDate = dates.getCheckInDate();
+            quotedCheckOutDate = dates.getCheckOutDate();
+            quotedLateCheckout = dates.isLateCheckout();
+        }
+        return quote;
+    }
+
+    /**
+     * Forces the next {@link #getQuote()} to recalculate.
+     */
+    public void invalidateQuote() {
+        quote = null;
+    }
+
 
     /**
      * Creates a new {@code MealPlan} for each {@code Guest} and assigns the result to the internal {@code mealPlans}
@@ -297,6 +363,7 @@ public class Reservation {
      * order ready to be binded to dynamic fields in thymeleaf template.</p>
      */
     public void createMealPlans() {
+        invalidateQuote();
         mealPlans = guests.stream()
                 .map(guest -> new MealPlan(guest, this))
                 .sorted(Comparator.comparing(MealPlan::getGuest, Guest.comparator()))
@@ -305,15 +372,12 @@ public class Reservation {
 
     /**
      * Since {@link #createMealPlans} creates a meal plan for each {@code Guest}. Simply checking the list size is
-     * not going to tell you if the meal plans are empty. Instead empty is defined by the total being zero dollars.
+     * not going to tell you if the meal plans are empty. Instead empty is defined by no food being selected.
      *
-     * @return {@code true} if all meal plans add up to 0.
+     * @return {@code true} if no meal plan has any food extras.
      */
     public boolean hasEmptyMealPlans() {
-        return mealPlans.stream()
-                .map(MealPlan::getTotalMealPlanCost)
-                .reduce(BigDecimal.ZERO, BigDecimal::add, BigDecimal::add)
-                .equals(BigDecimal.ZERO);
+        return mealPlans.stream().noneMatch(MealPlan::hasFoodExtras);
     }
 
     @Override
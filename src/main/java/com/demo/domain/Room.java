@@ -1,5 +1,7 @@
 package com.demo.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 
 import javax.persistence.*;
@@ -8,9 +10,21 @@ import java.math.BigDecimal;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
+// Each index matches a keyset order of a hotel's rooms (see RoomPredicates.KEYSET) so any page seeks straight to its
+// first row.
+@Table(indexes = {
+        @Index(name = "idx_room_hotel_id", columnList = "hotel_id, id"),
+        @Index(name = "idx_room_hotel_room_number", columnList = "hotel_id, room_number, id"),
+        @Index(name = "idx_room_hotel_room_type", columnList = "hotel_id, room_type, id"),
+        @Index(name = "idx_room_hotel_beds", columnList = "hotel_id, beds, id"),
+        @Index(name = "idx_room_hotel_cost_per_night", columnList = "hotel_id, cost_per_night, id")
+})
 public class Room {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_seq")
+    @SequenceGenerator(name = "room_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -30,8 +44,9 @@ public class Room {
     @Column(nullable = false)
     private BigDecimal costPerNight;
 
-    @OneToOne(cascade = CascadeType.ALL)
-    private Reservation reservation;
+    // Bumped by every booking commit so concurrent bookings of the same room, possibly on different nodes, conflict.
+    @Version
+    private long version;
 
     public Room(String roomNumber, RoomType roomType, int beds, BigDecimal costPerNight) {
         this.roomNumber = roomNumber;
@@ -51,6 +66,10 @@ public class Room {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public Hotel getHotel() {
         return hotel;
     }
@@ -91,21 +110,6 @@ public class Room {
         this.costPerNight = costPerNight;
     }
 
-    public Reservation getReservation() {
-        return reservation;
-    }
-
-    public void setReservation(Reservation reservation) {
-        if (reservation != null) {
-            this.reservation = reservation;
-            reservation.setRoom(this);
-        }
-    }
-
-    public boolean isReserved() {
-        return reservation != null;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,5 +1,25 @@
 package com.demo.domain;
 
 public enum RoomType {
-    Economy, Balcony, Business, Luxury
+    Economy, Balcony, Business, Luxury;
+
+    /**
+     * @return The {@code Extra.Type} used to charge general and food extras for this type of room.
+     */
+    public Extra.Type getExtraPricingType() {
+        switch (this) {
+            case Luxury:
+            case Business:
+                return Extra.Type.Premium;
+            default:
+                return Extra.Type.Basic;
+        }
+    }
+
+    /**
+     * @return {@code true} if guests of this type of room can checkout late without paying the hotel's fee.
+     */
+    public boolean hasFreeLateCheckout() {
+        return getExtraPricingType() == Extra.Type.Premium;
+    }
 }
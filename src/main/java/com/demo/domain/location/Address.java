@@ -31,6 +31,11 @@ public class Address {
     @Valid
     private Postcode postcode;
 
+    // WGS84 degrees, null when the address has not been geocoded.
+    private Double latitude;
+
+    private Double longitude;
+
     public Address(String business, String streetLine1, String streetLine2, State state,
                    String suburb, Postcode postcode) {
         this.business = business;
@@ -80,6 +85,13 @@ public class Address {
         return Utils.capitalizeWords(suburb);
     }
 
+    /**
+     * @return The suburb exactly as entered, {@link #getSuburb()} capitalises it for display.
+     */
+    public String getRawSuburb() {
+        return suburb;
+    }
+
     public void setSuburb(String suburb) {
         this.suburb = suburb;
     }
@@ -92,6 +104,26 @@ public class Address {
         this.postcode = postcode;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -102,12 +134,14 @@ public class Address {
                 Objects.equals(streetLine2, address.streetLine2) &&
                 state == address.state &&
                 Objects.equals(suburb, address.suburb) &&
-                Objects.equals(postcode, address.postcode);
+                Objects.equals(postcode, address.postcode) &&
+                Objects.equals(latitude, address.latitude) &&
+                Objects.equals(longitude, address.longitude);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(business, streetLine1, streetLine2, state, suburb, postcode);
+        return Objects.hash(business, streetLine1, streetLine2, state, suburb, postcode, latitude, longitude);
     }
 
     @Override
@@ -119,6 +153,8 @@ public class Address {
                 ", state=" + state +
                 ", suburb='" + suburb + '\'' +
                 ", postcode=" + postcode +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
                 '}';
     }
 }
@@ -8,8 +8,10 @@ import java.util.Objects;
 
 @Embeddable
 public class Postcode {
+    public static final String PATTERN = "[0-9]{4}";
+
     @Column(nullable = false)
-    @Pattern(regexp = "[0-9]{4}", message = "Postcode must be 4 digits")
+    @Pattern(regexp = PATTERN, message = "Postcode must be 4 digits")
     @NotNull(message = "required")
     private String value;
 
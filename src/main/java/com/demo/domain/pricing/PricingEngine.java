@@ -0,0 +1,105 @@
+package com.demo.domain.pricing;
+
+import com.demo.domain.Extra;
+import com.demo.domain.MealPlan;
+import com.demo.domain.Reservation;
+import com.demo.domain.Room;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices a {@code Reservation} in a single pass using {@code long} cents rather than building up a tree of
+ * {@code BigDecimal} totals.
+ *
+ * <p>Rounding rules</p>
+ * <ul>
+ *     <li>Prices are converted to whole cents once, rounding half up.</li>
+ *     <li>Per night prices are multiplied by the total nights exactly.</li>
+ *     <li>Percentages are expressed in basis points and each application rounds half up to the nearest cent,
+ *     the child discount once per food extra and tax once on the total.</li>
+ * </ul>
+ */
+public final class PricingEngine {
+
+    // 1 basis point = 0.01%, allows percentages to be applied with integer arithmetic.
+    private static final long BASIS_POINTS = 10_000;
+
+    // Derived from the rates the BigDecimal totals and views use so the two cannot drift apart.
+    public static final long TAX_BASIS_POINTS = toBasisPoints(Reservation.TAX_AMOUNT);
+    public static final long CHILD_DISCOUNT_BASIS_POINTS = toBasisPoints(MealPlan.CHILD_DISCOUNT_PERCENT);
+
+    private PricingEngine() {
+    }
+
+    /**
+     * @param rate A fraction such as {@code 0.10} for 10%.
+     */
+    private static long toBasisPoints(double rate) {
+        return Math.round(rate * BASIS_POINTS);
+    }
+
+    /**
+     * @return The full price breakdown, or {@link Quote#EMPTY} until a {@code Room} has been chosen.
+     */
+    public static Quote quote(Reservation reservation) {
+        Room room = reservation.getRoom();
+        if (room == null) {
+            return Quote.EMPTY;
+        }
+        // Dates still being edited can be out of order, they cost nothing rather than a negative amount.
+        long nights = Math.max(0, reservation.getDates().totalNights());
+
+        long roomCents = Math.multiplyExact(toCents(room.getCostPerNight()), nights);
+        long lateCheckoutFeeCents = reservation.getDates().isLateCheckout()
+                ? toCents(reservation.getLateCheckoutFee())
+                : 0;
+
+        long generalExtrasCents = 0;
+        for (Extra extra : reservation.getGeneralExtras()) {
+            generalExtrasCents += Math.multiplyExact(toCents(extra.getPerNightPrice()), nights);
+        }
+
+        long mealPlansCents = 0;
+        for (MealPlan mealPlan : reservation.getMealPlans()) {
+            boolean child = mealPlan.getGuest() != null && mealPlan.getGuest().isChild();
+            for (Extra foodExtra : mealPlan.getFoodExtras()) {
+                long extraCents = Math.multiplyExact(toCents(foodExtra.getPerNightPrice()), nights);
+                mealPlansCents += child
+                        ? extraCents - applyRate(extraCents, CHILD_DISCOUNT_BASIS_POINTS)
+                        : extraCents;
+            }
+        }
+
+        long totalExcludingTax = roomCents + lateCheckoutFeeCents + generalExtrasCents + mealPlansCents;
+        return new Quote(roomCents, lateCheckoutFeeCents, generalExtrasCents, mealPlansCents, tax(totalExcludingTax));
+    }
+
+    /**
+     * @return The tax owed on {@code totalExcludingTaxCents}.
+     */
+    public static long tax(long totalExcludingTaxCents) {
+        return applyRate(totalExcludingTaxCents, TAX_BASIS_POINTS);
+    }
+
+    /**
+     * @return {@code cents * basisPoints / 10000} rounded half up to the nearest cent.
+     */
+    static long applyRate(long cents, long basisPoints) {
+        return Math.floorDiv(Math.multiplyExact(cents, basisPoints) + BASIS_POINTS / 2, BASIS_POINTS);
+    }
+
+    /**
+     * @return The amount in whole cents rounded half up, {@code null} is treated as free.
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDollars(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
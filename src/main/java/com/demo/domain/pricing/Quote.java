@@ -0,0 +1,116 @@
+package com.demo.domain.pricing;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Immutable price breakdown of a {@code Reservation} produced by {@link PricingEngine}. Every amount is held in
+ * whole cents, the {@code BigDecimal} getters exist so templates can format the amounts as currency.
+ */
+public final class Quote {
+
+    public static final Quote EMPTY = new Quote(0, 0, 0, 0, 0);
+
+    private final long roomCents;
+    private final long lateCheckoutFeeCents;
+    private final long generalExtrasCents;
+    private final long mealPlansCents;
+    private final long taxCents;
+
+    public Quote(long roomCents, long lateCheckoutFeeCents, long generalExtrasCents, long mealPlansCents,
+                 long taxCents) {
+        this.roomCents = roomCents;
+        this.lateCheckoutFeeCents = lateCheckoutFeeCents;
+        this.generalExtrasCents = generalExtrasCents;
+        this.mealPlansCents = mealPlansCents;
+        this.taxCents = taxCents;
+    }
+
+    public long getRoomCents() {
+        return roomCents;
+    }
+
+    public long getLateCheckoutFeeCents() {
+        return lateCheckoutFeeCents;
+    }
+
+    public long getGeneralExtrasCents() {
+        return generalExtrasCents;
+    }
+
+    public long getMealPlansCents() {
+        return mealPlansCents;
+    }
+
+    public long getTotalExcludingTaxCents() {
+        return roomCents + lateCheckoutFeeCents + generalExtrasCents + mealPlansCents;
+    }
+
+    public long getTaxCents() {
+        return taxCents;
+    }
+
+    public long getTotalIncludingTaxCents() {
+        return getTotalExcludingTaxCents() + taxCents;
+    }
+
+    public BigDecimal getRoom() {
+        return PricingEngine.toDollars(roomCents);
+    }
+
+    public BigDecimal getLateCheckoutFee() {
+        return PricingEngine.toDollars(lateCheckoutFeeCents);
+    }
+
+    public BigDecimal getRoomWithLateCheckoutFee() {
+        return PricingEngine.toDollars(roomCents + lateCheckoutFeeCents);
+    }
+
+    public BigDecimal getGeneralExtras() {
+        return PricingEngine.toDollars(generalExtrasCents);
+    }
+
+    public BigDecimal getMealPlans() {
+        return PricingEngine.toDollars(mealPlansCents);
+    }
+
+    public BigDecimal getTotalExcludingTax() {
+        return PricingEngine.toDollars(getTotalExcludingTaxCents());
+    }
+
+    public BigDecimal getTax() {
+        return PricingEngine.toDollars(taxCents);
+    }
+
+    public BigDecimal getTotalIncludingTax() {
+        return PricingEngine.toDollars(getTotalIncludingTaxCents());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Quote quote = (Quote) o;
+        return roomCents == quote.roomCents &&
+                lateCheckoutFeeCents == quote.lateCheckoutFeeCents &&
+                generalExtrasCents == quote.generalExtrasCents &&
+                mealPlansCents == quote.mealPlansCents &&
+                taxCents == quote.taxCents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomCents, lateCheckoutFeeCents, generalExtrasCents, mealPlansCents, taxCents);
+    }
+
+    @Override
+    public String toString() {
+        return "Quote{" +
+                "roomCents=" + roomCents +
+                ", lateCheckoutFeeCents=" + lateCheckoutFeeCents +
+                ", generalExtrasCents=" + generalExtrasCents +
+                ", mealPlansCents=" + mealPlansCents +
+                ", taxCents=" + taxCents +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.demo.exceptions;
+
+/**
+ * Thrown when a record of an import file cannot be parsed or fails validation. The record is rejected and the import
+ * continues with the next record.
+ */
+public class InvalidRecordException extends Exception {
+
+    public InvalidRecordException(String message) {
+        super(message);
+    }
+}
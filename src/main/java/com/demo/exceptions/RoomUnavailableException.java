@@ -0,0 +1,15 @@
+package com.demo.exceptions;
+
+/**
+ * Thrown when a {@code Reservation} cannot be booked because another reservation already occupies some of
+ * its nights.
+ */
+public class RoomUnavailableException extends Exception {
+
+    public RoomUnavailableException() {
+    }
+
+    public RoomUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.hotel;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Prices of every room in a hotel for every stay in a calendar, laid out in columns to keep the JSON small.
+ *
+ * <p>A stay is identified by its check in day offset {@code d} from {@code start} ({@code 0 <= d < days}) and its
+ * length {@code n} in nights ({@code 1 <= n <= maxNights}). The total including tax for room {@code r} is at
+ * {@code totalCents[r][d * maxNights + n - 1]}, {@code -1} means the room is not available for that stay.</p>
+ */
+public class BatchQuote {
+
+    public static final long UNAVAILABLE = -1;
+
+    private final Long hotelId;
+    private final LocalDate start;
+    private final int days;
+    private final int maxNights;
+    private final List<Long> roomIds;
+    private final List<String> roomNumbers;
+    private final long[][] totalCents;
+
+    public BatchQuote(Long hotelId, LocalDate start, int days, int maxNights,
+                      List<Long> roomIds, List<String> roomNumbers, long[][] totalCents) {
+        this.hotelId = hotelId;
+        this.start = start;
+        this.days = days;
+        this.maxNights = maxNights;
+        this.roomIds = roomIds;
+        this.roomNumbers = roomNumbers;
+        this.totalCents = totalCents;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getMaxNights() {
+        return maxNights;
+    }
+
+    public List<Long> getRoomIds() {
+        return roomIds;
+    }
+
+    public List<String> getRoomNumbers() {
+        return roomNumbers;
+    }
+
+    public long[][] getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return The total in cents for the room at {@code roomIndex} checking in {@code dayOffset} days after
+     * {@code start} for {@code nights}, or {@link #UNAVAILABLE}.
+     */
+    public long totalCents(int roomIndex, int dayOffset, int nights) {
+        return totalCents[roomIndex][dayOffset * maxNights + nights - 1];
+    }
+}
@@ -0,0 +1,66 @@
+package com.demo.hotel;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.exceptions.NotFoundException;
+import com.demo.persistance.HotelRepository;
+import com.demo.persistance.RoomRepository;
+import com.demo.persistance.predicates.RoomPredicates;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JSON pricing for channel partners who need every room of a hotel priced across a calendar in one call.
+ */
+@RestController
+public class BatchQuoteController {
+
+    private HotelRepository hotelRepository;
+    private RoomRepository roomRepository;
+    private BatchQuoteService batchQuoteService;
+
+    public BatchQuoteController(HotelRepository hotelRepository,
+                                RoomRepository roomRepository,
+                                BatchQuoteService batchQuoteService) {
+        this.hotelRepository = hotelRepository;
+        this.roomRepository = roomRepository;
+        this.batchQuoteService = batchQuoteService;
+    }
+
+    /**
+     * Prices every room in the hotel for every stay of 1 to {@code maxNights} nights checking in on each of the
+     * {@code days} dates from {@code start}. See {@link BatchQuote} for how the response is laid out.
+     */
+    @GetMapping(value = "/api/hotel/{id}/quotes")
+    public BatchQuote getQuotes(@PathVariable("id") Long id,
+                                @RequestParam(value = "start")
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+                                @RequestParam(value = "days", defaultValue = "30") int days,
+                                @RequestParam(value = "maxNights", defaultValue = "7") int maxNights,
+                                @RequestParam(value = "lateCheckout", defaultValue = "false") boolean lateCheckout,
+                                @RequestParam(value = "extras", required = false) List<String> extras)
+            throws NotFoundException {
+        Hotel hotel = hotelRepository.findById(id).orElseThrow(NotFoundException::new);
+
+        List<Room> rooms = new ArrayList<>();
+        roomRepository.findAll(RoomPredicates.inHotel(id)).forEach(rooms::add);
+        rooms.sort(Comparator.comparing(Room::getRoomNumber));
+
+        try {
+            return batchQuoteService.quote(hotel, rooms, start, days, maxNights, lateCheckout,
+                    extras == null ? List.of() : extras);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.demo.hotel;
+
+import com.demo.domain.Extra;
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.domain.pricing.PricingEngine;
+import com.demo.reservation.ExtrasService;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Prices many room and stay combinations at once using the same rules as {@code PricingEngine}: room cost per
+ * night, the hotel's late checkout fee unless the {@code RoomType} includes it, general extras charged at the
+ * room's {@code Extra.Type} price and tax on the total.
+ *
+ * <p>Everything that does not depend on the stay is worked out once per room, leaving a multiply and add per
+ * combination. Availability is answered once per check in day for every stay length. Rooms are priced on the
+ * request thread, a hotel has too few rooms to gain from sharing the common pool with every other request.</p>
+ */
+@Service
+public class BatchQuoteService {
+
+    static final int MAX_DAYS = 90;
+    static final int MAX_NIGHTS = 30;
+
+    private AvailabilityIndex availabilityIndex;
+    private ExtrasService extrasService;
+
+    public BatchQuoteService(AvailabilityIndex availabilityIndex, ExtrasService extrasService) {
+        this.availabilityIndex = availabilityIndex;
+        this.extrasService = extrasService;
+    }
+
+    /**
+     * @param start        The first check in date.
+     * @param days         The number of consecutive check in dates to price.
+     * @param maxNights    Every stay length from 1 up to this many nights is priced for each check in date.
+     * @param lateCheckout {@code true} to include the late checkout fee.
+     * @param extras       Descriptions of the general extras to include, matched ignoring case. Each room is charged
+     *                     the price of the extra for its {@code Extra.Type}.
+     * @throws IllegalArgumentException if {@code days} or {@code maxNights} is out of range or an extra is not a
+     *                                  general extra.
+     */
+    public BatchQuote quote(Hotel hotel, List<Room> rooms, LocalDate start, int days, int maxNights,
+                            boolean lateCheckout, Collection<String> extras) throws IllegalArgumentException {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        if (maxNights < 1 || maxNights > MAX_NIGHTS) {
+            throw new IllegalArgumentException("maxNights must be between 1 and " + MAX_NIGHTS);
+        }
+
+        Map<Extra.Type, Long> extrasPerNightCents = extrasPerNightCents(extras);
+        long hotelLateCheckoutFeeCents = lateCheckout ? PricingEngine.toCents(hotel.getLateCheckoutFee()) : 0;
+
+        long[][] totalCents = new long[rooms.size()][];
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            long perNightCents = PricingEngine.toCents(room.getCostPerNight())
+                    + extrasPerNightCents.get(room.getRoomType().getExtraPricingType());
+            long lateCheckoutFeeCents = room.getRoomType().hasFreeLateCheckout() ? 0 : hotelLateCheckoutFeeCents;
+            totalCents[i] = quoteRoom(room.getId(), start, days, maxNights, perNightCents, lateCheckoutFeeCents);
+        }
+
+        return new BatchQuote(hotel.getId(), start, days, maxNights,
+                rooms.stream().map(Room::getId).collect(Collectors.toList()),
+                rooms.stream().map(Room::getRoomNumber).collect(Collectors.toList()),
+                totalCents);
+    }
+
+    private long[] quoteRoom(Long roomId, LocalDate start, int days, int maxNights,
+                             long perNightCents, long lateCheckoutFeeCents) {
+        long[] totals = new long[days * maxNights];
+        for (int day = 0; day < days; day++) {
+            int freeNights = availabilityIndex.freeNightsFrom(roomId, start.plusDays(day), maxNights);
+            int offset = day * maxNights;
+            for (int nights = 1; nights <= maxNights; nights++) {
+                if (nights > freeNights) {
+                    totals[offset + nights - 1] = BatchQuote.UNAVAILABLE;
+                } else {
+                    long totalExcludingTax = perNightCents * nights + lateCheckoutFeeCents;
+                    totals[offset + nights - 1] = totalExcludingTax + PricingEngine.tax(totalExcludingTax);
+                }
+            }
+        }
+        return totals;
+    }
+
+    private Map<Extra.Type, Long> extrasPerNightCents(Collection<String> descriptions)
+            throws IllegalArgumentException {
+        Set<String> wanted = descriptions.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        Set<String> unknown = new TreeSet<>(wanted);
+        Map<Extra.Type, Long> perNight = new EnumMap<>(Extra.Type.class);
+        for (Extra.Type type : Extra.Type.values()) {
+            List<Extra> matched = extrasService.getGeneralExtras(type).stream()
+                    .filter(extra -> wanted.contains(extra.getDescription().toLowerCase()))
+                    .collect(Collectors.toList());
+            matched.forEach(extra -> unknown.remove(extra.getDescription().toLowerCase()));
+            perNight.put(type, matched.stream()
+                    .mapToLong(extra -> PricingEngine.toCents(extra.getPerNightPrice()))
+                    .sum());
+        }
+        // Quoting without a misspelt extra would look like a valid but cheaper price.
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown extras " + unknown);
+        }
+        return perNight;
+    }
+}
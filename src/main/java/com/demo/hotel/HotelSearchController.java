@@ -1,50 +1,191 @@
 package com.demo.hotel;
 
 import com.demo.domain.Hotel;
+import com.demo.domain.QHotel;
+import com.demo.domain.QRoom;
 import com.demo.domain.Room;
 import com.demo.exceptions.NotFoundException;
+import com.demo.hotel.search.HotelFacetIndex;
+import com.demo.hotel.search.HotelGeoIndex;
+import com.demo.hotel.search.HotelTextIndex;
 import com.demo.persistance.HotelRepository;
+import com.demo.persistance.KeysetQueries;
+import com.demo.persistance.KeysetSlice;
+import com.demo.persistance.predicates.HotelPredicates;
+import com.demo.persistance.predicates.Keyset;
 import com.demo.persistance.predicates.RoomPredicates;
 import com.demo.persistance.RoomRepository;
-import org.springframework.beans.factory.annotation.Value;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
-import javax.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Controller
 public class HotelSearchController {
 
     private HotelRepository hotelRepository;
     private RoomRepository roomRepository;
+    private AvailabilityIndex availabilityIndex;
+    private KeysetQueries keysetQueries;
+    private HotelTextIndex hotelTextIndex;
+    private HotelGeoIndex hotelGeoIndex;
+    private HotelFacetIndex hotelFacetIndex;
 
     public HotelSearchController(HotelRepository hotelRepository,
-                                 RoomRepository roomRepository) {
+                                 RoomRepository roomRepository,
+                                 AvailabilityIndex availabilityIndex,
+                                 KeysetQueries keysetQueries,
+                                 HotelTextIndex hotelTextIndex,
+                                 HotelGeoIndex hotelGeoIndex,
+                                 HotelFacetIndex hotelFacetIndex) {
         this.hotelRepository = hotelRepository;
         this.roomRepository = roomRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.keysetQueries = keysetQueries;
+        this.hotelTextIndex = hotelTextIndex;
+        this.hotelGeoIndex = hotelGeoIndex;
+        this.hotelFacetIndex = hotelFacetIndex;
     }
 
+    /**
+     * Keyset paging is used instead of offset paging when the request has a {@code cursor} parameter, an empty
+     * {@code cursor} requests the first page. The result is then a {@link KeysetSlice} which has no total count and
+     * {@code keyset} is added to the model so the view shows next/first page links only.
+     *
+     * <p>Supplying {@code near} as {@code latitude,longitude} instead finds the hotels within {@code radiusKm} of the
+     * point nearest first, see {@link HotelGeoIndex}. The distance to each hotel is added to the model as
+     * {@code distances}. A {@code radiusKm} that is not finite or over {@link HotelGeoIndex#MAX_RADIUS_KM} is a bad
+     * request.</p>
+     *
+     * <p>Location searches also add the counts of matching hotels by state, suburb, stars and room type to the model
+     * as {@code facets}, see {@link HotelFacetIndex}.</p>
+     */
     @GetMapping(value = "/hotel/search")
     public String getHotels(@RequestParam(value = "state", required = false) String state,
                             @RequestParam(value = "suburb", required = false) String suburb,
                             @RequestParam(value = "postcode", required = false) String postcode,
+                            @RequestParam(value = "cursor", required = false) String cursor,
+                            @RequestParam(value = "near", required = false) String near,
+                            @RequestParam(value = "radiusKm", defaultValue = "10") double radiusKm,
                             Pageable pageable, Model model) {
+        if (near != null) {
+            List<HotelGeoIndex.Nearby> nearby = findNear(near, radiusKm);
+            Map<Long, Double> distances = new HashMap<>();
+            nearby.forEach(hotel -> distances.put(hotel.getHotelId(), hotel.getDistanceKm()));
+
+            model.addAttribute("hotels", pageOfHotels(nearby.stream()
+                    .map(HotelGeoIndex.Nearby::getHotelId)
+                    .collect(Collectors.toList()), pageable));
+            model.addAttribute("distances", distances);
+            return "/hotel/hotels";
+        }
+        model.addAttribute("facets", hotelFacetIndex.facets(state, suburb, postcode));
+        if (cursor != null) {
+            model.addAttribute("hotels", findSlice(QHotel.hotel, HotelPredicates.byLocation(state, suburb, postcode),
+                    HotelPredicates.KEYSET, pageable, cursor));
+            model.addAttribute("keyset", true);
+            return "/hotel/hotels";
+        }
         Page<Hotel> results = hotelRepository.findAllByLocation(state, suburb, postcode, pageable);
         model.addAttribute("hotels", results == null ? Page.empty() : results);
         return "/hotel/hotels";
     }
 
+    /**
+     * Free text search over hotel names, suburbs, streets and states tolerating partial words and typos, see
+     * {@link HotelTextIndex}. Results are ordered by relevance so any requested sort is ignored. Only the hotels on
+     * the requested page are loaded from the database.
+     */
+    @GetMapping(value = "/hotel/find")
+    public String findHotels(@RequestParam(value = "q", required = false) String query,
+                             Pageable pageable, Model model) {
+        model.addAttribute("hotels", pageOfHotels(hotelTextIndex.search(query), pageable));
+        return "/hotel/hotels";
+    }
+
+    /**
+     * Searches every hotel in the location for a room that sleeps at least {@code guests} and is free for every night
+     * between {@code checkIn} and {@code checkOut}. Availability and prices come straight from the
+     * {@code AvailabilityIndex} so only the ids of the hotels in the location are queried, then the hotels on the
+     * requested page are loaded.
+     *
+     * <p>Results are ordered by the cheapest suitable room in each hotel, then by id, and the rates are added to the
+     * model as {@code rates} so the view can display a 'from' price.</p>
+     */
+    @GetMapping(value = "/hotel/availability")
+    public String getAvailableHotels(@RequestParam(value = "state", required = false) String state,
+                                     @RequestParam(value = "suburb", required = false) String suburb,
+                                     @RequestParam(value = "postcode", required = false) String postcode,
+                                     @RequestParam(value = "checkIn")
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+                                     @RequestParam(value = "checkOut")
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+                                     @RequestParam(value = "guests", defaultValue = "1") int guests,
+                                     Pageable pageable, Model model) {
+        List<Long> hotelIds = hotelRepository.findIdsByLocation(state, suburb, postcode);
+
+        Map<Long, BigDecimal> rates = checkIn.isBefore(checkOut)
+                ? availabilityIndex.lowestAvailableRates(hotelIds, checkIn, checkOut, guests)
+                : Collections.emptyMap();
+
+        List<Long> availableHotelIds = hotelIds.stream()
+                .filter(rates::containsKey)
+                .sorted(Comparator.comparing((Long hotelId) -> rates.get(hotelId))
+                        .thenComparing(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+
+        model.addAttribute("hotels", pageOfHotels(availableHotelIds, pageable));
+        model.addAttribute("rates", rates);
+        model.addAttribute("checkIn", checkIn);
+        model.addAttribute("checkOut", checkOut);
+        return "/hotel/hotels";
+    }
+
+    /**
+     * When both {@code checkIn} and {@code checkOut} are supplied only the rooms free for every night in between
+     * are returned, otherwise all rooms in the hotel are listed. Supports keyset paging the same as
+     * {@code /hotel/search}.
+     */
     @GetMapping(value = "/hotel/{id}/rooms")
-    public String getHotelRooms(@PathVariable("id") Long id, Pageable pageable, Model model) throws NotFoundException {
+    public String getHotelRooms(@PathVariable("id") Long id,
+                                @RequestParam(value = "checkIn", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+                                @RequestParam(value = "checkOut", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+                                @RequestParam(value = "cursor", required = false) String cursor,
+                                Pageable pageable, Model model) throws NotFoundException {
         Hotel hotel = hotelRepository.findById(id).orElseThrow(NotFoundException::new);
-        Page<Room> availableRooms = roomRepository.findAll(RoomPredicates.availableRoom(id), pageable);
-        model.addAttribute("rooms", availableRooms);
+
+        Set<Long> unavailableRoomIds = checkIn != null && checkOut != null && checkIn.isBefore(checkOut)
+                ? availabilityIndex.unavailableRoomIds(id, checkIn, checkOut)
+                : Collections.emptySet();
+
+        Predicate availableRoom = RoomPredicates.availableRoom(id, unavailableRoomIds);
+        if (cursor != null) {
+            model.addAttribute("rooms", findSlice(QRoom.room, availableRoom, RoomPredicates.KEYSET, pageable, cursor));
+            model.addAttribute("keyset", true);
+        } else {
+            Page<Room> availableRooms = roomRepository.findAll(availableRoom, pageable);
+            model.addAttribute("rooms", availableRooms);
+        }
         model.addAttribute("hotel", hotel);
+        model.addAttribute("checkIn", checkIn);
+        model.addAttribute("checkOut", checkOut);
         return "/hotel/rooms";
     }
 
@@ -55,9 +196,54 @@ public class HotelSearchController {
 
     // TODO: for testing
     @GetMapping(value = "/hotels")
-    public String getHotels(Pageable pageable, Model model) {
+    public String getHotels(@RequestParam(value = "cursor", required = false) String cursor,
+                            Pageable pageable, Model model) {
+        if (cursor != null) {
+            model.addAttribute("hotels", findSlice(QHotel.hotel, null, HotelPredicates.KEYSET, pageable, cursor));
+            model.addAttribute("keyset", true);
+            return "/hotel/hotels";
+        }
         Page<Hotel> results = hotelRepository.findAll(pageable);
         model.addAttribute("hotels", results);
         return "/hotel/hotels";
     }
+
+    /**
+     * Loads only the hotels on the requested page of {@code hotelIds}, keeping the order of the ids.
+     */
+    private Page<Hotel> pageOfHotels(List<Long> hotelIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), hotelIds.size());
+        int to = Math.min(from + pageable.getPageSize(), hotelIds.size());
+        List<Long> pageIds = hotelIds.subList(from, to);
+
+        Map<Long, Hotel> hotelsById = new HashMap<>();
+        hotelRepository.findAllById(pageIds).forEach(hotel -> hotelsById.put(hotel.getId(), hotel));
+        List<Hotel> hotels = pageIds.stream()
+                .map(hotelsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(hotels, pageable, hotelIds.size());
+    }
+
+    private List<HotelGeoIndex.Nearby> findNear(String near, double radiusKm) {
+        String[] coordinate = near.split(",");
+        try {
+            if (coordinate.length != 2) {
+                throw new IllegalArgumentException("near must be latitude,longitude");
+            }
+            return hotelGeoIndex.near(Double.parseDouble(coordinate[0].trim()),
+                    Double.parseDouble(coordinate[1].trim()), radiusKm);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private <T> KeysetSlice<T> findSlice(EntityPath<T> root, Predicate where, Keyset<T> keyset,
+                                         Pageable pageable, String cursor) {
+        try {
+            return keysetQueries.findSlice(root, where, keyset, pageable, cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,286 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.State;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Counts of the hotels matching a location search broken down by state, suburb, stars and the room types they offer,
+ * displayed next to search results to help narrow the search. The {@code Hotel} and {@code Room} tables remain the
+ * source of truth, the counts are loaded and kept up to date by {@link HotelIndexLoader}.
+ *
+ * <p>Rather than grouping the matching hotels on every search, counters are kept for every location a search can ask
+ * for. A hotel is included in 8 of them, one for each combination of its state, suburb and postcode being searched for
+ * or left out, so adding or removing a hotel or room adjusts at most 8 sets of counters and a search is a single
+ * lookup.</p>
+ */
+@Component
+public class HotelFacetIndex {
+
+    private static final int MAX_STARS = 5;
+
+    private final Map<Long, IndexedHotel> hotels = new HashMap<>();
+
+    // hotel id -> number of rooms of each RoomType, kept apart from hotels since rooms can be indexed first.
+    private final Map<Long, int[]> roomTypesByHotel = new HashMap<>();
+    private final Map<Long, IndexedRoom> rooms = new HashMap<>();
+
+    private final Map<Location, Counters> countersByLocation = new HashMap<>();
+
+    public synchronized void index(Hotel hotel) {
+        IndexedHotel previous = hotels.get(hotel.getId());
+        if (previous != null) {
+            count(previous, -1);
+        }
+        IndexedHotel indexed = new IndexedHotel(hotel);
+        hotels.put(hotel.getId(), indexed);
+        count(indexed, 1);
+    }
+
+    public synchronized void removeHotel(Long hotelId) {
+        IndexedHotel previous = hotels.remove(hotelId);
+        if (previous != null) {
+            count(previous, -1);
+        }
+    }
+
+    public synchronized void index(Room room) {
+        removeRoom(room.getId());
+        if (room.getRoomType() == null || room.getHotel() == null || room.getHotel().getId() == null) {
+            return;
+        }
+        IndexedRoom indexed = new IndexedRoom(room.getHotel().getId(), room.getRoomType());
+        rooms.put(room.getId(), indexed);
+        adjustRoomType(indexed, 1);
+    }
+
+    public synchronized void removeRoom(Long roomId) {
+        IndexedRoom previous = rooms.remove(roomId);
+        if (previous != null) {
+            adjustRoomType(previous, -1);
+        }
+    }
+
+    public synchronized void clear() {
+        hotels.clear();
+        roomTypesByHotel.clear();
+        rooms.clear();
+        countersByLocation.clear();
+    }
+
+    /**
+     * @return The facet counts of the hotels a location search with these terms matches, terms are matched the same
+     * way as {@code HotelRepository.findAllByLocation}.
+     */
+    public synchronized Facets facets(String state, String suburb, String postcode) {
+        Counters counters = countersByLocation.get(new Location(state, suburb, postcode));
+        return counters == null ? Facets.EMPTY : counters.toFacets();
+    }
+
+    private void adjustRoomType(IndexedRoom room, int delta) {
+        int[] roomTypes = roomTypesByHotel.computeIfAbsent(room.hotelId, id -> new int[RoomType.values().length]);
+        IndexedHotel hotel = hotels.get(room.hotelId);
+        // a hotel offering its first or losing its last room of a type changes the room type counts.
+        boolean offeredBefore = roomTypes[room.roomType.ordinal()] > 0;
+        roomTypes[room.roomType.ordinal()] += delta;
+        boolean offeredAfter = roomTypes[room.roomType.ordinal()] > 0;
+
+        if (hotel != null && offeredBefore != offeredAfter) {
+            for (Location location : hotel.locations) {
+                counters(location).roomTypes[room.roomType.ordinal()] += offeredAfter ? 1 : -1;
+            }
+        }
+        if (Arrays.stream(roomTypes).allMatch(count -> count == 0)) {
+            roomTypesByHotel.remove(room.hotelId);
+        }
+    }
+
+    private void count(IndexedHotel hotel, int delta) {
+        int[] roomTypes = roomTypesByHotel.get(hotel.hotelId);
+        for (Location location : hotel.locations) {
+            Counters counters = counters(location);
+            counters.hotels += delta;
+            if (hotel.state != null) {
+                counters.states[hotel.state.ordinal()] += delta;
+            }
+            if (hotel.suburb != null) {
+                counters.suburbs.merge(hotel.suburb, delta, Integer::sum);
+                counters.suburbs.remove(hotel.suburb, 0);
+            }
+            counters.stars[Math.max(0, Math.min(MAX_STARS, hotel.stars))] += delta;
+            if (roomTypes != null) {
+                for (int i = 0; i < roomTypes.length; i++) {
+                    if (roomTypes[i] > 0) {
+                        counters.roomTypes[i] += delta;
+                    }
+                }
+            }
+            if (counters.hotels == 0) {
+                countersByLocation.remove(location);
+            }
+        }
+    }
+
+    private Counters counters(Location location) {
+        return countersByLocation.computeIfAbsent(location, l -> new Counters());
+    }
+
+    /**
+     * Immutable facet counts, each ordered from the most to the least hotels. Values with no hotels are left out.
+     */
+    public static class Facets {
+
+        static final Facets EMPTY = new Facets(0, Map.of(), Map.of(), Map.of(), Map.of());
+
+        private final int hotels;
+        private final Map<State, Integer> states;
+        private final Map<String, Integer> suburbs;
+        private final Map<Integer, Integer> stars;
+        private final Map<RoomType, Integer> roomTypes;
+
+        public Facets(int hotels, Map<State, Integer> states, Map<String, Integer> suburbs,
+                      Map<Integer, Integer> stars, Map<RoomType, Integer> roomTypes) {
+            this.hotels = hotels;
+            this.states = states;
+            this.suburbs = suburbs;
+            this.stars = stars;
+            this.roomTypes = roomTypes;
+        }
+
+        public int getHotels() {
+            return hotels;
+        }
+
+        public Map<State, Integer> getStates() {
+            return states;
+        }
+
+        public Map<String, Integer> getSuburbs() {
+            return suburbs;
+        }
+
+        public Map<Integer, Integer> getStars() {
+            return stars;
+        }
+
+        public Map<RoomType, Integer> getRoomTypes() {
+            return roomTypes;
+        }
+    }
+
+    private static class Counters {
+        private int hotels;
+        private final int[] states = new int[State.values().length];
+        private final Map<String, Integer> suburbs = new TreeMap<>();
+        private final int[] stars = new int[MAX_STARS + 1];
+        private final int[] roomTypes = new int[RoomType.values().length];
+
+        private Facets toFacets() {
+            Map<State, Integer> stateCounts = new EnumMap<>(State.class);
+            for (State state : State.values()) {
+                stateCounts.put(state, states[state.ordinal()]);
+            }
+            Map<Integer, Integer> starCounts = new TreeMap<>(Collections.reverseOrder());
+            for (int i = 0; i < stars.length; i++) {
+                starCounts.put(i, stars[i]);
+            }
+            Map<RoomType, Integer> roomTypeCounts = new EnumMap<>(RoomType.class);
+            for (RoomType roomType : RoomType.values()) {
+                roomTypeCounts.put(roomType, roomTypes[roomType.ordinal()]);
+            }
+            return new Facets(hotels, byCount(stateCounts), byCount(suburbs), byCount(starCounts),
+                    byCount(roomTypeCounts));
+        }
+
+        private static <K> Map<K, Integer> byCount(Map<K, Integer> counts) {
+            List<Map.Entry<K, Integer>> entries = new ArrayList<>(counts.entrySet());
+            // stable sort keeps ties in the natural order of the keys.
+            entries.sort(Map.Entry.<K, Integer>comparingByValue().reversed());
+            Map<K, Integer> sorted = new LinkedHashMap<>();
+            for (Map.Entry<K, Integer> entry : entries) {
+                if (entry.getValue() > 0) {
+                    sorted.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return Collections.unmodifiableMap(sorted);
+        }
+    }
+
+    private static class IndexedHotel {
+        private final Long hotelId;
+        private final State state;
+        private final String suburb;
+        private final int stars;
+        private final List<Location> locations = new ArrayList<>();
+
+        private IndexedHotel(Hotel hotel) {
+            Address address = hotel.getAddress();
+            this.hotelId = hotel.getId();
+            this.state = address == null ? null : address.getState();
+            this.suburb = address == null || address.getRawSuburb() == null ? null : address.getSuburb();
+            this.stars = hotel.getStars();
+
+            String searchState = state == null ? null : state.name();
+            String searchSuburb = address == null ? null : address.getRawSuburb();
+            String searchPostcode = address == null || address.getPostcode() == null
+                    ? null : address.getPostcode().getValue();
+            // every combination of each term being searched for or left out.
+            for (int mask = 0; mask < 8; mask++) {
+                locations.add(new Location((mask & 1) == 0 ? null : searchState,
+                        (mask & 2) == 0 ? null : searchSuburb,
+                        (mask & 4) == 0 ? null : searchPostcode));
+            }
+        }
+    }
+
+    private static class IndexedRoom {
+        private final Long hotelId;
+        private final RoomType roomType;
+
+        private IndexedRoom(Long hotelId, RoomType roomType) {
+            this.hotelId = hotelId;
+            this.roomType = roomType;
+        }
+    }
+
+    private static class Location {
+        private final String state;
+        private final String suburb;
+        private final String postcode;
+
+        private Location(String state, String suburb, String postcode) {
+            this.state = Hotel.normaliseSearchTerm(state);
+            this.suburb = Hotel.normaliseSearchTerm(suburb);
+            this.postcode = Hotel.normaliseSearchTerm(postcode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Location location = (Location) o;
+            return Objects.equals(state, location.state) &&
+                    Objects.equals(suburb, location.suburb) &&
+                    Objects.equals(postcode, location.postcode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, suburb, postcode);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory spatial index of hotel coordinates answering 'hotels within r km of a point, nearest first' without
+ * touching the database. The {@code Hotel} table remains the source of truth, the index is loaded and kept up to date
+ * by {@link HotelIndexLoader}. Hotels without coordinates are not indexed.
+ *
+ * <p>The globe is divided into a fixed grid of {@value #CELL_DEGREES} degree cells (roughly 11 km north to south, the
+ * same idea as a fixed length geohash) and each hotel is filed under the cell containing it. A search only visits the
+ * cells overlapping the bounding box of the search circle, measuring the exact great circle distance to the hotels in
+ * them.</p>
+ */
+@Component
+public class HotelGeoIndex {
+
+    // The widest search, larger circles visit too many cells and return more hotels than anyone would page through.
+    public static final double MAX_RADIUS_KM = 100;
+
+    static final double CELL_DEGREES = 0.1;
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int LATITUDE_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int LONGITUDE_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    // cell -> hotels in the cell.
+    private final Map<Integer, Map<Long, Point>> cells = new ConcurrentHashMap<>();
+
+    private final Map<Long, Point> hotels = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or moves the hotel, removing it if it no longer has coordinates.
+     */
+    public synchronized void index(Hotel hotel) {
+        remove(hotel.getId());
+        Address address = hotel.getAddress();
+        if (address == null || !address.hasCoordinates()) {
+            return;
+        }
+        Point point = new Point(hotel.getId(), address.getLatitude(), address.getLongitude());
+        hotels.put(point.hotelId, point);
+        cells.computeIfAbsent(point.cell, cell -> new ConcurrentHashMap<>()).put(point.hotelId, point);
+    }
+
+    public synchronized void remove(Long hotelId) {
+        Point previous = hotels.remove(hotelId);
+        if (previous != null) {
+            cells.computeIfPresent(previous.cell, (cell, points) -> {
+                points.remove(hotelId);
+                return points.isEmpty() ? null : points;
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        hotels.clear();
+    }
+
+    /**
+     * @return Every indexed hotel within {@code radiusKm} of the point, nearest first.
+     * @throws IllegalArgumentException if the point is not a valid coordinate or the radius is not between 0 and
+     *                                  {@value #MAX_RADIUS_KM}.
+     */
+    public List<Nearby> near(double latitude, double longitude, double radiusKm) throws IllegalArgumentException {
+        // Negated so NaN is rejected too.
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinate " + latitude + "," + longitude);
+        }
+        if (!(radiusKm >= 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("radiusKm must be between 0 and " + MAX_RADIUS_KM);
+        }
+
+        double latitudeDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        int fromRow = latitudeRow(Math.max(-90, latitude - latitudeDelta));
+        int toRow = latitudeRow(Math.min(90, latitude + latitudeDelta));
+
+        // Degrees of longitude shrink towards the poles, the widest span is needed at the latitude nearest a pole.
+        double widestLatitude = Math.min(90, Math.abs(latitude) + latitudeDelta);
+        double cosine = Math.cos(Math.toRadians(widestLatitude));
+        double longitudeDelta = cosine <= 0 ? 180 : radiusKm / (KM_PER_DEGREE_LATITUDE * cosine);
+        int fromColumn;
+        int toColumn;
+        if (longitudeDelta >= 180 || 2 * longitudeDelta / CELL_DEGREES >= LONGITUDE_CELLS - 2) {
+            fromColumn = 0;
+            toColumn = LONGITUDE_CELLS - 1;
+        } else {
+            fromColumn = (int) Math.floor((longitude - longitudeDelta + 180) / CELL_DEGREES);
+            toColumn = (int) Math.floor((longitude + longitudeDelta + 180) / CELL_DEGREES);
+        }
+
+        List<Nearby> found = new ArrayList<>();
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                // wraps columns either side of the antimeridian.
+                Map<Long, Point> points = cells.get(cell(row, Math.floorMod(column, LONGITUDE_CELLS)));
+                if (points == null) {
+                    continue;
+                }
+                for (Point point : points.values()) {
+                    double distanceKm = distanceKm(latitude, longitude, point.latitude, point.longitude);
+                    if (distanceKm <= radiusKm) {
+                        found.add(new Nearby(point.hotelId, distanceKm));
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingDouble(Nearby::getDistanceKm).thenComparing(Nearby::getHotelId));
+        return found;
+    }
+
+    /**
+     * Great circle distance by the haversine formula.
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDelta = Math.toRadians(latitude2 - latitude1);
+        double longitudeDelta = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(latitudeDelta / 2), 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.pow(Math.sin(longitudeDelta / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int latitudeRow(double latitude) {
+        return Math.min(LATITUDE_CELLS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    private static int longitudeColumn(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LONGITUDE_CELLS);
+    }
+
+    private static int cell(int row, int column) {
+        return row * LONGITUDE_CELLS + column;
+    }
+
+    /**
+     * A hotel found by a search and how far it is from the search point.
+     */
+    public static class Nearby {
+        private final Long hotelId;
+        private final double distanceKm;
+
+        public Nearby(Long hotelId, double distanceKm) {
+            this.hotelId = hotelId;
+            this.distanceKm = distanceKm;
+        }
+
+        public Long getHotelId() {
+            return hotelId;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static class Point {
+        private final Long hotelId;
+        private final double latitude;
+        private final double longitude;
+        private final int cell;
+
+        private Point(Long hotelId, double latitude, double longitude) {
+            this.hotelId = hotelId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell(latitudeRow(latitude), longitudeColumn(longitude));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.persistance.HotelRepository;
+import com.demo.persistance.RoomRepository;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Builds the {@link HotelTextIndex}, {@link HotelGeoIndex} and {@link HotelFacetIndex} from the database once the
+ * application has started and keeps them up to date as hotels and rooms are saved and deleted. Saved and deleted rooms
+ * are also registered with or removed from the {@link AvailabilityIndex}, which is loaded by its own loader. Changes
+ * are only applied to the indexes once their transaction commits.
+ */
+@Component
+public class HotelIndexLoader implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private HotelTextIndex hotelTextIndex;
+    private HotelGeoIndex hotelGeoIndex;
+    private HotelFacetIndex hotelFacetIndex;
+    private AvailabilityIndex availabilityIndex;
+    private HotelRepository hotelRepository;
+    private RoomRepository roomRepository;
+
+    public HotelIndexLoader(HotelTextIndex hotelTextIndex,
+                            HotelGeoIndex hotelGeoIndex,
+                            HotelFacetIndex hotelFacetIndex,
+                            AvailabilityIndex availabilityIndex,
+                            HotelRepository hotelRepository,
+                            RoomRepository roomRepository,
+                            EntityManagerFactory entityManagerFactory) {
+        this.hotelTextIndex = hotelTextIndex;
+        this.hotelGeoIndex = hotelGeoIndex;
+        this.hotelFacetIndex = hotelFacetIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.hotelRepository = hotelRepository;
+        this.roomRepository = roomRepository;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        hotelTextIndex.clear();
+        hotelGeoIndex.clear();
+        hotelFacetIndex.clear();
+        hotelRepository.findAll().forEach(this::index);
+        roomRepository.findAll().forEach(hotelFacetIndex::index);
+    }
+
+    private void index(Hotel hotel) {
+        hotelTextIndex.index(hotel);
+        hotelGeoIndex.index(hotel);
+        hotelFacetIndex.index(hotel);
+    }
+
+    private void index(Room room) {
+        hotelFacetIndex.index(room);
+        availabilityIndex.register(room);
+    }
+
+    private void remove(Long hotelId) {
+        hotelTextIndex.remove(hotelId);
+        hotelGeoIndex.remove(hotelId);
+        hotelFacetIndex.removeHotel(hotelId);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Hotel) {
+            Hotel hotel = (Hotel) event.getEntity();
+            event.getSession().getActionQueue().registerProcess((success, session) -> {
+                if (success) {
+                    index(hotel);
+                }
+            });
+        } else if (event.getEntity() instanceof Room) {
+            Room room = (Room) event.getEntity();
+            event.getSession().getActionQueue().registerProcess((success, session) -> {
+                if (success) {
+                    index(room);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Hotel) {
+            Hotel hotel = (Hotel) event.getEntity();
+            event.getSession().getActionQueue().registerProcess((success, session) -> {
+                if (success) {
+                    index(hotel);
+                }
+            });
+        } else if (event.getEntity() instanceof Room) {
+            Room room = (Room) event.getEntity();
+            event.getSession().getActionQueue().registerProcess((success, session) -> {
+                if (success) {
+                    index(room);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Hotel) {
+            Long hotelId = ((Hotel) event.getEntity()).getId();
+            event.getSession().getActionQueue().registerProcess((success, session) -> {
+                if (success) {
+                    remove(hotelId);
+                }
+            });
+        } else if (event.getEntity() instanceof Room) {
+            Long roomId = ((Room) event.getEntity()).getId();
+            event.getSession().getActionQueue().registerProcess((success, session) -> {
+                if (success) {
+                    hotelFacetIndex.removeRoom(roomId);
+                    availabilityIndex.remove(roomId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
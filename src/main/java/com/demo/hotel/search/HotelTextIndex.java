@@ -0,0 +1,211 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * In memory inverted index of the words in each hotel's name, suburb, street and state, allowing hotels to be found
+ * from partial or misspelt words without an external search service. The {@code Hotel} table remains the source of
+ * truth, the index is loaded and kept up to date by {@link HotelIndexLoader}.
+ *
+ * <p>Each word of a query must match a word of the hotel in one of 3 ways, scored from best to worst: exactly, as a
+ * prefix ({@code melb} matches {@code melbourne}) or within a small edit distance ({@code melbuorne}). Words of 4 or
+ * more characters allow 1 typo and words of 8 or more allow 2. Like most search engines the first character must be
+ * right, which keeps the number of words compared against small.</p>
+ */
+@Component
+public class HotelTextIndex {
+
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int TYPO_SCORE = 1;
+
+    // word -> ids of the hotels containing it, sorted so prefixes and first characters are range scans.
+    private final NavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, IndexedHotel> hotels = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the hotel to the index, replacing the words it was previously indexed under.
+     */
+    public synchronized void index(Hotel hotel) {
+        remove(hotel.getId());
+
+        Address address = hotel.getAddress();
+        Set<String> words = new LinkedHashSet<>(tokenise(hotel.getName()));
+        if (address != null) {
+            words.addAll(tokenise(address.getRawSuburb()));
+            words.addAll(tokenise(address.getStreetLine1()));
+            if (address.getState() != null) {
+                words.addAll(tokenise(address.getState().name()));
+            }
+        }
+
+        hotels.put(hotel.getId(), new IndexedHotel(hotel.getName(), words));
+        for (String word : words) {
+            postings.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(hotel.getId());
+        }
+    }
+
+    public synchronized void remove(Long hotelId) {
+        IndexedHotel previous = hotels.remove(hotelId);
+        if (previous == null) {
+            return;
+        }
+        for (String word : previous.words) {
+            postings.computeIfPresent(word, (w, ids) -> {
+                ids.remove(hotelId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        hotels.clear();
+    }
+
+    /**
+     * @return The ids of the hotels matching every word in the {@code query}, best matches first and then by name.
+     * Empty if the query has no words.
+     */
+    public List<Long> search(String query) {
+        List<String> queryWords = tokenise(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String queryWord : queryWords) {
+            Map<Long, Integer> wordScores = scoreWord(queryWord);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((id, score) -> score + wordScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Integer> totals = scores;
+        return totals.keySet().stream()
+                .filter(hotels::containsKey)
+                .sorted(Comparator.comparing((Long id) -> totals.get(id)).reversed()
+                        .thenComparing(id -> hotels.get(id).name, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(id -> id))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return hotel id -> the best score of any of its words against {@code queryWord}.
+     */
+    private Map<Long, Integer> scoreWord(String queryWord) {
+        Map<Long, Integer> scores = new HashMap<>();
+
+        // Every word starting with the query word, the first being the exact match if there is one.
+        for (Map.Entry<String, Set<Long>> entry : postings.subMap(queryWord, true, queryWord + Character.MAX_VALUE, true)
+                .entrySet()) {
+            int score = entry.getKey().equals(queryWord) ? EXACT_SCORE : PREFIX_SCORE;
+            entry.getValue().forEach(id -> scores.merge(id, score, Math::max));
+        }
+
+        int maxTypos = maxTypos(queryWord);
+        if (maxTypos > 0) {
+            String firstChar = queryWord.substring(0, 1);
+            for (Map.Entry<String, Set<Long>> entry : postings.subMap(firstChar, true,
+                    firstChar + Character.MAX_VALUE, true).entrySet()) {
+                String word = entry.getKey();
+                if (Math.abs(word.length() - queryWord.length()) <= maxTypos
+                        && editDistance(queryWord, word, maxTypos) <= maxTypos) {
+                    entry.getValue().forEach(id -> scores.merge(id, TYPO_SCORE, Math::max));
+                }
+            }
+        }
+        return scores;
+    }
+
+    static int maxTypos(String word) {
+        if (word.length() >= 8) {
+            return 2;
+        }
+        return word.length() >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Lower cased words of letters and digits, everything else separates words.
+     */
+    static List<String> tokenise(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Optimal string alignment distance, the number of insertions, deletions, substitutions and swaps of adjacent
+     * characters turning {@code a} into {@code b}. Gives up as soon as the distance must exceed {@code max}.
+     *
+     * @return The distance or {@code max + 1} if it is greater than {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static class IndexedHotel {
+        private final String name;
+        private final Set<String> words;
+
+        private IndexedHotel(String name, Set<String> words) {
+            this.name = name;
+            this.words = words;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.demo.importer;
+
+import com.demo.TimeProvider;
+import com.demo.exceptions.InvalidRecordException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams records from CSV or NDJSON files into the database, used to load hotels with millions of rooms without
+ * holding the file or its entities in memory.
+ *
+ * <p>Lines are read into chunks of records on the calling thread, a pool of threads parses and validates the chunks
+ * in parallel and the calling thread saves them in file order, 1 transaction per chunk so inserts are sent as JDBC
+ * batches. Only a few chunks are in progress at a time, reading waits for the oldest chunk to be saved.</p>
+ *
+ * <p>Invalid records are rejected and reported without stopping the import. Any other failure, such as a room number
+ * already used by another hotel, rolls back the chunk and stops the import. The {@link ImportProgress} saved with each
+ * chunk lets the import be run again on the same unchanged file after fixing the problem, continuing from the first
+ * record not yet committed. Running it again on a file which has changed since is refused, as the records skipped
+ * would no longer be the ones committed.</p>
+ */
+@Component
+public class BulkImporter {
+
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final Duration PROGRESS_LOG_INTERVAL = Duration.ofSeconds(10);
+    private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportProgressRepository progressRepository;
+    private final TimeProvider timeProvider;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * @param threads   Threads parsing records, 0 for 1 per processor.
+     * @param chunkSize Records saved in each transaction.
+     */
+    public BulkImporter(EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        ImportProgressRepository progressRepository,
+                        TimeProvider timeProvider,
+                        @Value("${hotel.import.threads:0}") int threads,
+                        @Value("${hotel.import.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.progressRepository = progressRepository;
+        this.timeProvider = timeProvider;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports a UTF-8 file in the format given by its extension, see {@link ImportFormat#forFileName}. Progress is
+     * recorded under the type and absolute path of the file, along with its size and modified time.
+     */
+    public <T> ImportResult importFile(Path file, ImportType<T> type) throws IOException {
+        ImportFormat format = ImportFormat.forFileName(file.getFileName().toString());
+        String name = type.name() + ":" + file.toAbsolutePath().normalize();
+        String source = source(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(name, source, reader, format, type);
+        }
+    }
+
+    /**
+     * @return The source of a file or resource of {@code size} bytes last modified at {@code lastModified}
+     * milliseconds.
+     */
+    public static String source(long size, long lastModified) {
+        return size + " bytes modified " + Instant.ofEpochMilli(lastModified);
+    }
+
+    /**
+     * @param name   Progress is recorded under this name, skipping records committed by an earlier import of the same
+     *               name.
+     * @param source Identifies the content of the reader, such as {@link #source(long, long)}.
+     * @throws IOException if an earlier import of the same name committed records from a different source.
+     */
+    public <T> ImportResult importFrom(String name, String source, BufferedReader reader, ImportFormat format,
+                                       ImportType<T> type) throws IOException {
+        long started = System.nanoTime();
+        ImportProgress progress = progressRepository.findById(name).orElseGet(() -> new ImportProgress(name));
+        if (!progress.canResumeFrom(source)) {
+            throw new IOException(name + " has changed since " + progress.getCommittedRecords()
+                    + " of its records were imported from " + progress.getSource()
+                    + ", delete its import progress to import it again");
+        }
+        progress.setSource(source);
+        RecordReader records = new RecordReader(name, reader, format, type.groupsRows());
+        Run<T> run = new Run<>(name, type, progress);
+        long skipped = records.skip(run.progress.getCommittedRecords());
+        if (skipped > 0) {
+            log.info("{}: skipped {} records committed by an earlier import", name, skipped);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Deque<Future<MappedChunk<T>>> inFlight = new ArrayDeque<>();
+            List<RawRecord> chunk;
+            while (!(chunk = records.nextChunk(chunkSize)).isEmpty()) {
+                List<RawRecord> toMap = chunk;
+                inFlight.add(executor.submit(() -> map(toMap, records.header, type)));
+                if (inFlight.size() > threads * 2) {
+                    write(await(inFlight.poll()), run, started);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(await(inFlight.poll()), run, started);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ImportResult result = new ImportResult(name, skipped, run.imported, run.rejected, run.rejections,
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("{}: finished, {} records imported, {} rejected in {}s at {} records/s", name,
+                result.getImportedRecords(), result.getRejectedRecords(), result.getElapsed().toSeconds(),
+                Math.round(result.getRecordsPerSecond()));
+        return result;
+    }
+
+    private <T> MappedChunk<T> await(Future<MappedChunk<T>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs on the pool, must not use the {@code EntityManager}.
+     */
+    private <T> MappedChunk<T> map(List<RawRecord> records, List<String> header, ImportType<T> type) {
+        MappedChunk<T> chunk = new MappedChunk<>(records.size());
+        for (RawRecord record : records) {
+            try {
+                List<Map<String, String>> rows = header == null ? jsonRows(record.lines.get(0))
+                        : csvRows(record.lines, header);
+                chunk.items.add(type.map(rows));
+            } catch (InvalidRecordException e) {
+                chunk.rejections.add(new ImportResult.Rejection(record.lineNumber, e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    private <T> void write(MappedChunk<T> chunk, Run<T> run, long started) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (T item : chunk.items) {
+                run.type.write(entityManager, item);
+            }
+            run.progress.chunkCommitted(chunk.records, chunk.rejections.size(), timeProvider.localDateTime());
+            run.progress = progressRepository.save(run.progress);
+            // Keeps the persistence context small when joining a caller's transaction, otherwise it ends with the
+            // chunk's transaction.
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        run.imported += chunk.items.size();
+        run.rejected += chunk.rejections.size();
+        for (ImportResult.Rejection rejection : chunk.rejections) {
+            log.debug("{}: rejected {}", run.name, rejection);
+            if (run.rejections.size() < MAX_REPORTED_REJECTIONS) {
+                run.rejections.add(rejection);
+            }
+        }
+
+        long now = System.nanoTime();
+        if (now - run.lastLogged >= PROGRESS_LOG_INTERVAL.toNanos()) {
+            run.lastLogged = now;
+            log.info("{}: {} records imported, {} rejected, {} records/s", run.name, run.imported, run.rejected,
+                    Math.round(ImportResult.recordsPerSecond(run.imported + run.rejected,
+                            Duration.ofNanos(now - started))));
+        }
+    }
+
+    private static List<Map<String, String>> csvRows(List<String> lines, List<String> header)
+            throws InvalidRecordException {
+        List<Map<String, String>> rows = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            List<String> values = CsvLine.split(line);
+            if (values.size() != header.size()) {
+                throw new InvalidRecordException("Expected " + header.size() + " values but found " + values.size());
+            }
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * The object's values make up the first row, each object of an array field becomes an extra row which also holds
+     * the values of the first row. The first row is left out when there are extra rows.
+     */
+    private List<Map<String, String>> jsonRows(String line) throws InvalidRecordException {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRecordException("Invalid JSON, " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new InvalidRecordException("Expected a JSON object");
+        }
+        Map<String, String> values = new HashMap<>();
+        List<JsonNode> elements = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isArray()) {
+                field.getValue().forEach(elements::add);
+            } else {
+                putValue(values, field.getKey(), field.getValue());
+            }
+        }
+        if (elements.isEmpty()) {
+            return List.of(values);
+        }
+        List<Map<String, String>> rows = new ArrayList<>(elements.size());
+        for (JsonNode element : elements) {
+            if (!element.isObject()) {
+                throw new InvalidRecordException("Expected arrays to contain JSON objects");
+            }
+            Map<String, String> row = new HashMap<>(values);
+            for (Iterator<Map.Entry<String, JsonNode>> fields = element.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                putValue(row, field.getKey(), field.getValue());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void putValue(Map<String, String> row, String field, JsonNode value)
+            throws InvalidRecordException {
+        if (value.isNull()) {
+            return;
+        }
+        if (!value.isValueNode()) {
+            throw new InvalidRecordException(field + " must be a string, number or boolean");
+        }
+        row.put(field, value.asText());
+    }
+
+    /**
+     * Reads lines into records, skipping blank lines.
+     */
+    private static class RecordReader {
+        private final BufferedReader reader;
+        private final boolean groupsRows;
+        private final List<String> header;
+        private long lineNumber;
+        private String pendingLine;
+        private long pendingLineNumber;
+
+        private RecordReader(String name, BufferedReader reader, ImportFormat format, boolean groupsRows)
+                throws IOException {
+            this.reader = reader;
+            this.groupsRows = groupsRows && format == ImportFormat.CSV;
+            if (format == ImportFormat.CSV) {
+                String headerLine = readLine();
+                try {
+                    this.header = headerLine == null ? List.of() : normalise(CsvLine.split(headerLine));
+                } catch (InvalidRecordException e) {
+                    throw new IOException(name + " has an invalid header, " + e.getMessage());
+                }
+            } else {
+                this.header = null;
+            }
+        }
+
+        private static List<String> normalise(List<String> columns) {
+            List<String> normalised = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                normalised.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+            return normalised;
+        }
+
+        private String readLine() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            return line;
+        }
+
+        private RawRecord next() throws IOException {
+            String first;
+            long firstLineNumber;
+            if (pendingLine != null) {
+                first = pendingLine;
+                firstLineNumber = pendingLineNumber;
+                pendingLine = null;
+            } else {
+                first = readLine();
+                firstLineNumber = lineNumber;
+            }
+            if (first == null) {
+                return null;
+            }
+            RawRecord record = new RawRecord(firstLineNumber, first);
+            if (groupsRows) {
+                String key = CsvLine.firstValue(first);
+                String line;
+                while ((line = readLine()) != null) {
+                    if (!CsvLine.firstValue(line).equals(key)) {
+                        pendingLine = line;
+                        pendingLineNumber = lineNumber;
+                        break;
+                    }
+                    record.lines.add(line);
+                }
+            }
+            return record;
+        }
+
+        private List<RawRecord> nextChunk(int size) throws IOException {
+            List<RawRecord> chunk = new ArrayList<>(size);
+            RawRecord record;
+            while (chunk.size() < size && (record = next()) != null) {
+                chunk.add(record);
+            }
+            return chunk;
+        }
+
+        /**
+         * @return The number of records skipped, less than asked for if the file ended.
+         */
+        private long skip(long records) throws IOException {
+            long skipped = 0;
+            while (skipped < records && next() != null) {
+                skipped++;
+            }
+            return skipped;
+        }
+    }
+
+    private static class RawRecord {
+        private final long lineNumber;
+        private final List<String> lines = new ArrayList<>(1);
+
+        private RawRecord(long lineNumber, String firstLine) {
+            this.lineNumber = lineNumber;
+            this.lines.add(firstLine);
+        }
+    }
+
+    private static class MappedChunk<T> {
+        private final int records;
+        private final List<T> items;
+        private final List<ImportResult.Rejection> rejections = new ArrayList<>();
+
+        private MappedChunk(int records) {
+            this.records = records;
+            this.items = new ArrayList<>(records);
+        }
+    }
+
+    /**
+     * State of a single import, only used by the calling thread.
+     */
+    private static class Run<T> {
+        private final String name;
+        private final ImportType<T> type;
+        private ImportProgress progress;
+        private long imported;
+        private long rejected;
+        private final List<ImportResult.Rejection> rejections = new ArrayList<>();
+        private long lastLogged = System.nanoTime();
+
+        private Run(String name, ImportType<T> type, ImportProgress progress) {
+            this.name = name;
+            this.type = type;
+            this.progress = progress;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.importer;
+
+import com.demo.exceptions.InvalidRecordException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a single CSV line into its values.
+ */
+final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    static List<String> split(String line) throws InvalidRecordException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidRecordException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * @return The first value of the line, only valid when it is never quoted.
+     */
+    static String firstValue(String line) {
+        int comma = line.indexOf(',');
+        return comma < 0 ? line : line.substring(0, comma);
+    }
+}
@@ -0,0 +1,35 @@
+package com.demo.importer;
+
+import com.demo.domain.Extra;
+import com.demo.exceptions.InvalidRecordException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports an extra from the columns {@code description}, {@code per_night_price}, {@code type} and
+ * {@code category}.
+ */
+@Component
+public class ExtraImportType implements ImportType<Extra> {
+
+    @Override
+    public String name() {
+        return "extras";
+    }
+
+    @Override
+    public boolean groupsRows() {
+        return false;
+    }
+
+    @Override
+    public Extra map(List<Map<String, String>> rows) throws InvalidRecordException {
+        Map<String, String> row = rows.get(0);
+        return new Extra(Fields.required(row, "description"),
+                Fields.requiredAmount(row, "per_night_price"),
+                Fields.requiredEnum(row, "type", Extra.Type.class),
+                Fields.requiredEnum(row, "category", Extra.Category.class));
+    }
+}
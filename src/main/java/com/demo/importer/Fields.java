@@ -0,0 +1,99 @@
+package com.demo.importer;
+
+import com.demo.exceptions.InvalidRecordException;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Reads typed values from a row of an import record, describing the offending column when a value is invalid.
+ */
+final class Fields {
+
+    private Fields() {
+    }
+
+    /**
+     * @return The trimmed value or {@code null} if the column is missing or blank.
+     */
+    static String optional(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    static String required(Map<String, String> row, String column) throws InvalidRecordException {
+        String value = optional(row, column);
+        if (value == null) {
+            throw new InvalidRecordException(column + " is required");
+        }
+        return value;
+    }
+
+    static int requiredInt(Map<String, String> row, String column, int min, int max) throws InvalidRecordException {
+        String value = required(row, column);
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min || parsed > max) {
+                throw new InvalidRecordException(column + " must be between " + min + " and " + max);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new InvalidRecordException(column + " must be a whole number but was " + value);
+        }
+    }
+
+    static BigDecimal requiredAmount(Map<String, String> row, String column) throws InvalidRecordException {
+        String value = required(row, column);
+        try {
+            BigDecimal amount = new BigDecimal(value);
+            if (amount.signum() < 0) {
+                throw new InvalidRecordException(column + " must not be negative");
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new InvalidRecordException(column + " must be an amount but was " + value);
+        }
+    }
+
+    static Double optionalDouble(Map<String, String> row, String column, double min, double max)
+            throws InvalidRecordException {
+        String value = optional(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            double parsed = Double.parseDouble(value);
+            if (!(parsed >= min && parsed <= max)) {
+                throw new InvalidRecordException(column + " must be between " + min + " and " + max);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new InvalidRecordException(column + " must be a number but was " + value);
+        }
+    }
+
+    static LocalTime requiredTime(Map<String, String> row, String column) throws InvalidRecordException {
+        String value = required(row, column);
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRecordException(column + " must be a time such as 09:30 but was " + value);
+        }
+    }
+
+    static <E extends Enum<E>> E requiredEnum(Map<String, String> row, String column, Class<E> type)
+            throws InvalidRecordException {
+        String value = required(row, column);
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw new InvalidRecordException(column + " " + value + " is not a " + type.getSimpleName());
+    }
+}
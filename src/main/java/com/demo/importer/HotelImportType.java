@@ -0,0 +1,136 @@
+package com.demo.importer;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import com.demo.exceptions.InvalidRecordException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports a hotel along with its rooms. Each row repeats the hotel columns followed by the columns of 1 room, rows
+ * with no {@code room_number} add no room so a hotel without rooms is a single row.
+ *
+ * <p>Hotel columns: {@code ref} (groups the rows of a hotel, must come first), {@code name}, {@code email},
+ * {@code stars}, {@code street_line1}, {@code street_line2}, {@code state}, {@code suburb}, {@code postcode},
+ * {@code latitude}, {@code longitude} and optionally all of {@code earliest_check_in}, {@code latest_check_in},
+ * {@code standard_check_out}, {@code latest_check_out} and {@code late_checkout_fee}, otherwise the hotel defaults are
+ * used.</p>
+ *
+ * <p>Room columns: {@code room_number}, {@code room_type}, {@code beds} and {@code cost_per_night}.</p>
+ */
+@Component
+public class HotelImportType implements ImportType<Hotel> {
+
+    private static final String REF_PATTERN = "[A-Za-z0-9_-]+";
+    private static final String[] CHECK_IN_OUT_COLUMNS = {
+            "earliest_check_in", "latest_check_in", "standard_check_out", "latest_check_out", "late_checkout_fee"
+    };
+
+    @Override
+    public String name() {
+        return "hotels";
+    }
+
+    @Override
+    public boolean groupsRows() {
+        return true;
+    }
+
+    @Override
+    public Hotel map(List<Map<String, String>> rows) throws InvalidRecordException {
+        Map<String, String> first = rows.get(0);
+        String ref = Fields.required(first, "ref");
+        if (!ref.matches(REF_PATTERN)) {
+            throw new InvalidRecordException("ref must only contain letters, digits, _ and -");
+        }
+        Hotel hotel = hotel(first);
+        Set<String> roomNumbers = new HashSet<>();
+        for (Map<String, String> row : rows) {
+            if (Fields.optional(row, "room_number") == null) {
+                continue;
+            }
+            Room room = room(row);
+            if (!roomNumbers.add(room.getRoomNumber())) {
+                throw new InvalidRecordException("room_number " + room.getRoomNumber() + " is repeated");
+            }
+            hotel.addRoom(room);
+        }
+        return hotel;
+    }
+
+    private Hotel hotel(Map<String, String> row) throws InvalidRecordException {
+        String name = Fields.required(row, "name");
+        String email = Fields.required(row, "email");
+        int stars = Fields.requiredInt(row, "stars", 1, 5);
+        Address address = address(name, row);
+
+        int checkInOutColumns = 0;
+        for (String column : CHECK_IN_OUT_COLUMNS) {
+            if (Fields.optional(row, column) != null) {
+                checkInOutColumns++;
+            }
+        }
+        if (checkInOutColumns == 0) {
+            return new Hotel(name, address, stars, email);
+        }
+        if (checkInOutColumns != CHECK_IN_OUT_COLUMNS.length) {
+            throw new InvalidRecordException("check in and out times must all be given or all be left out");
+        }
+        LocalTime earliestCheckIn = Fields.requiredTime(row, "earliest_check_in");
+        LocalTime latestCheckIn = Fields.requiredTime(row, "latest_check_in");
+        LocalTime standardCheckOut = Fields.requiredTime(row, "standard_check_out");
+        LocalTime latestCheckOut = Fields.requiredTime(row, "latest_check_out");
+        BigDecimal lateCheckoutFee = Fields.requiredAmount(row, "late_checkout_fee");
+        if (earliestCheckIn.isAfter(latestCheckIn)) {
+            throw new InvalidRecordException("earliest_check_in must not be after latest_check_in");
+        }
+        if (standardCheckOut.isAfter(latestCheckOut)) {
+            throw new InvalidRecordException("standard_check_out must not be after latest_check_out");
+        }
+        return new Hotel(name, address, stars, email, earliestCheckIn, latestCheckIn, standardCheckOut,
+                latestCheckOut, lateCheckoutFee);
+    }
+
+    /**
+     * Applies the same constraints as {@code Address} and {@code Postcode} so rejected records are reported with their
+     * line rather than failing the whole chunk when it is saved.
+     */
+    private Address address(String business, Map<String, String> row) throws InvalidRecordException {
+        String streetLine1 = Fields.required(row, "street_line1");
+        String streetLine2 = Fields.optional(row, "street_line2");
+        State state = Fields.requiredEnum(row, "state", State.class);
+        String suburb = Fields.required(row, "suburb");
+        String postcode = Fields.required(row, "postcode");
+        if (!postcode.matches(Postcode.PATTERN)) {
+            throw new InvalidRecordException("postcode must be 4 digits");
+        }
+
+        Double latitude = Fields.optionalDouble(row, "latitude", -90, 90);
+        Double longitude = Fields.optionalDouble(row, "longitude", -180, 180);
+        if ((latitude == null) != (longitude == null)) {
+            throw new InvalidRecordException("latitude and longitude must both be given or both be left out");
+        }
+        Address address = new Address(business, streetLine1, streetLine2, state, suburb, new Postcode(postcode));
+        address.setLatitude(latitude);
+        address.setLongitude(longitude);
+        return address;
+    }
+
+    private Room room(Map<String, String> row) throws InvalidRecordException {
+        String roomNumber = Fields.required(row, "room_number");
+        RoomType roomType = Fields.requiredEnum(row, "room_type", RoomType.class);
+        int beds = Fields.requiredInt(row, "beds", 1, Integer.MAX_VALUE);
+        BigDecimal costPerNight = Fields.requiredAmount(row, "cost_per_night");
+        return new Room(roomNumber, roomType, beds, costPerNight);
+    }
+}
@@ -0,0 +1,32 @@
+package com.demo.importer;
+
+import java.util.Locale;
+
+/**
+ * Formats an import file can be written in, both are read a line at a time so files of any size can be streamed.
+ *
+ * <ul>
+ * <li>{@code CSV} - The first line is a header naming the columns. Values containing commas or quotes are quoted with
+ * {@code "} and quotes are escaped by doubling them, values cannot span lines.</li>
+ * <li>{@code NDJSON} - 1 JSON object per line. Array fields hold objects which are expanded into 1 row each, see
+ * {@link ImportType}.</li>
+ * </ul>
+ */
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    /**
+     * @throws IllegalArgumentException if the file name does not end in {@code .csv}, {@code .ndjson} or
+     *                                  {@code .jsonl}.
+     */
+    public static ImportFormat forFileName(String fileName) throws IllegalArgumentException {
+        String lowerCase = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCase.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lowerCase.endsWith(".ndjson") || lowerCase.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unknown import format " + fileName);
+    }
+}
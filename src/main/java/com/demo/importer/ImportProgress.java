@@ -0,0 +1,89 @@
+package com.demo.importer;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * How far an import has got. Updated in the same transaction as each chunk of records so a restarted import skips
+ * exactly the records already saved or rejected. Skipping is only correct for the same content, so the progress also
+ * records the source it was made from, see {@link #canResumeFrom}.
+ */
+@Entity
+public class ImportProgress {
+    // The import type and file, see BulkImporter.
+    @Id
+    @Column(length = 1024)
+    private String name;
+
+    @Column(nullable = false)
+    private long committedRecords;
+
+    @Column(nullable = false)
+    private long rejectedRecords;
+
+    // Identifies the content imported, such as the size and modified time of the file, see BulkImporter.
+    @Column(length = 128)
+    private String source;
+
+    private LocalDateTime updatedTime;
+
+    public ImportProgress(String name) {
+        this.name = name;
+    }
+
+    public ImportProgress() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of records saved or rejected, which are all skipped when the import is restarted.
+     */
+    public long getCommittedRecords() {
+        return committedRecords;
+    }
+
+    public long getRejectedRecords() {
+        return rejectedRecords;
+    }
+
+    public LocalDateTime getUpdatedTime() {
+        return updatedTime;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return {@code true} if nothing has been committed yet or it was committed from the same {@code source}.
+     */
+    public boolean canResumeFrom(String source) {
+        return committedRecords == 0 || Objects.equals(this.source, source);
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public void chunkCommitted(int records, int rejected, LocalDateTime time) {
+        this.committedRecords += records;
+        this.rejectedRecords += rejected;
+        this.updatedTime = time;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportProgress{" +
+                "name='" + name + '\'' +
+                ", committedRecords=" + committedRecords +
+                ", rejectedRecords=" + rejectedRecords +
+                ", source='" + source + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package com.demo.importer;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportProgressRepository extends CrudRepository<ImportProgress, String> {
+}
@@ -0,0 +1,100 @@
+package com.demo.importer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Summary of a single run of {@link BulkImporter}. Counts exclude records skipped because an earlier run committed
+ * them.
+ */
+public class ImportResult {
+    private final String name;
+    private final long skippedRecords;
+    private final long importedRecords;
+    private final long rejectedRecords;
+    private final List<Rejection> rejections;
+    private final Duration elapsed;
+
+    public ImportResult(String name, long skippedRecords, long importedRecords, long rejectedRecords,
+                        List<Rejection> rejections, Duration elapsed) {
+        this.name = name;
+        this.skippedRecords = skippedRecords;
+        this.importedRecords = importedRecords;
+        this.rejectedRecords = rejectedRecords;
+        this.rejections = List.copyOf(rejections);
+        this.elapsed = elapsed;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSkippedRecords() {
+        return skippedRecords;
+    }
+
+    public long getImportedRecords() {
+        return importedRecords;
+    }
+
+    public long getRejectedRecords() {
+        return rejectedRecords;
+    }
+
+    /**
+     * @return The first rejected records, at most {@link BulkImporter#MAX_REPORTED_REJECTIONS}.
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond(importedRecords + rejectedRecords, elapsed);
+    }
+
+    static double recordsPerSecond(long records, Duration elapsed) {
+        long millis = Math.max(1, elapsed.toMillis());
+        return records * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "name='" + name + '\'' +
+                ", skippedRecords=" + skippedRecords +
+                ", importedRecords=" + importedRecords +
+                ", rejectedRecords=" + rejectedRecords +
+                ", elapsed=" + elapsed +
+                '}';
+    }
+
+    public static class Rejection {
+        private final long lineNumber;
+        private final String reason;
+
+        public Rejection(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        /**
+         * @return The line the record starts on, counting from 1.
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+}
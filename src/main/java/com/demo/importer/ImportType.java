@@ -0,0 +1,50 @@
+package com.demo.importer;
+
+import com.demo.exceptions.InvalidRecordException;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What each record of an import file is turned into and how it is saved, see {@link BulkImporter}.
+ *
+ * <p>A record is handed to {@link #map} as rows of column name to value. Column names are shared by both
+ * {@link ImportFormat}s, a CSV header names them and NDJSON objects use them as field names.</p>
+ *
+ * <ul>
+ * <li>CSV - A record is 1 line, or when {@link #groupsRows()} every consecutive line with the same first value such
+ * as a hotel repeated on each line of its rooms.</li>
+ * <li>NDJSON - A record is 1 object. Each object in an array field becomes its own row holding the object's other
+ * fields, so a hotel with a {@code rooms} array maps the same way as the equivalent CSV lines.</li>
+ * </ul>
+ *
+ * @param <T> The entity saved for each record.
+ */
+public interface ImportType<T> {
+
+    /**
+     * @return The name progress is recorded under along with the file name.
+     */
+    String name();
+
+    /**
+     * @return {@code true} if consecutive CSV lines sharing the same first value form a single record.
+     */
+    boolean groupsRows();
+
+    /**
+     * Parses and validates a record. Called concurrently from many threads so must not touch the database.
+     *
+     * @param rows At least 1 row.
+     * @throws InvalidRecordException if the record is rejected.
+     */
+    T map(List<Map<String, String>> rows) throws InvalidRecordException;
+
+    /**
+     * Saves a mapped record within the transaction of its chunk.
+     */
+    default void write(EntityManager entityManager, T item) {
+        entityManager.persist(item);
+    }
+}
@@ -0,0 +1,95 @@
+package com.demo.persistance;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit and miss counts of the Hibernate second level cache regions configured in {@code ehcache.xml}, used to check
+ * the regions are sized well from real traffic, published at {@code /admin/cache}. Counts are since the application
+ * started.
+ */
+@Component
+public class CacheStatistics {
+
+    private final Statistics statistics;
+
+    public CacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * @return Statistics of every entity and collection region ordered by region name.
+     */
+    public List<RegionStats> regionStats() {
+        List<RegionStats> stats = new ArrayList<>();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            stats.add(new RegionStats(regionName, region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                    region.getElementCountInMemory()));
+        }
+        return stats;
+    }
+
+    public static class RegionStats {
+        private final String region;
+        private final long hits;
+        private final long misses;
+        private final long puts;
+        private final long entries;
+
+        /**
+         * @param entries Number of entries held or a negative number if the cache provider does not report it.
+         */
+        public RegionStats(String region, long hits, long misses, long puts, long entries) {
+            this.region = region;
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+            this.entries = entries;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public double getHitRatio() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+
+        @Override
+        public String toString() {
+            return "RegionStats{" +
+                    "region='" + region + '\'' +
+                    ", hits=" + hits +
+                    ", misses=" + misses +
+                    ", puts=" + puts +
+                    ", entries=" + entries +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.demo.persistance;
+
+import com.demo.domain.Hotel;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the total number of hotels matching a location search so paging through the same search does not repeat the
+ * {@code count(*)} query. Counts are keyed by the normalised search terms and kept for a short time to live.
+ *
+ * <p>Inserting or deleting a hotel evicts every cached count the hotel matches, updating a hotel clears the cache since
+ * its old location is not known. Evictions happen when the change is flushed and again when its transaction ends.
+ * Counts are therefore exact except for changes committed by other applications sharing the database, which are
+ * picked up once the time to live passes.</p>
+ */
+public class HotelSearchCounts implements PostInsertEventListener, PostDeleteEventListener, PostUpdateEventListener {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlMillis;
+    private final Map<Location, Entry> counts = new ConcurrentHashMap<>();
+
+    /*
+     * Bumped on every eviction. A count is only cached if no hotel changed while it was being queried, otherwise a
+     * count started before an insert could be cached after the insert evicted it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public HotelSearchCounts(Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Evicts counts whenever a {@code Hotel} is written through the entity manager factory.
+     */
+    public void listenTo(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    public long count(String state, String suburb, String postcode, LongSupplier countQuery) {
+        return count(state, suburb, postcode, countQuery, System.currentTimeMillis());
+    }
+
+    /**
+     * @param countQuery Counts the matching hotels, only run when there is no unexpired cached count.
+     */
+    public long count(String state, String suburb, String postcode, LongSupplier countQuery, long nowMillis) {
+        Location location = new Location(state, suburb, postcode);
+        Entry entry = counts.get(location);
+        if (entry != null && entry.expiresAtMillis > nowMillis) {
+            return entry.count;
+        }
+
+        long generationBefore = generation.get();
+        long count = countQuery.getAsLong();
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.values().removeIf(existing -> existing.expiresAtMillis <= nowMillis);
+        }
+        if (counts.size() < MAX_ENTRIES) {
+            counts.put(location, new Entry(count, nowMillis + ttlMillis));
+            if (generation.get() != generationBefore) {
+                counts.remove(location);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Evicts every cached count the hotel is included in.
+     */
+    public void evict(Hotel hotel) {
+        generation.incrementAndGet();
+        Location location = new Location(hotel.getAddress().getState().name(),
+                hotel.getAddress().getRawSuburb(),
+                hotel.getAddress().getPostcode().getValue());
+        counts.keySet().removeIf(cached -> cached.includes(location));
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Hotel) {
+            Hotel hotel = (Hotel) event.getEntity();
+            evictNowAndAfterCompletion(event.getSession(), () -> evict(hotel));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Hotel) {
+            Hotel hotel = (Hotel) event.getEntity();
+            evictNowAndAfterCompletion(event.getSession(), () -> evict(hotel));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Hotel) {
+            evictNowAndAfterCompletion(event.getSession(), this::evictAll);
+        }
+    }
+
+    /*
+     * The writing transaction can count its own uncommitted rows, so evict again once it commits or rolls back.
+     */
+    private void evictNowAndAfterCompletion(EventSource session, Runnable eviction) {
+        eviction.run();
+        session.getActionQueue().registerProcess((success, completedSession) -> eviction.run());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Search terms in the form they are compared in, {@code null} meaning any.
+     */
+    private static class Location {
+        private final String state;
+        private final String suburb;
+        private final String postcode;
+
+        private Location(String state, String suburb, String postcode) {
+            this.state = Hotel.normaliseSearchTerm(state);
+            this.suburb = Hotel.normaliseSearchTerm(suburb);
+            this.postcode = Hotel.normaliseSearchTerm(postcode);
+        }
+
+        /**
+         * @return {@code true} if a hotel at {@code hotel} would be counted by a search for this location.
+         */
+        private boolean includes(Location hotel) {
+            return (state == null || state.equals(hotel.state))
+                    && (suburb == null || suburb.equals(hotel.suburb))
+                    && (postcode == null || postcode.equals(hotel.postcode));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Location location = (Location) o;
+            return Objects.equals(state, location.state) &&
+                    Objects.equals(suburb, location.suburb) &&
+                    Objects.equals(postcode, location.postcode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, suburb, postcode);
+        }
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAtMillis;
+
+        private Entry(long count, long expiresAtMillis) {
+            this.count = count;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
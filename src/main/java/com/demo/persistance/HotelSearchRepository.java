@@ -0,0 +1,27 @@
+package com.demo.persistance;
+
+import com.demo.domain.Hotel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Hotel searches implemented by hand rather than derived by Spring Data, see {@link HotelSearchRepositoryImpl}.
+ */
+public interface HotelSearchRepository {
+
+    /**
+     * Finds all hotels by state and suburb and postcode, each matched ignoring case. Parameters that are
+     * {@code null} or blank are left out of the query.
+     *
+     * <p>The total number of results is cached for each location so only the first page of a search runs a
+     * {@code count(*)} query.</p>
+     */
+    Page<Hotel> findAllByLocation(String state, String suburb, String postcode, Pageable pageable);
+
+    /**
+     * @return The ids of every hotel {@link #findAllByLocation} would find, without loading the hotels.
+     */
+    List<Long> findIdsByLocation(String state, String suburb, String postcode);
+}
@@ -0,0 +1,61 @@
+package com.demo.persistance;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.QHotel;
+import com.demo.persistance.predicates.HotelPredicates;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Searches compare the normalised search columns maintained by {@code Hotel} through {@link HotelPredicates#byLocation}
+ * so they can be answered from an index. Result counts come from {@link HotelSearchCounts}.
+ */
+@Transactional(readOnly = true)
+public class HotelSearchRepositoryImpl implements HotelSearchRepository {
+
+    private static final QHotel hotel = QHotel.hotel;
+
+    private EntityManager entityManager;
+    private Querydsl querydsl;
+    private HotelSearchCounts searchCounts;
+
+    public HotelSearchRepositoryImpl(EntityManager entityManager,
+                                     @Value("${hotel.search.count-ttl-seconds:30}") long countTtlSeconds) {
+        this.entityManager = entityManager;
+        this.querydsl = new Querydsl(entityManager, SimpleEntityPathResolver.INSTANCE.createPath(Hotel.class));
+        this.searchCounts = new HotelSearchCounts(Duration.ofSeconds(countTtlSeconds));
+        searchCounts.listenTo(entityManager.getEntityManagerFactory());
+    }
+
+    @Override
+    public Page<Hotel> findAllByLocation(String state, String suburb, String postcode, Pageable pageable) {
+        Predicate byLocation = HotelPredicates.byLocation(state, suburb, postcode);
+
+        JPQLQuery<Hotel> query = new JPAQuery<Hotel>(entityManager).select(hotel).from(hotel).where(byLocation);
+        List<Hotel> hotels = querydsl.applyPagination(pageable, query).fetch();
+
+        // Only called when the total cannot be worked out from the page itself.
+        return PageableExecutionUtils.getPage(hotels, pageable, () -> searchCounts.count(state, suburb, postcode,
+                () -> new JPAQuery<Hotel>(entityManager).select(hotel.id.count()).from(hotel).where(byLocation)
+                        .fetchOne()));
+    }
+
+    @Override
+    public List<Long> findIdsByLocation(String state, String suburb, String postcode) {
+        return new JPAQuery<Long>(entityManager).select(hotel.id).from(hotel)
+                .where(HotelPredicates.byLocation(state, suburb, postcode))
+                .fetch();
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.persistance;
+
+import com.demo.persistance.predicates.Keyset;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs keyset paged queries. One extra row is fetched to know whether there is a next page so, unlike
+ * {@code Page}, no {@code count(*)} query is needed.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class KeysetQueries {
+
+    private EntityManager entityManager;
+
+    public KeysetQueries(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @param where    Filters the rows, may be {@code null}.
+     * @param pageable Only the page size and sort are used, the page number is ignored.
+     * @param cursor   The {@code nextCursor} of the previous slice, {@code null} or empty for the first page.
+     * @throws IllegalArgumentException if the cursor is invalid or the sort is not supported by the {@code Keyset}.
+     */
+    public <T> KeysetSlice<T> findSlice(EntityPath<T> root, Predicate where, Keyset<T> keyset,
+                                        Pageable pageable, String cursor) throws IllegalArgumentException {
+        int size = pageable.getPageSize();
+
+        List<T> rows = new JPAQuery<T>(entityManager)
+                .select(root)
+                .from(root)
+                .where(new BooleanBuilder().and(where).and(keyset.after(pageable.getSort(), cursor)))
+                .orderBy(keyset.orderBy(pageable.getSort()))
+                .limit(size + 1L)
+                .fetch();
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = new ArrayList<>(hasNext ? rows.subList(0, size) : rows);
+        String nextCursor = hasNext ? keyset.cursorAfter(content.get(size - 1), pageable.getSort()) : null;
+        return new KeysetSlice<>(content, PageRequest.of(0, size, pageable.getSort()), nextCursor);
+    }
+}
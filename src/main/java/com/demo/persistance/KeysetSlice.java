@@ -0,0 +1,26 @@
+package com.demo.persistance;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * A keyset page of results. There is no total count, only whether another page follows and the cursor to get it.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, Pageable pageable, String nextCursor) {
+        super(content, pageable, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return The cursor for the following page, {@code null} when this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
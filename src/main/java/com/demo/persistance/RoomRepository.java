@@ -1,11 +1,40 @@
 package com.demo.persistance;
 
 import com.demo.domain.Room;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
 @Repository
 public interface RoomRepository extends PagingAndSortingRepository<Room, Long>, QuerydslPredicateExecutor<Room> {
 
+    /**
+     * Fetches the hotel of each room in the same query, otherwise every distinct hotel on the page is loaded with
+     * its own query as the listing is rendered.
+     */
+    @Override
+    @EntityGraph(attributePaths = "hotel")
+    Page<Room> findAll(Predicate predicate, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "hotel")
+    Iterable<Room> findAll(Predicate predicate);
+
+    /**
+     * Loads the {@code Room} so its version is incremented when the current transaction commits. Transactions that
+     * concurrently book the same room fail with an {@code OptimisticLockingFailureException} on commit.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> findByIdForBooking(@Param("id") Long id);
 }
@@ -1,29 +1,43 @@
 package com.demo.persistance.predicates;
 
+import com.demo.domain.Hotel;
 import com.demo.domain.QHotel;
-import com.demo.domain.location.QAddress;
+import com.demo.domain.location.State;
 import com.querydsl.core.types.Predicate;
 
+import java.util.function.Function;
+
 public final class HotelPredicates {
 
     private static final QHotel hotel = QHotel.hotel;
 
+    /**
+     * The hotel listing sort options that can be keyset paged.
+     */
+    public static final Keyset<Hotel> KEYSET = Keyset.byId(hotel.id, Hotel::getId)
+            .column("name", hotel.name, Hotel::getName, Function.identity())
+            .column("stars", hotel.stars, Hotel::getStars, Integer::valueOf)
+            .column("address.suburb", hotel.address.suburb,
+                    h -> h.getAddress().getRawSuburb(), Function.identity())
+            .column("address.state", hotel.address.state, h -> h.getAddress().getState(), State::valueOf)
+            .column("address.postcode", hotel.address.postcode.value,
+                    h -> h.getAddress().getPostcode().getValue(), Function.identity());
+
     private HotelPredicates() {
     }
 
+    /**
+     * Only the supplied (non blank) location terms become predicates, each a plain equality against the normalised
+     * and indexed search columns on {@code Hotel} so the database can use an index rather than scanning every hotel.
+     */
     public static Predicate byLocation(String state, String suburb, String postcode) {
-        QAddress address = hotel.address;
-
-        /*
-         * This is the same as doing a coalesce except coalesce cannot be used like you think it could be.
-         *
-         * if arg to coalesce is null, an exception is thrown. coalesce will only return its arg if the left hand side
-         * 'this' instance is null so its the wrong way round for what we want to do.
-         * address.state.stringValue().coalesce(state)
-         */
+        String searchState = Hotel.normaliseSearchTerm(state);
+        String searchSuburb = Hotel.normaliseSearchTerm(suburb);
+        String searchPostcode = Hotel.normaliseSearchTerm(postcode);
+
         return new WhereClauseBuilder()
-                .andNullable(state, () -> address.state.stringValue().equalsIgnoreCase(state))
-                .andNullable(suburb, () -> address.suburb.equalsIgnoreCase(suburb))
-                .andNullable(postcode, () -> address.postcode.value.eq(postcode));
+                .andNullable(searchState, () -> hotel.searchState.eq(searchState))
+                .andNullable(searchSuburb, () -> hotel.searchSuburb.eq(searchSuburb))
+                .andNullable(searchPostcode, () -> hotel.searchPostcode.eq(searchPostcode));
     }
 }
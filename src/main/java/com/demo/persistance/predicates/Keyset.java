@@ -0,0 +1,174 @@
+package com.demo.persistance.predicates;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import org.springframework.data.domain.Sort;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Describes how an entity can be keyset (seek) paged. Rather than skipping {@code offset} rows, the next page is
+ * found by seeking past the sort key values of the last row seen. An index on any equality filter columns, then the
+ * sort column and the id, answers that seek directly no matter how deep the page is, so each registered column needs
+ * one, see the indexes of {@code Room} and {@code Hotel}. Without a matching index, such as when sorting on several
+ * columns at once or filtering a hotel search by location, the database sorts every matching row for each page.
+ *
+ * <p>The sort key values and id of the last row are carried between requests in an opaque cursor. The id is always
+ * the final ascending sort column so rows with equal sort keys have a stable order. Only the registered columns can
+ * be sorted on and they must not be nullable.</p>
+ *
+ * @param <T> The entity type.
+ */
+public final class Keyset<T> {
+
+    private final NumberPath<Long> id;
+    private final Function<T, Long> idOf;
+    private final Map<String, Column<T, ?>> columns = new LinkedHashMap<>();
+
+    private Keyset(NumberPath<Long> id, Function<T, Long> idOf) {
+        this.id = id;
+        this.idOf = idOf;
+    }
+
+    public static <T> Keyset<T> byId(NumberPath<Long> id, Function<T, Long> idOf) {
+        return new Keyset<>(id, idOf);
+    }
+
+    /**
+     * Allows sorting on {@code property}, the name used in the {@code sort} request parameter.
+     *
+     * @param path    The column to sort and seek on.
+     * @param valueOf Reads the column value from an entity when creating the cursor.
+     * @param parse   Reads the column value back from the cursor.
+     */
+    public <V extends Comparable<? super V>> Keyset<T> column(String property,
+                                                              ComparableExpressionBase<V> path,
+                                                              Function<T, V> valueOf,
+                                                              Function<String, V> parse) {
+        columns.put(property, new Column<>(path, valueOf, parse));
+        return this;
+    }
+
+    /**
+     * @return The sort as order specifiers, always ending with the id.
+     * @throws IllegalArgumentException if the sort uses a property that was not registered.
+     */
+    public OrderSpecifier<?>[] orderBy(Sort sort) throws IllegalArgumentException {
+        List<OrderSpecifier<?>> orderBy = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = columnFor(order).path;
+            orderBy.add(order.isAscending() ? path.asc() : path.desc());
+        }
+        orderBy.add(id.asc());
+        return orderBy.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    /**
+     * Builds the predicate matching every row that sorts after the row the cursor was created from.
+     *
+     * <pre>
+     *     sort=costPerNight,desc
+     *     where costPerNight &lt; :cost or (costPerNight = :cost and id &gt; :id)
+     * </pre>
+     *
+     * @param cursor From {@link #cursorAfter}, {@code null} or empty for the first page.
+     * @return The predicate or {@code null} when starting from the first page.
+     * @throws IllegalArgumentException if the cursor is malformed or was created for a different sort.
+     */
+    public Predicate after(Sort sort, String cursor) throws IllegalArgumentException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        List<String> values = decode(cursor);
+        List<Sort.Order> orders = sort.toList();
+        if (values.size() != orders.size() + 1) {
+            throw new IllegalArgumentException("Cursor does not match the sort");
+        }
+
+        BooleanExpression after = null;
+        BooleanExpression equalSoFar = null;
+        for (int i = 0; i < orders.size(); i++) {
+            Column<T, ?> column = columnFor(orders.get(i));
+            Expression<?> value = Expressions.constant(column.parse.apply(values.get(i)));
+            BooleanExpression beyond = Expressions.booleanOperation(
+                    orders.get(i).isAscending() ? Ops.GT : Ops.LT, column.path, value);
+
+            after = or(after, and(equalSoFar, beyond));
+            equalSoFar = and(equalSoFar, Expressions.booleanOperation(Ops.EQ, column.path, value));
+        }
+        Long lastId = Long.valueOf(values.get(orders.size()));
+        return or(after, and(equalSoFar, id.gt(lastId)));
+    }
+
+    /**
+     * @return The cursor that continues from the row following {@code last}.
+     */
+    public String cursorAfter(T last, Sort sort) throws IllegalArgumentException {
+        List<String> values = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            values.add(String.valueOf(columnFor(order).valueOf.apply(last)));
+        }
+        values.add(String.valueOf(idOf.apply(last)));
+        return encode(values);
+    }
+
+    private Column<T, ?> columnFor(Sort.Order order) {
+        Column<T, ?> column = columns.get(order.getProperty());
+        if (column == null) {
+            throw new IllegalArgumentException("Cannot page by " + order.getProperty());
+        }
+        return column;
+    }
+
+    private static BooleanExpression and(BooleanExpression left, BooleanExpression right) {
+        return left == null ? right : left.and(right);
+    }
+
+    private static BooleanExpression or(BooleanExpression left, BooleanExpression right) {
+        return left == null ? right : left.or(right);
+    }
+
+    private static String encode(List<String> values) {
+        List<String> encoded = new ArrayList<>();
+        for (String value : values) {
+            encoded.add(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(",", encoded).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> decode(String cursor) {
+        String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        List<String> values = new ArrayList<>();
+        for (String value : joined.split(",", -1)) {
+            values.add(URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static class Column<T, V extends Comparable<? super V>> {
+        private final ComparableExpressionBase<V> path;
+        private final Function<T, V> valueOf;
+        private final Function<String, V> parse;
+
+        private Column(ComparableExpressionBase<V> path, Function<T, V> valueOf, Function<String, V> parse) {
+            this.path = path;
+            this.valueOf = valueOf;
+            this.parse = parse;
+        }
+    }
+}
@@ -1,26 +1,55 @@
 package com.demo.persistance.predicates;
 
 import com.demo.domain.QRoom;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
 import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.function.Function;
 
 public final class RoomPredicates {
 
     private static final QRoom room = QRoom.room;
 
+    /**
+     * The room listing sort options that can be keyset paged.
+     */
+    public static final Keyset<Room> KEYSET = Keyset.byId(room.id, Room::getId)
+            .column("roomNumber", room.roomNumber, Room::getRoomNumber, Function.identity())
+            .column("roomType", room.roomType, Room::getRoomType, RoomType::valueOf)
+            .column("beds", room.beds, Room::getBeds, Integer::valueOf)
+            .column("costPerNight", room.costPerNight, Room::getCostPerNight, BigDecimal::new);
+
     private RoomPredicates() {
     }
 
+    /**
+     * @return Every room in the hotel identified by the supplied {@code hotelId}.
+     */
+    public static BooleanExpression inHotel(Long hotelId) {
+        return room.hotel.id.eq(hotelId);
+    }
+
     /**
      * Gets all the available rooms in the hotel identified by the supplied {@code hotelId}.
-     * An available room means it has no {@code Reservation} assigned to it.
+     * An available room is any room in the hotel that is not one of the {@code unavailableRoomIds}. Working out
+     * which rooms are booked for a date range is the job of {@code AvailabilityIndex} since the nights are indexed
+     * in memory.
      *
      * <p>The reason the query is done through the {@code Room} and not {@code Hotel} is to get a {@code Page} as
      * there could be many rooms. {@code Hotel} will get ALL the {@code Room}s unpaged.</p>
      *
-     * @param hotelId The hotel id to get available rooms for.
+     * @param hotelId            The hotel id to get available rooms for.
+     * @param unavailableRoomIds The rooms to exclude, may be empty.
      * @return The {@code Predicate}.
      */
-    public static Predicate availableRoom(Long hotelId) {
-        return room.hotel.id.eq(hotelId).and(room.reservation.isNull());
+    public static Predicate availableRoom(Long hotelId, Collection<Long> unavailableRoomIds) {
+        if (unavailableRoomIds.isEmpty()) {
+            return inHotel(hotelId);
+        }
+        return inHotel(hotelId).and(room.id.notIn(unavailableRoomIds));
     }
 }
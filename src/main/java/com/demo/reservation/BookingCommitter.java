@@ -0,0 +1,61 @@
+package com.demo.reservation;
+
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.exceptions.RoomUnavailableException;
+import com.demo.persistance.RoomRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Commits a single booking attempt in its own transaction. Kept separate from {@code BookingService} so the
+ * transaction is applied through the Spring proxy and each retry starts a fresh transaction.
+ */
+@Component
+public class BookingCommitter {
+
+    private ReservationRepository reservationRepository;
+    private RoomRepository roomRepository;
+
+    public BookingCommitter(ReservationRepository reservationRepository, RoomRepository roomRepository) {
+        this.reservationRepository = reservationRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    /**
+     * Force increments the {@code Room} version, checks the database for overlapping stays then saves the
+     * {@code Reservation}. If another transaction books the same room concurrently only 1 of them commits, the
+     * other fails with an {@code OptimisticLockingFailureException} and can safely be retried.
+     *
+     * <p>Committing a {@code Reservation} that has already been saved, for example when a previous attempt committed
+     * but its response was lost, returns the saved {@code Reservation} rather than booking it twice.</p>
+     *
+     * @throws RoomUnavailableException if a committed reservation already occupies any of the nights.
+     */
+    @Transactional(rollbackFor = RoomUnavailableException.class)
+    public Reservation commit(Reservation reservation) throws RoomUnavailableException {
+        Optional<Reservation> existing = reservationRepository.findByReservationId(reservation.getReservationId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Long roomId = reservation.getRoom().getId();
+        Room room = roomRepository.findByIdForBooking(roomId)
+                .orElseThrow(() -> new RoomUnavailableException("Room " + roomId + " no longer exists"));
+
+        ReservationDates dates = reservation.getDates();
+        Optional<Reservation> overlap = reservationRepository
+                .findFirstByRoomIdAndDatesCheckInDateBeforeAndDatesCheckOutDateAfter(
+                        roomId, dates.getCheckOutDate(), dates.getCheckInDate());
+        if (overlap.isPresent()) {
+            throw new RoomUnavailableException("Room " + room.getRoomNumber() + " is already booked from "
+                    + overlap.get().getDates().getCheckInDate() + " to " + overlap.get().getDates().getCheckOutDate());
+        }
+
+        reservation.setRoom(room);
+        return reservationRepository.save(reservation);
+    }
+}
@@ -0,0 +1,126 @@
+package com.demo.reservation;
+
+import com.demo.domain.Reservation;
+import com.demo.exceptions.RoomUnavailableException;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import com.demo.reservation.inventory.ReservationIntervalIndex;
+import com.demo.reservation.inventory.RoomLocks;
+import com.demo.reservation.inventory.RoomStays;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persists paid reservations and keeps the {@code AvailabilityIndex} in sync with the database.
+ */
+@Service
+public class BookingService {
+
+    // Attempts at committing a booking that keeps losing the optimistic lock to bookings for other dates.
+    static final int MAX_COMMIT_ATTEMPTS = 3;
+
+    private BookingCommitter bookingCommitter;
+    private ReservationRepository reservationRepository;
+    private AvailabilityIndex availabilityIndex;
+    private ReservationIntervalIndex reservationIntervalIndex;
+    private RoomLocks roomLocks;
+
+    public BookingService(BookingCommitter bookingCommitter,
+                          ReservationRepository reservationRepository,
+                          AvailabilityIndex availabilityIndex,
+                          ReservationIntervalIndex reservationIntervalIndex,
+                          RoomLocks roomLocks) {
+        this.bookingCommitter = bookingCommitter;
+        this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.reservationIntervalIndex = reservationIntervalIndex;
+        this.roomLocks = roomLocks;
+    }
+
+    /**
+     * Claims the nights in the {@code ReservationIntervalIndex} before saving so overlapping stays booked on this
+     * node are rejected without querying the database. The claim is released if the commit fails. The
+     * {@code AvailabilityIndex} is only updated once the commit succeeds so a failed save never leaves phantom
+     * bookings behind.
+     *
+     * <p>The commit itself is guarded by the {@code Room} version rather than a lock, so bookings made on other
+     * nodes are also detected. Losing the optimistic lock only means another booking for the room committed first,
+     * the commit is retried and rechecks the database so it succeeds unless that booking overlaps.</p>
+     *
+     * <p>On a single node the room's stripe in {@code RoomLocks} is held for the whole check and commit, so
+     * concurrent payments for the same room queue up here instead of racing to the database and retrying.</p>
+     *
+     * @return The saved {@code Reservation}.
+     * @throws RoomUnavailableException if another reservation already occupies any of the nights.
+     */
+    public Reservation book(Reservation reservation) throws RoomUnavailableException {
+        try (RoomLocks.Lock ignored = roomLocks.lock(reservation.getRoom().getId())) {
+            return lockedBook(reservation);
+        }
+    }
+
+    private Reservation lockedBook(Reservation reservation) throws RoomUnavailableException {
+        Optional<RoomStays.Stay> conflict = reservationIntervalIndex.tryClaim(reservation);
+        // Claims only outlive the room lock once committed, so the reservation's own stay means it is already booked
+        // and the commit returns the saved booking.
+        boolean committed = conflict.isPresent()
+                && conflict.get().getReservationId().equals(reservation.getReservationId());
+        if (conflict.isPresent() && !committed) {
+            throw new RoomUnavailableException("Room " + reservation.getRoom().getRoomNumber()
+                    + " is already booked from " + conflict.get().getCheckInDate()
+                    + " to " + conflict.get().getCheckOutDate());
+        }
+
+        Reservation saved;
+        try {
+            saved = commitWithRetry(reservation);
+        } catch (RoomUnavailableException | RuntimeException e) {
+            if (!committed) {
+                reservationIntervalIndex.release(reservation);
+            }
+            throw e;
+        }
+        availabilityIndex.book(saved);
+        return saved;
+    }
+
+    /**
+     * A failed attempt has already assigned ids to the reservation and everything it cascades to, which the rollback
+     * leaves in place. They are cleared before the next attempt, or before returning, so the reservation is persisted
+     * again rather than merged into a copy the caller never sees.
+     */
+    private Reservation commitWithRetry(Reservation reservation) throws RoomUnavailableException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bookingCommitter.commit(reservation);
+            } catch (OptimisticLockingFailureException e) {
+                reservation.clearGeneratedIds();
+                if (attempt == MAX_COMMIT_ATTEMPTS) {
+                    throw new RoomUnavailableException("Room " + reservation.getRoom().getRoomNumber()
+                            + " is being booked by too many people at once");
+                }
+            } catch (RoomUnavailableException | RuntimeException e) {
+                reservation.clearGeneratedIds();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * The meal plans are fetched by a second query in the same transaction, which fills the list of the reservation
+     * the first query loaded.
+     *
+     * @return The committed {@code Reservation} with everything needed to show it, empty if it was never booked.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Reservation> findBooking(UUID reservationId) {
+        Optional<Reservation> booking = reservationRepository.findWithDetailsByReservationId(reservationId);
+        if (booking.isPresent()) {
+            reservationRepository.findWithMealPlansByReservationId(reservationId);
+        }
+        return booking;
+    }
+}
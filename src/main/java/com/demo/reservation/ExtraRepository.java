@@ -8,5 +8,6 @@ import java.util.List;
 
 @Repository
 public interface ExtraRepository extends CrudRepository<Extra, Long> {
+
     List<Extra> findAllByTypeAndCategory(Extra.Type type, Extra.Category category);
 }
@@ -1,37 +1,115 @@
 package com.demo.reservation;
 
 import com.demo.domain.Extra;
-import com.demo.domain.MealPlan;
-import com.demo.domain.Reservation;
-import com.demo.domain.RoomType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Serves the extras catalogue from an in memory snapshot so the reservation flow never queries the database for
+ * extras. The catalogue almost never changes, it is reloaded on a schedule and immediately after any change made
+ * through {@link #save(Extra)}.
+ */
 @Service
 public class ExtrasService {
 
     private ExtraRepository extraRepository;
 
+    // Replaced as a whole on refresh, readers always see a complete catalogue.
+    private volatile Catalogue catalogue;
+
     public ExtrasService(ExtraRepository extraRepository) {
         this.extraRepository = extraRepository;
     }
 
     public List<Extra> getGeneralExtras(Extra.Type type) {
-        return extraRepository.findAllByTypeAndCategory(type, Extra.Category.General);
+        return catalogue().get(type, Extra.Category.General);
     }
 
     public List<Extra> getFoodExtras(Extra.Type type) {
-        return extraRepository.findAllByTypeAndCategory(type, Extra.Category.Food);
+        return catalogue().get(type, Extra.Category.Food);
+    }
+
+    public Optional<Extra> getExtra(Long id) {
+        return Optional.ofNullable(catalogue().byId.get(id));
     }
 
     public List<Extra> getExtrasById(List<Long> ids) {
+        Catalogue current = catalogue();
         List<Extra> target = new ArrayList<>();
-        extraRepository.findAllById(ids).forEach(target::add);
+        for (Long id : ids) {
+            Extra extra = current.byId.get(id);
+            if (extra != null) {
+                target.add(extra);
+            }
+        }
         return target;
     }
+
+    /**
+     * Saves a new or changed {@code Extra} and refreshes the catalogue so the change is visible straight away.
+     */
+    public Extra save(Extra extra) {
+        Extra saved = extraRepository.save(extra);
+        refresh();
+        return saved;
+    }
+
+    /**
+     * Reloads the catalogue from the database.
+     */
+    @Scheduled(fixedDelayString = "${reservation.extras.refresh-millis:300000}",
+            initialDelayString = "${reservation.extras.refresh-millis:300000}")
+    public void refresh() {
+        catalogue = new Catalogue(extraRepository.findAll());
+    }
+
+    private Catalogue catalogue() {
+        Catalogue current = catalogue;
+        if (current == null) {
+            synchronized (this) {
+                if (catalogue == null) {
+                    refresh();
+                }
+                current = catalogue;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Immutable snapshot of every {@code Extra} grouped by type then category.
+     */
+    private static final class Catalogue {
+        private final Map<Extra.Type, Map<Extra.Category, List<Extra>>> byTypeAndCategory =
+                new EnumMap<>(Extra.Type.class);
+        private final Map<Long, Extra> byId = new HashMap<>();
+
+        private Catalogue(Iterable<Extra> extras) {
+            Map<Extra.Type, Map<Extra.Category, List<Extra>>> grouped = new EnumMap<>(Extra.Type.class);
+            for (Extra extra : extras) {
+                grouped.computeIfAbsent(extra.getType(), type -> new EnumMap<>(Extra.Category.class))
+                        .computeIfAbsent(extra.getCategory(), category -> new ArrayList<>())
+                        .add(extra);
+                byId.put(extra.getId(), extra);
+            }
+            grouped.forEach((type, categories) -> {
+                Map<Extra.Category, List<Extra>> immutableCategories = new EnumMap<>(Extra.Category.class);
+                categories.forEach((category, list) -> immutableCategories.put(category, List.copyOf(list)));
+                byTypeAndCategory.put(type, Collections.unmodifiableMap(immutableCategories));
+            });
+        }
+
+        private List<Extra> get(Extra.Type type, Extra.Category category) {
+            return byTypeAndCategory.getOrDefault(type, Collections.emptyMap())
+                    .getOrDefault(category, Collections.emptyList());
+        }
+    }
 }
@@ -1,9 +1,54 @@
 package com.demo.reservation;
 
 import com.demo.domain.Reservation;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
 public interface ReservationRepository extends CrudRepository<Reservation, Long> {
+
+    /**
+     * Fetches the room, hotel and payment of every reservation in the same query rather than 1 query for each.
+     *
+     * @return All reservations still occupying a room on or after the supplied date.
+     */
+    @EntityGraph(attributePaths = {"room", "room.hotel", "completedPayment"})
+    List<Reservation> findAllByDatesCheckOutDateAfter(LocalDate date);
+
+    /**
+     * Only loads the reservation and its room, enough to tell whether a booking has already been committed.
+     */
+    Optional<Reservation> findByReservationId(UUID reservationId);
+
+    /**
+     * Fetches everything the completed page shows except the meal plans in 1 query. Joining the meal plans list as
+     * well would repeat each plan for every guest and extra, they are fetched by
+     * {@link #findWithMealPlansByReservationId} instead.
+     */
+    @EntityGraph(attributePaths = {"room", "room.hotel", "guests", "generalExtras", "completedPayment"})
+    Optional<Reservation> findWithDetailsByReservationId(UUID reservationId);
+
+    /**
+     * Fetches the meal plans in 1 query, filling the list of the same reservation when it is already loaded in the
+     * current transaction. The food extras and dietary requirements of the meal plans are batch loaded, see
+     * {@code MealPlan}.
+     */
+    @Query("select distinct r from Reservation r left join fetch r.mealPlans where r.reservationId = :reservationId")
+    Optional<Reservation> findWithMealPlansByReservationId(@Param("reservationId") UUID reservationId);
+
+    /**
+     * Stays overlap when each checks in before the other checks out, back to back stays do not overlap.
+     *
+     * @return The first reservation of the room occupying any night between {@code checkIn} and {@code checkOut}.
+     */
+    Optional<Reservation> findFirstByRoomIdAndDatesCheckInDateBeforeAndDatesCheckOutDateAfter(
+            Long roomId, LocalDate checkOut, LocalDate checkIn);
 }
@@ -3,9 +3,12 @@ package com.demo.reservation.flow;
 import com.demo.TimeProvider;
 import com.demo.domain.*;
 import com.demo.exceptions.NotFoundException;
+import com.demo.exceptions.RoomUnavailableException;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.testcheckboxes.Drink;
 import com.demo.reservation.testcheckboxes.EnumDrink;
 import com.demo.reservation.testcheckboxes.Person;
@@ -14,11 +17,13 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.support.SessionStatus;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
+import java.beans.PropertyEditorSupport;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -30,17 +35,53 @@ import java.util.UUID;
 public class ReservationController {
 
     private RoomRepository roomRepository;
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+    private BookingService bookingService;
+    private RoomHolds roomHolds;
     private TimeProvider timeProvider;
 
     public ReservationController(RoomRepository roomRepository,
-                                 ExtraRepository extraRepository,
+                                 ExtrasService extrasService,
+                                 BookingService bookingService,
+                                 RoomHolds roomHolds,
                                  TimeProvider timeProvider) {
         this.roomRepository = roomRepository;
-        this.extraRepository = extraRepository;
+        this.extrasService = extrasService;
+        this.bookingService = bookingService;
+        this.roomHolds = roomHolds;
         this.timeProvider = timeProvider;
     }
 
+    /**
+     * Binds the extra ids submitted by the extras and meals checkboxes from the cached catalogue rather than loading
+     * each {@code Extra} from the database.
+     */
+    @InitBinder("reservationFlow")
+    public void initExtrasBinder(WebDataBinder binder) {
+        binder.registerCustomEditor(Extra.class, new PropertyEditorSupport() {
+            @Override
+            public void setAsText(String text) {
+                setValue(extrasService.getExtra(Long.valueOf(text)).orElse(null));
+            }
+
+            @Override
+            public String getAsText() {
+                Extra extra = (Extra) getValue();
+                return extra == null || extra.getId() == null ? "" : extra.getId().toString();
+            }
+        });
+    }
+
+    /**
+     * Holds the room for the flow's dates so no other session can reserve the same nights while this user finishes
+     * the remaining steps. Holding again with the same flow simply refreshes or moves the hold.
+     */
+    private boolean holdRoom(ReservationFlow reservationFlow) {
+        Reservation reservation = reservationFlow.getReservation();
+        return roomHolds.hold(reservation.getReservationId(), reservation.getRoom().getId(),
+                reservation.getDates().getCheckInDate(), reservation.getDates().getCheckOutDate());
+    }
+
     /**
      * Since {@code reservationFlow} is used in the {@code SessionAttributes} on the controller level, it informs
      * spring to treat our {@code ReservationFlow} as session scoped. This method will be invoked the very first
@@ -48,6 +89,8 @@ public class ReservationController {
      * <p>Subsequent HTTP requests will go directly to the handler and the statement
      * {@code @ModelAttribute("reservationFlow")} will grab the object directly from the session rather
      * than recreating it.
+     * <p>Steps redirecting to the next step do not flash the flow, the step they redirect to retrieves it in the same
+     * way. Flash attributes are kept in the {@code HttpSession}, which a flow store or token is meant to avoid.</p>
      */
     @ModelAttribute("reservationFlow")
     public ReservationFlow getReservationFlow() {
@@ -70,7 +113,7 @@ public class ReservationController {
             throw new NotFoundException();
         }
 
-        maybeRoom.get().setReservation(reservationFlow.getReservation());
+        reservationFlow.getReservation().setRoom(maybeRoom.get());
 
         return "reservation/dates";
     }
@@ -84,8 +127,7 @@ public class ReservationController {
      */
     @PostMapping("/reservation/dates")
     public String dates(@Valid @ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                        BindingResult bindingResult,
-                        RedirectAttributes redirectAttributes) {
+                        BindingResult bindingResult) {
         reservationFlow.enterStep(ReservationFlow.Step.Dates);
 
         if (bindingResult.hasErrors()) {
@@ -102,13 +144,20 @@ public class ReservationController {
             return "reservation/dates";
         }
 
+        if (!holdRoom(reservationFlow)) {
+            bindingResult.rejectValue("reservation.dates", "dates.unavailable",
+                    "Sorry, this room is not available for the selected dates");
+            return "reservation/dates";
+        }
+
         reservationFlow.completeStep(ReservationFlow.Step.Dates);
-        redirectAttributes.addFlashAttribute("reservationFlow", reservationFlow);
         return "redirect:/reservation/guests";
     }
 
     @PostMapping(value = "/reservation/dates", params = "cancel")
-    public String cancelDates(SessionStatus sessionStatus) {
+    public String cancelDates(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
+                              SessionStatus sessionStatus) {
+        roomHolds.release(reservationFlow.getReservation().getReservationId());
         sessionStatus.setComplete();
         return "redirect:/";
     }
@@ -131,10 +180,8 @@ public class ReservationController {
     }
 
     @PostMapping(value = "/reservation/guests", params = "back")
-    public String fromGuestBackToDates(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                       RedirectAttributes ra) {
+    public String fromGuestBackToDates(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.enterStep(ReservationFlow.Step.Guests);
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         return "redirect:/reservation?roomId=" + reservationFlow.getReservation().getRoom().getId();
     }
 
@@ -184,8 +231,7 @@ public class ReservationController {
     @PostMapping(value = "/reservation/guests")
     public String postGuestToExtras(@ModelAttribute(binding = false) Guest guest,
                                     Errors errors,
-                                    @ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                    RedirectAttributes redirectAttributes) {
+                                    @ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.enterStep(ReservationFlow.Step.Guests);
 
         if (!reservationFlow.getReservation().hasGuests()) {
@@ -197,8 +243,6 @@ public class ReservationController {
             return "reservation/guests";
         }
 
-        redirectAttributes.addFlashAttribute("reservationFlow", reservationFlow);
-
         reservationFlow.completeStep(ReservationFlow.Step.Guests);
         return "redirect:/reservation/extras";
     }
@@ -210,27 +254,21 @@ public class ReservationController {
     public String getGeneralExtrasForm(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow, Model model) {
         reservationFlow.setActive(ReservationFlow.Step.Extras);
 
-        List<Extra> generalExtras = extraRepository.findAllByTypeAndCategory(
-                reservationFlow.getReservation().getExtraPricingType(), Extra.Category.General
-        );
+        List<Extra> generalExtras = extrasService.getGeneralExtras(
+                reservationFlow.getReservation().getExtraPricingType());
         model.addAttribute("extras", generalExtras);
         return "reservation/extras";
     }
 
     @PostMapping(value = "/reservation/extras", params = "back")
-    public String fromGeneralExtrasBackToGuests(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                                RedirectAttributes ra) {
+    public String fromGeneralExtrasBackToGuests(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.setActive(ReservationFlow.Step.Guests);
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         return "redirect:/reservation/guests";
     }
 
     @PostMapping(value = "/reservation/extras")
-    public String submitGeneralExtras(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                      RedirectAttributes ra) {
+    public String submitGeneralExtras(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.setActive(ReservationFlow.Step.Extras);
-
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         reservationFlow.completeStep(ReservationFlow.Step.Extras);
         return "redirect:/reservation/meals";
     }
@@ -244,10 +282,8 @@ public class ReservationController {
     // Flow step 4 - meals
 
     @PostMapping(value = "/reservation/meals", params = "back")
-    public String fromMealPlansBackToGeneralExtras(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                                   RedirectAttributes ra) {
+    public String fromMealPlansBackToGeneralExtras(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.setActive(ReservationFlow.Step.Meals);
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         return "redirect:/reservation/extras";
     }
 
@@ -262,10 +298,7 @@ public class ReservationController {
     }
 
     private void createMealPlanModel(ReservationFlow reservationFlow, Model model) {
-        List<Extra> foodExtras = extraRepository.findAllByTypeAndCategory(
-                reservationFlow.getReservation().getExtraPricingType(),
-                Extra.Category.Food
-        );
+        List<Extra> foodExtras = extrasService.getFoodExtras(reservationFlow.getReservation().getExtraPricingType());
         model.addAttribute("foodExtras", foodExtras);
         model.addAttribute("dietaryRequirements", DietaryRequirement.values());
     }
@@ -277,7 +310,7 @@ public class ReservationController {
 
     @PostMapping("/reservation/meals")
     public String postMealPlans(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                Errors errors, Model model, RedirectAttributes ra) {
+                                Errors errors, Model model) {
         reservationFlow.setActive(ReservationFlow.Step.Meals);
 
         Reservation reservation = reservationFlow.getReservation();
@@ -294,7 +327,6 @@ public class ReservationController {
             return "reservation/meals";
         }
 
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         reservationFlow.completeStep(ReservationFlow.Step.Meals);
         return "redirect:/reservation/review";
     }
@@ -308,19 +340,14 @@ public class ReservationController {
     }
 
     @PostMapping(value = "/reservation/review", params = "back")
-    public String fromReviewBackToMealPlans(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                            RedirectAttributes ra) {
+    public String fromReviewBackToMealPlans(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.setActive(ReservationFlow.Step.Review);
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         return "redirect:/reservation/meals";
     }
 
     @PostMapping("/reservation/review")
-    public String postReview(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                             RedirectAttributes ra) {
+    public String postReview(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.setActive(ReservationFlow.Step.Review);
-
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         reservationFlow.completeStep(ReservationFlow.Step.Review);
         return "redirect:/reservation/payment";
     }
@@ -337,15 +364,15 @@ public class ReservationController {
     }
 
     @PostMapping(value = "/reservation/payment", params = "back")
-    public String fromPaymentBackToReview(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
-                                          RedirectAttributes ra) {
+    public String fromPaymentBackToReview(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow) {
         reservationFlow.setActive(ReservationFlow.Step.Payment);
-        ra.addFlashAttribute("reservationFlow", reservationFlow);
         return "redirect:/reservation/review";
     }
 
     @PostMapping(value = "/reservation/payment", params = "cancel")
-    public String cancelPayment(SessionStatus sessionStatus) {
+    public String cancelPayment(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
+                                SessionStatus sessionStatus) {
+        roomHolds.release(reservationFlow.getReservation().getReservationId());
         sessionStatus.setComplete();
         return "redirect:/";
     }
@@ -353,7 +380,8 @@ public class ReservationController {
     @PostMapping("/reservation/payment")
     public String postPayment(@ModelAttribute("reservationFlow") ReservationFlow reservationFlow,
                               @Valid @ModelAttribute("pendingPayment") PendingPayment pendingPayment,
-                              BindingResult bindingResult, SessionStatus sessionStatus) {
+                              BindingResult bindingResult, SessionStatus sessionStatus,
+                              RedirectAttributes redirectAttributes) {
         reservationFlow.setActive(ReservationFlow.Step.Payment);
 
         if (bindingResult.hasErrors()) {
@@ -361,25 +389,46 @@ public class ReservationController {
         }
 
         Reservation reservation = reservationFlow.getReservation();
+
+        // Refreshing the hold fails if it expired and another session has since held or booked the nights.
+        if (!holdRoom(reservationFlow)) {
+            bindingResult.reject("roomUnavailable",
+                    "Sorry, this room has just been reserved for some of your dates. Please choose different dates");
+            return "reservation/payment";
+        }
+
         // Simulate making a valid payment
         reservation.setCompletedPayment(pendingPayment.toCompletedPayment());
 
-        /*
-         * The new reservation is saved through the Room since the room owns the reservation in the
-         * bi directional 1 to 1 mapping. This is to allow easier querying to identity rooms that
-         * have reservations.
-         */
-        roomRepository.save(reservation.getRoom());
+        // The reservation owns the room relationship so saving it also books the nights in the availability index.
+        try {
+            bookingService.book(reservation);
+        } catch (RoomUnavailableException e) {
+            bindingResult.reject("roomUnavailable",
+                    "Sorry, this room has just been sold for some of your dates. Please choose different dates");
+            return "reservation/payment";
+        } finally {
+            roomHolds.release(reservation.getReservationId());
+        }
         sessionStatus.setComplete();
 
         reservationFlow.completeStep(ReservationFlow.Step.Payment);
+        redirectAttributes.addFlashAttribute("reservationId", reservation.getReservationId());
         return "redirect:/reservation/completed";
     }
 
     // End flow
 
+    /**
+     * Shows the booking as it was saved, the flow has ended so only the flashed id of the reservation is known.
+     */
     @GetMapping("/reservation/completed")
-    public String getFlowCompleted() {
+    public String getFlowCompleted(Model model) {
+        Object reservationId = model.getAttribute("reservationId");
+        if (reservationId instanceof UUID) {
+            bookingService.findBooking((UUID) reservationId)
+                    .ifPresent(reservation -> model.addAttribute("reservation", reservation));
+        }
         return "reservation/completed";
     }
 
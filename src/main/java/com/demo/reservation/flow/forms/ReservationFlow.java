@@ -10,6 +10,9 @@ import java.util.*;
  * rely on controller logic to keep the flow step in sync.
  *
  * <p>There cannot be an incrementing counter given page refreshes must not advance flow steps.</p>
+ *
+ * <p>Only the reservation, active step and completed steps are kept per session. The {@code StepDescription} of each
+ * step is the same for every flow and shared from {@link StepDescriptions}.</p>
  */
 public class ReservationFlow {
 
@@ -50,21 +53,10 @@ public class ReservationFlow {
     @Valid
     private Reservation reservation = new Reservation();
 
-    private List<StepDescription> stepDescriptions = new ArrayList<>();
-
-    private Set<Step> completedSteps = new HashSet<>();
+    private final Set<Step> completedSteps = EnumSet.noneOf(Step.class);
 
     private Step activeStep = Step.Dates;
 
-    public ReservationFlow() {
-        stepDescriptions.add(new StepDescription(0, "Dates", "Choose your reservation dates"));
-        stepDescriptions.add(new StepDescription(1, "Guests", "Provide guest details"));
-        stepDescriptions.add(new StepDescription(2, "Extras", "Select optional extras"));
-        stepDescriptions.add(new StepDescription(3, "Meals", "Choose optional meal plans"));
-        stepDescriptions.add(new StepDescription(4, "Review", "Verify your reservation"));
-        stepDescriptions.add(new StepDescription(5, "Payment", "Provide payment details"));
-    }
-
     public Reservation getReservation() {
         return reservation;
     }
@@ -82,7 +74,7 @@ public class ReservationFlow {
     }
 
     public StepDescription getActiveStepDescription() {
-        return stepDescriptions.get(activeStep.flowStep);
+        return StepDescriptions.of(activeStep);
     }
 
     public void completeStep(Step step) {
@@ -101,19 +93,23 @@ public class ReservationFlow {
         return completedSteps.contains(step);
     }
 
+    public Set<Step> getCompletedSteps() {
+        return Collections.unmodifiableSet(completedSteps);
+    }
+
     public void enterStep(Step step) {
         setActive(step);
         incompleteStep(step);
     }
 
     public List<StepDescription> getStepDescriptions() {
-        return stepDescriptions;
+        return StepDescriptions.all();
     }
 
     public static class StepDescription {
-        private int flowStep;
-        private String title;
-        private String description;
+        private final int flowStep;
+        private final String title;
+        private final String description;
 
         public StepDescription(int flowStep, String title, String description) {
             this.flowStep = flowStep;
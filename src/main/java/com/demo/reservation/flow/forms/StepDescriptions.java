@@ -0,0 +1,56 @@
+package com.demo.reservation.flow.forms;
+
+import com.demo.reservation.flow.forms.ReservationFlow.Step;
+import com.demo.reservation.flow.forms.ReservationFlow.StepDescription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * The {@code StepDescription} of every {@code Step}, created once and shared by every {@code ReservationFlow}. Titles
+ * and descriptions are read from the {@code reservation.step.<Step>.title} and
+ * {@code reservation.step.<Step>.description} keys of {@code messages.properties}, falling back to the step name.
+ */
+public final class StepDescriptions {
+
+    private static final List<StepDescription> DESCRIPTIONS = load(bundle());
+
+    private StepDescriptions() {
+    }
+
+    /**
+     * @return Every step's description in flow order, unmodifiable.
+     */
+    public static List<StepDescription> all() {
+        return DESCRIPTIONS;
+    }
+
+    public static StepDescription of(Step step) {
+        return DESCRIPTIONS.get(step.flowStep);
+    }
+
+    static List<StepDescription> load(ResourceBundle messages) {
+        List<StepDescription> descriptions = new ArrayList<>();
+        for (Step step : Step.values()) {
+            String key = "reservation.step." + step.name();
+            descriptions.add(new StepDescription(step.flowStep, message(messages, key + ".title", step.name()),
+                    message(messages, key + ".description", step.name())));
+        }
+        return Collections.unmodifiableList(descriptions);
+    }
+
+    private static String message(ResourceBundle messages, String key, String defaultMessage) {
+        return messages != null && messages.containsKey(key) ? messages.getString(key) : defaultMessage;
+    }
+
+    private static ResourceBundle bundle() {
+        try {
+            return ResourceBundle.getBundle("messages");
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.domain.DietaryRequirement;
+import com.demo.reservation.flow.forms.ReservationFlow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Encodes a {@link ReservationFlowState} in a few dozen bytes, a fraction of the JSON encoding.
+ *
+ * <ul>
+ * <li>Ids, counts and lengths are unsigned varints, 7 bits per byte so most take 1 or 2 bytes.</li>
+ * <li>Dates are zigzag varint epoch days and times varint seconds of the day.</li>
+ * <li>Booleans and the presence of optional values are bits of a single flags byte.</li>
+ * <li>{@code Step}s and {@code DietaryRequirement}s are ordinals, sets of them bit masks. Dietary requirements are
+ * decoded in declaration order, the order the meals form lists them.</li>
+ * <li>Meal plans refer to their guest by position rather than repeating its 16 byte temp id.</li>
+ * </ul>
+ *
+ * <p>The first byte is the format version. Adding or reordering enum constants or fields requires a new version,
+ * flows written in any other version are rejected so the user simply starts again.</p>
+ */
+public class BinaryReservationFlowCodec implements ReservationFlowCodec {
+
+    static final int VERSION = 1;
+
+    private static final int HAS_RESERVATION_ID = 1;
+    private static final int HAS_ROOM = 1 << 1;
+    private static final int HAS_CHECK_IN = 1 << 2;
+    private static final int HAS_CHECK_OUT = 1 << 3;
+    private static final int HAS_CHECK_IN_TIME = 1 << 4;
+    private static final int LATE_CHECKOUT = 1 << 5;
+    private static final int POLICY_ACKNOWLEDGED = 1 << 6;
+
+    private static final int CHILD = 1;
+    private static final int HAS_FIRST_NAME = 1 << 1;
+    private static final int HAS_LAST_NAME = 1 << 2;
+
+    private static final ReservationFlow.Step[] STEPS = ReservationFlow.Step.values();
+    private static final DietaryRequirement[] DIETARY_REQUIREMENTS = DietaryRequirement.values();
+
+    @Override
+    public byte[] encode(ReservationFlowState state) {
+        Output out = new Output();
+        out.writeByte(VERSION);
+        out.writeByte((state.getReservationId() != null ? HAS_RESERVATION_ID : 0)
+                | (state.getRoomId() != null ? HAS_ROOM : 0)
+                | (state.getCheckInDate() != null ? HAS_CHECK_IN : 0)
+                | (state.getCheckOutDate() != null ? HAS_CHECK_OUT : 0)
+                | (state.getEstimatedCheckInTime() != null ? HAS_CHECK_IN_TIME : 0)
+                | (state.isLateCheckout() ? LATE_CHECKOUT : 0)
+                | (state.isPolicyAcknowledged() ? POLICY_ACKNOWLEDGED : 0));
+        if (state.getReservationId() != null) {
+            out.writeUuid(state.getReservationId());
+        }
+        if (state.getRoomId() != null) {
+            out.writeVarLong(state.getRoomId());
+        }
+        if (state.getCheckInDate() != null) {
+            out.writeSignedVarLong(state.getCheckInDate().toEpochDay());
+        }
+        if (state.getCheckOutDate() != null) {
+            out.writeSignedVarLong(state.getCheckOutDate().toEpochDay());
+        }
+        if (state.getEstimatedCheckInTime() != null) {
+            out.writeVarLong(state.getEstimatedCheckInTime().toSecondOfDay());
+        }
+        out.writeVarLong(state.getActiveStep().ordinal());
+        out.writeVarLong(bits(state.getCompletedSteps()));
+
+        List<ReservationFlowState.GuestState> guests = state.getGuests();
+        out.writeVarLong(guests.size());
+        for (ReservationFlowState.GuestState guest : guests) {
+            out.writeByte((guest.isChild() ? CHILD : 0)
+                    | (guest.getFirstName() != null ? HAS_FIRST_NAME : 0)
+                    | (guest.getLastName() != null ? HAS_LAST_NAME : 0));
+            out.writeUuid(guest.getTempId());
+            if (guest.getFirstName() != null) {
+                out.writeString(guest.getFirstName());
+            }
+            if (guest.getLastName() != null) {
+                out.writeString(guest.getLastName());
+            }
+        }
+
+        out.writeIds(state.getGeneralExtraIds());
+
+        out.writeVarLong(state.getMealPlans().size());
+        for (ReservationFlowState.MealPlanState mealPlan : state.getMealPlans()) {
+            out.writeVarLong(guestPosition(guests, mealPlan.getGuestTempId()));
+            out.writeIds(mealPlan.getFoodExtraIds());
+            out.writeVarLong(bits(mealPlan.getDietaryRequirements()));
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public ReservationFlowState decode(byte[] bytes) throws IllegalArgumentException {
+        try {
+            Input in = new Input(bytes);
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported reservation flow version " + version);
+            }
+            int flags = in.readByte();
+            UUID reservationId = (flags & HAS_RESERVATION_ID) != 0 ? in.readUuid() : null;
+            Long roomId = (flags & HAS_ROOM) != 0 ? in.readVarLong() : null;
+            LocalDate checkIn = (flags & HAS_CHECK_IN) != 0 ? LocalDate.ofEpochDay(in.readSignedVarLong()) : null;
+            LocalDate checkOut = (flags & HAS_CHECK_OUT) != 0 ? LocalDate.ofEpochDay(in.readSignedVarLong()) : null;
+            LocalTime checkInTime = (flags & HAS_CHECK_IN_TIME) != 0
+                    ? LocalTime.ofSecondOfDay(in.readVarLong()) : null;
+            ReservationFlow.Step activeStep = STEPS[(int) in.readVarLong()];
+            Set<ReservationFlow.Step> completedSteps = EnumSet.noneOf(ReservationFlow.Step.class);
+            completedSteps.addAll(fromBits(in.readVarLong(), STEPS));
+
+            int guestCount = in.readCount();
+            List<ReservationFlowState.GuestState> guests = new ArrayList<>(guestCount);
+            for (int i = 0; i < guestCount; i++) {
+                int guestFlags = in.readByte();
+                UUID tempId = in.readUuid();
+                String firstName = (guestFlags & HAS_FIRST_NAME) != 0 ? in.readString() : null;
+                String lastName = (guestFlags & HAS_LAST_NAME) != 0 ? in.readString() : null;
+                guests.add(new ReservationFlowState.GuestState(tempId, firstName, lastName,
+                        (guestFlags & CHILD) != 0));
+            }
+
+            List<Long> generalExtraIds = in.readIds();
+
+            int mealPlanCount = in.readCount();
+            List<ReservationFlowState.MealPlanState> mealPlans = new ArrayList<>(mealPlanCount);
+            for (int i = 0; i < mealPlanCount; i++) {
+                int guestPosition = (int) in.readVarLong();
+                UUID guestTempId = guestPosition == 0 ? null : guests.get(guestPosition - 1).getTempId();
+                List<Long> foodExtraIds = in.readIds();
+                List<DietaryRequirement> dietaryRequirements = fromBits(in.readVarLong(), DIETARY_REQUIREMENTS);
+                mealPlans.add(new ReservationFlowState.MealPlanState(guestTempId, foodExtraIds,
+                        dietaryRequirements));
+            }
+            if (in.remaining() != 0) {
+                throw new IllegalArgumentException("Unexpected bytes after the reservation flow");
+            }
+
+            return new ReservationFlowState(reservationId, roomId, checkIn, checkOut, checkInTime,
+                    (flags & LATE_CHECKOUT) != 0, (flags & POLICY_ACKNOWLEDGED) != 0,
+                    guests, generalExtraIds, mealPlans, activeStep, completedSteps);
+        } catch (IndexOutOfBoundsException | DateTimeException e) {
+            throw new IllegalArgumentException("Not a reservation flow", e);
+        }
+    }
+
+    /**
+     * @return 1 based position of the guest, 0 if not found.
+     */
+    private static int guestPosition(List<ReservationFlowState.GuestState> guests, UUID tempId) {
+        for (int i = 0; i < guests.size(); i++) {
+            if (guests.get(i).getTempId().equals(tempId)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static long bits(Iterable<? extends Enum<?>> constants) {
+        long bits = 0;
+        for (Enum<?> constant : constants) {
+            bits |= 1L << constant.ordinal();
+        }
+        return bits;
+    }
+
+    /**
+     * @return The constants in ordinal order.
+     */
+    private static <E extends Enum<E>> List<E> fromBits(long bits, E[] constants) {
+        if (bits >>> constants.length != 0) {
+            throw new IllegalArgumentException("Unknown " + constants[0].getDeclaringClass().getSimpleName());
+        }
+        List<E> values = new ArrayList<>();
+        for (E constant : constants) {
+            if ((bits & 1L << constant.ordinal()) != 0) {
+                values.add(constant);
+            }
+        }
+        return values;
+    }
+
+    private static class Output {
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        private void writeByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeVarLong(long value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Cannot encode negative value " + value);
+            }
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void writeSignedVarLong(long value) {
+            writeVarLong(value << 1 ^ value >> 63);
+        }
+
+        private void writeUuid(UUID uuid) {
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeByte((int) (value >>> shift));
+            }
+        }
+
+        private void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            for (byte b : utf8) {
+                writeByte(b);
+            }
+        }
+
+        private void writeIds(List<Long> ids) {
+            writeVarLong(ids.size());
+            for (Long id : ids) {
+                writeVarLong(id);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static class Input {
+        private final byte[] bytes;
+        private int position;
+
+        private Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private int readByte() {
+            if (position >= bytes.length) {
+                throw new IndexOutOfBoundsException("Truncated reservation flow");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private long readSignedVarLong() {
+            long value = readVarLong();
+            return value >>> 1 ^ -(value & 1);
+        }
+
+        /**
+         * A count of items each taking at least 1 byte, so a corrupt count cannot allocate more than the input.
+         */
+        private int readCount() {
+            long count = readVarLong();
+            if (count > remaining()) {
+                throw new IllegalArgumentException("Count " + count + " exceeds the remaining bytes");
+            }
+            return (int) count;
+        }
+
+        private UUID readUuid() {
+            return new UUID(readLong(), readLong());
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = value << 8 | readByte();
+            }
+            return value;
+        }
+
+        private String readString() {
+            int length = readCount();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private List<Long> readIds() {
+            int count = readCount();
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(readVarLong());
+            }
+            return ids;
+        }
+
+        private int remaining() {
+            return bytes.length - position;
+        }
+    }
+}
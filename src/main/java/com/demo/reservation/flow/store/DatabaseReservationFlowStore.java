@@ -0,0 +1,102 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.TimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Keeps flows in the application database, the embedded H2 database when run locally. Every node sharing the database
+ * can continue any flow and flows survive restarts. Flows not saved within the time to live are purged once a minute
+ * and passed to the expiry listener, otherwise every abandoned flow would stay in the table. This covers flows no node
+ * is tracking any more, such as after a restart, which an {@link EvictingReservationFlowStore} cannot evict.
+ */
+public class DatabaseReservationFlowStore implements ReservationFlowStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseReservationFlowStore.class);
+    // Flows purged per query, see StoredReservationFlowRepository.
+    private static final int PURGE_BATCH_SIZE = 500;
+
+    private final StoredReservationFlowRepository repository;
+    private final TimeProvider timeProvider;
+    private final Duration timeToLive;
+    private final Consumer<byte[]> expiryListener;
+
+    /**
+     * @param timeToLive     How long a flow is kept after it was last saved.
+     * @param expiryListener Receives the state of each purged flow.
+     */
+    public DatabaseReservationFlowStore(StoredReservationFlowRepository repository, TimeProvider timeProvider,
+                                        Duration timeToLive, Consumer<byte[]> expiryListener) {
+        this.repository = repository;
+        this.timeProvider = timeProvider;
+        this.timeToLive = timeToLive;
+        this.expiryListener = expiryListener;
+    }
+
+    @Override
+    public Optional<byte[]> load(String flowId) {
+        return repository.findById(flowId).map(StoredReservationFlow::getState);
+    }
+
+    @Override
+    public void save(String flowId, byte[] state) {
+        repository.save(new StoredReservationFlow(flowId, state, timeProvider.localDateTime()));
+    }
+
+    @Override
+    public void remove(String flowId) {
+        try {
+            repository.deleteById(flowId);
+        } catch (EmptyResultDataAccessException e) {
+            // already removed, such as by a repeated cancel.
+        }
+    }
+
+    @Override
+    public Optional<byte[]> removeUnlessSavedAfter(String flowId, LocalDateTime time) {
+        Optional<StoredReservationFlow> flow = repository.findById(flowId);
+        if (flow.isEmpty() || repository.deleteUnlessSavedAfter(flowId, time) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(flow.get().getState());
+    }
+
+    /**
+     * Deletes every flow last saved before the time to live, whichever node saved it. When several nodes purge at
+     * once each flow is only deleted and passed to the expiry listener by 1 of them.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        LocalDateTime expired = timeProvider.localDateTime().minus(timeToLive);
+        int purged = 0;
+        List<StoredReservationFlow> flows;
+        do {
+            flows = repository.findTop500ByUpdatedTimeBeforeOrderByUpdatedTime(expired);
+            for (StoredReservationFlow flow : flows) {
+                if (repository.deleteUnlessSavedAfter(flow.getFlowId(), flow.getUpdatedTime()) == 1) {
+                    purged++;
+                    notifyExpired(flow.getState());
+                }
+            }
+        } while (flows.size() == PURGE_BATCH_SIZE);
+        if (purged > 0) {
+            log.debug("Purged {} expired reservation flows", purged);
+        }
+    }
+
+    private void notifyExpired(byte[] state) {
+        try {
+            expiryListener.accept(state);
+        } catch (RuntimeException e) {
+            log.warn("Failed to clean up an expired reservation flow", e);
+        }
+    }
+}
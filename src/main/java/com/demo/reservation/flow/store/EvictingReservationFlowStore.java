@@ -0,0 +1,256 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.TimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounds how many flows another {@link ReservationFlowStore} keeps and for how long, unlike the {@code HttpSession}
+ * where abandoned flows stay until the container times the session out.
+ *
+ * <p>The flows used on this node are tracked in least recently used order. Flows which have not been loaded or saved
+ * within the idle window are evicted once a minute, and saving a flow which takes this node over its count or byte
+ * budget evicts the least recently used flows until it is back within budget. Flows are evicted with
+ * {@link ReservationFlowStore#removeUnlessSavedAfter} so a flow another node has saved since is kept. Every evicted
+ * flow is passed to the eviction listener, such as to release its room hold. Flows removed by {@link #remove} are not
+ * evictions.</p>
+ */
+public class EvictingReservationFlowStore implements ReservationFlowStore {
+
+    private static final Logger log = LoggerFactory.getLogger(EvictingReservationFlowStore.class);
+    // Approximate bytes each flow uses besides its state: the map entry, flow id and byte array header.
+    static final int ENTRY_OVERHEAD_BYTES = 200;
+
+    private final ReservationFlowStore delegate;
+    private final Duration idle;
+    private final int maxFlows;
+    private final long maxBytes;
+    private final Consumer<byte[]> evictionListener;
+    private final TimeProvider timeProvider;
+
+    // Access ordered so the eldest entry is the least recently used, guarded by this.
+    private final LinkedHashMap<String, Entry> flows = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong evictedIdle = new AtomicLong();
+    private final AtomicLong evictedOverBudget = new AtomicLong();
+
+    /**
+     * @param delegate         Keeps the flows.
+     * @param idle             How long a flow is kept after it was last loaded or saved on this node.
+     * @param maxFlows         The most flows used on this node kept at once.
+     * @param maxBytes         The most memory used by those flows, including {@link #ENTRY_OVERHEAD_BYTES} per flow.
+     * @param evictionListener Receives the state of each evicted flow, called outside of any lock.
+     */
+    public EvictingReservationFlowStore(ReservationFlowStore delegate, Duration idle, int maxFlows, long maxBytes,
+                                        Consumer<byte[]> evictionListener, TimeProvider timeProvider) {
+        this.delegate = delegate;
+        this.idle = idle;
+        this.maxFlows = maxFlows;
+        this.maxBytes = maxBytes;
+        this.evictionListener = evictionListener;
+        this.timeProvider = timeProvider;
+    }
+
+    @Override
+    public Optional<byte[]> load(String flowId) {
+        Optional<byte[]> state = delegate.load(flowId);
+        synchronized (this) {
+            if (state.isPresent()) {
+                track(flowId, state.get(), timeProvider.localDateTime());
+            } else {
+                untrack(flowId);
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public void save(String flowId, byte[] state) {
+        delegate.save(flowId, state);
+        List<Evicted> overBudget = new ArrayList<>();
+        synchronized (this) {
+            track(flowId, state, timeProvider.localDateTime());
+
+            Iterator<Map.Entry<String, Entry>> leastRecentlyUsed = flows.entrySet().iterator();
+            while ((flows.size() > maxFlows || bytes > maxBytes) && leastRecentlyUsed.hasNext()) {
+                Map.Entry<String, Entry> eldest = leastRecentlyUsed.next();
+                // the flow just saved is kept even if it alone is over budget.
+                if (eldest.getKey().equals(flowId)) {
+                    break;
+                }
+                leastRecentlyUsed.remove();
+                bytes -= eldest.getValue().size;
+                overBudget.add(new Evicted(eldest.getKey(), eldest.getValue().lastAccess));
+            }
+        }
+        evictedOverBudget.addAndGet(evict(overBudget));
+    }
+
+    @Override
+    public void remove(String flowId) {
+        delegate.remove(flowId);
+        synchronized (this) {
+            untrack(flowId);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> removeUnlessSavedAfter(String flowId, LocalDateTime time) {
+        Optional<byte[]> state = delegate.removeUnlessSavedAfter(flowId, time);
+        synchronized (this) {
+            untrack(flowId);
+        }
+        return state;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        evictIdle(timeProvider.localDateTime());
+    }
+
+    /**
+     * Evicts every flow last used on this node before the idle window ending at {@code now}.
+     */
+    public void evictIdle(LocalDateTime now) {
+        LocalDateTime idleSince = now.minus(idle);
+        List<Evicted> idleFlows = new ArrayList<>();
+        synchronized (this) {
+            // Loads do not move an entry past one used later, so the idle flows are all at the start.
+            Iterator<Map.Entry<String, Entry>> leastRecentlyUsed = flows.entrySet().iterator();
+            while (leastRecentlyUsed.hasNext()) {
+                Map.Entry<String, Entry> eldest = leastRecentlyUsed.next();
+                if (eldest.getValue().lastAccess.isAfter(idleSince)) {
+                    break;
+                }
+                leastRecentlyUsed.remove();
+                bytes -= eldest.getValue().size;
+                idleFlows.add(new Evicted(eldest.getKey(), eldest.getValue().lastAccess));
+            }
+        }
+        long evicted = evict(idleFlows);
+        evictedIdle.addAndGet(evicted);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle reservation flows", evicted);
+        }
+    }
+
+    /**
+     * @return The flows tracked on this node and how many have been evicted since the application started.
+     */
+    public synchronized FlowStats flowStats() {
+        return new FlowStats(flows.size(), bytes, evictedIdle.get(), evictedOverBudget.get());
+    }
+
+    /**
+     * @return The number of flows removed from the delegate, which excludes flows saved since by another node.
+     */
+    private long evict(List<Evicted> candidates) {
+        long evicted = 0;
+        for (Evicted candidate : candidates) {
+            try {
+                Optional<byte[]> state = delegate.removeUnlessSavedAfter(candidate.flowId, candidate.lastAccess);
+                if (state.isPresent()) {
+                    evicted++;
+                    evictionListener.accept(state.get());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to clean up an evicted reservation flow", e);
+            }
+        }
+        return evicted;
+    }
+
+    private void track(String flowId, byte[] state, LocalDateTime time) {
+        Entry previous = flows.put(flowId, new Entry(state.length + ENTRY_OVERHEAD_BYTES, time));
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += state.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private void untrack(String flowId) {
+        Entry entry = flows.remove(flowId);
+        if (entry != null) {
+            bytes -= entry.size;
+        }
+    }
+
+    private static class Entry {
+        private final long size;
+        private final LocalDateTime lastAccess;
+
+        private Entry(long size, LocalDateTime lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static class Evicted {
+        private final String flowId;
+        private final LocalDateTime lastAccess;
+
+        private Evicted(String flowId, LocalDateTime lastAccess) {
+            this.flowId = flowId;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    public static class FlowStats {
+        private final int liveFlows;
+        private final long liveBytes;
+        private final long evictedIdle;
+        private final long evictedOverBudget;
+
+        public FlowStats(int liveFlows, long liveBytes, long evictedIdle, long evictedOverBudget) {
+            this.liveFlows = liveFlows;
+            this.liveBytes = liveBytes;
+            this.evictedIdle = evictedIdle;
+            this.evictedOverBudget = evictedOverBudget;
+        }
+
+        /**
+         * @return Flows loaded or saved on this node and not yet evicted or removed.
+         */
+        public int getLiveFlows() {
+            return liveFlows;
+        }
+
+        /**
+         * @return The approximate memory used by the live flows.
+         */
+        public long getLiveBytes() {
+            return liveBytes;
+        }
+
+        public long getEvictedIdle() {
+            return evictedIdle;
+        }
+
+        public long getEvictedOverBudget() {
+            return evictedOverBudget;
+        }
+
+        @Override
+        public String toString() {
+            return "FlowStats{" +
+                    "liveFlows=" + liveFlows +
+                    ", liveBytes=" + liveBytes +
+                    ", evictedIdle=" + evictedIdle +
+                    ", evictedOverBudget=" + evictedOverBudget +
+                    '}';
+        }
+    }
+}
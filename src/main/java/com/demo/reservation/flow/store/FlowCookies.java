@@ -0,0 +1,68 @@
+package com.demo.reservation.flow.store;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reads and writes the HttpOnly cookie a {@link ReservationFlowCarrier} keeps its flow or flow id in.
+ */
+final class FlowCookies {
+
+    static final String COOKIE_NAME = "RESERVATION_FLOW";
+
+    private final boolean secure;
+
+    /**
+     * @param secure {@code true} to always mark the cookie Secure so it is only sent back over HTTPS, such as when
+     *               TLS ends at a proxy and the application only sees plain HTTP requests. Otherwise it is only
+     *               marked Secure when set by a secure request.
+     */
+    FlowCookies(boolean secure) {
+        this.secure = secure;
+    }
+
+    /**
+     * @return The cookie value or {@code null} if the request has none.
+     */
+    static String read(WebRequest request) {
+        HttpServletRequest servletRequest = nativeRequest(request, HttpServletRequest.class);
+        Cookie cookie = servletRequest == null ? null : WebUtils.getCookie(servletRequest, COOKIE_NAME);
+        return cookie == null ? null : cookie.getValue();
+    }
+
+    /**
+     * Sets the cookie for the rest of the browser session.
+     */
+    void write(WebRequest request, String value) {
+        addCookie(request, value, -1);
+    }
+
+    void clear(WebRequest request) {
+        addCookie(request, "", 0);
+    }
+
+    private void addCookie(WebRequest request, String value, int maxAge) {
+        HttpServletRequest servletRequest = nativeRequest(request, HttpServletRequest.class);
+        HttpServletResponse response = request instanceof NativeWebRequest
+                ? ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class) : null;
+        if (response == null) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        cookie.setPath(servletRequest == null || servletRequest.getContextPath().isEmpty()
+                ? "/" : servletRequest.getContextPath());
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secure || servletRequest != null && servletRequest.isSecure());
+        cookie.setMaxAge(maxAge);
+        response.addCookie(cookie);
+    }
+
+    private static <T> T nativeRequest(WebRequest request, Class<T> type) {
+        return request instanceof NativeWebRequest ? ((NativeWebRequest) request).getNativeRequest(type) : null;
+    }
+}
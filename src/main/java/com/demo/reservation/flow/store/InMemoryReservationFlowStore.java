@@ -0,0 +1,35 @@
+package com.demo.reservation.flow.store;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps flows in memory on this node, so a flow can only be continued on the node it started on. Only used wrapped in
+ * an {@link EvictingReservationFlowStore}, which bounds how many flows are kept and for how long.
+ */
+public class InMemoryReservationFlowStore implements ReservationFlowStore {
+
+    private final Map<String, byte[]> flows = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<byte[]> load(String flowId) {
+        return Optional.ofNullable(flows.get(flowId));
+    }
+
+    @Override
+    public void save(String flowId, byte[] state) {
+        flows.put(flowId, state);
+    }
+
+    @Override
+    public void remove(String flowId) {
+        flows.remove(flowId);
+    }
+
+    @Override
+    public Optional<byte[]> removeUnlessSavedAfter(String flowId, LocalDateTime time) {
+        return Optional.ofNullable(flows.remove(flowId));
+    }
+}
@@ -0,0 +1,34 @@
+package com.demo.reservation.flow.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class JsonReservationFlowCodec implements ReservationFlowCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonReservationFlowCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(ReservationFlowState state) {
+        try {
+            return objectMapper.writeValueAsBytes(state);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ReservationFlowState decode(byte[] bytes) throws IllegalArgumentException {
+        try {
+            return objectMapper.readValue(bytes, ReservationFlowState.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a reservation flow", e);
+        }
+    }
+}
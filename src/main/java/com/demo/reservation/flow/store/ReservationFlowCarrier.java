@@ -0,0 +1,23 @@
+package com.demo.reservation.flow.store;
+
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+
+/**
+ * Carries an encoded reservation flow from 1 request to the next for {@link ReservationFlowSessionAttributeStore}.
+ */
+public interface ReservationFlowCarrier {
+
+    /**
+     * @return The flow sent with the request, empty if the request has not started a flow or it is no longer valid.
+     */
+    Optional<byte[]> read(WebRequest request);
+
+    /**
+     * Adds or replaces the request's flow.
+     */
+    void write(WebRequest request, byte[] flow);
+
+    void clear(WebRequest request);
+}
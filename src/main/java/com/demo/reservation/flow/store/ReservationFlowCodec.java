@@ -0,0 +1,14 @@
+package com.demo.reservation.flow.store;
+
+/**
+ * Converts a {@link ReservationFlowState} to and from the bytes carried by a {@link ReservationFlowCarrier}.
+ */
+public interface ReservationFlowCodec {
+
+    byte[] encode(ReservationFlowState state);
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a flow written by this codec.
+     */
+    ReservationFlowState decode(byte[] bytes) throws IllegalArgumentException;
+}
@@ -0,0 +1,82 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.domain.Extra;
+import com.demo.domain.Room;
+import com.demo.reservation.flow.forms.ReservationFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.support.DefaultSessionAttributeStore;
+import org.springframework.web.bind.support.SessionAttributeStore;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Replaces the {@code HttpSession} as the home of the {@code reservationFlow} session attribute of
+ * {@code ReservationController}. Only a {@link ReservationFlowState} is kept, carried between requests by a
+ * {@link ReservationFlowCarrier}. Each request rebuilds the {@code ReservationFlow} from it so no entities stay in
+ * memory between requests and any node can serve any step. Other session attributes are kept in the
+ * {@code HttpSession} as usual.
+ */
+public class ReservationFlowSessionAttributeStore implements SessionAttributeStore {
+
+    public static final String ATTRIBUTE_NAME = "reservationFlow";
+    public static final String COOKIE_NAME = FlowCookies.COOKIE_NAME;
+    private static final Logger log = LoggerFactory.getLogger(ReservationFlowSessionAttributeStore.class);
+
+    private final SessionAttributeStore sessionStore = new DefaultSessionAttributeStore();
+    private final ReservationFlowCarrier carrier;
+    private final ReservationFlowCodec codec;
+    private final Function<Long, Optional<Room>> rooms;
+    private final Function<Long, Optional<Extra>> extras;
+
+    /**
+     * @param rooms  Finds a room by id.
+     * @param extras Finds an extra by id.
+     */
+    public ReservationFlowSessionAttributeStore(ReservationFlowCarrier carrier, ReservationFlowCodec codec,
+                                                Function<Long, Optional<Room>> rooms,
+                                                Function<Long, Optional<Extra>> extras) {
+        this.carrier = carrier;
+        this.codec = codec;
+        this.rooms = rooms;
+        this.extras = extras;
+    }
+
+    @Override
+    public void storeAttribute(WebRequest request, String attributeName, Object attributeValue) {
+        if (!ATTRIBUTE_NAME.equals(attributeName)) {
+            sessionStore.storeAttribute(request, attributeName, attributeValue);
+            return;
+        }
+        carrier.write(request, codec.encode(ReservationFlowState.of((ReservationFlow) attributeValue)));
+    }
+
+    @Override
+    public Object retrieveAttribute(WebRequest request, String attributeName) {
+        if (!ATTRIBUTE_NAME.equals(attributeName)) {
+            return sessionStore.retrieveAttribute(request, attributeName);
+        }
+        Optional<byte[]> bytes = carrier.read(request);
+        if (!bytes.isPresent()) {
+            return null;
+        }
+        try {
+            return codec.decode(bytes.get()).restore(rooms, extras).orElse(null);
+        } catch (IllegalArgumentException e) {
+            // Such as a flow written by an older version, the user starts again.
+            log.warn("Discarding a reservation flow which cannot be read: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void cleanupAttribute(WebRequest request, String attributeName) {
+        if (!ATTRIBUTE_NAME.equals(attributeName)) {
+            sessionStore.cleanupAttribute(request, attributeName);
+            return;
+        }
+        carrier.clear(request);
+    }
+}
@@ -0,0 +1,281 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.domain.DietaryRequirement;
+import com.demo.domain.Extra;
+import com.demo.domain.Guest;
+import com.demo.domain.MealPlan;
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.reservation.flow.forms.ReservationFlow;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The part of a {@code ReservationFlow} that cannot be looked up again, what the user entered and the ids of the room
+ * and extras they chose. Small enough to keep outside the server and rebuilt into a {@code ReservationFlow} on every
+ * request against the room repository and the cached extras catalogue.
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY,
+        getterVisibility = JsonAutoDetect.Visibility.NONE,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+public class ReservationFlowState {
+    private UUID reservationId;
+    private Long roomId;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private LocalTime estimatedCheckInTime;
+    private boolean lateCheckout;
+    private boolean policyAcknowledged;
+    private List<GuestState> guests = new ArrayList<>();
+    private List<Long> generalExtraIds = new ArrayList<>();
+    private List<MealPlanState> mealPlans = new ArrayList<>();
+    private ReservationFlow.Step activeStep = ReservationFlow.Step.Dates;
+    private Set<ReservationFlow.Step> completedSteps = EnumSet.noneOf(ReservationFlow.Step.class);
+
+    public ReservationFlowState(UUID reservationId, Long roomId, LocalDate checkInDate, LocalDate checkOutDate,
+                                LocalTime estimatedCheckInTime, boolean lateCheckout, boolean policyAcknowledged,
+                                List<GuestState> guests, List<Long> generalExtraIds, List<MealPlanState> mealPlans,
+                                ReservationFlow.Step activeStep, Set<ReservationFlow.Step> completedSteps) {
+        this.reservationId = reservationId;
+        this.roomId = roomId;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.estimatedCheckInTime = estimatedCheckInTime;
+        this.lateCheckout = lateCheckout;
+        this.policyAcknowledged = policyAcknowledged;
+        this.guests = guests;
+        this.generalExtraIds = generalExtraIds;
+        this.mealPlans = mealPlans;
+        this.activeStep = activeStep;
+        this.completedSteps = completedSteps;
+    }
+
+    // Jackson
+    private ReservationFlowState() {
+    }
+
+    public static ReservationFlowState of(ReservationFlow reservationFlow) {
+        Reservation reservation = reservationFlow.getReservation();
+        ReservationDates dates = reservation.getDates();
+
+        List<GuestState> guests = new ArrayList<>();
+        for (Guest guest : reservation.getGuests()) {
+            guests.add(new GuestState(guest.getTempId(), guest.getFirstName(), guest.getLastName(), guest.isChild()));
+        }
+        List<Long> generalExtraIds = new ArrayList<>();
+        for (Extra extra : reservation.getGeneralExtras()) {
+            if (extra.getId() != null) {
+                generalExtraIds.add(extra.getId());
+            }
+        }
+        List<MealPlanState> mealPlans = new ArrayList<>();
+        for (MealPlan mealPlan : reservation.getMealPlans()) {
+            List<Long> foodExtraIds = new ArrayList<>();
+            if (mealPlan.getFoodExtras() != null) {
+                for (Extra extra : mealPlan.getFoodExtras()) {
+                    if (extra.getId() != null) {
+                        foodExtraIds.add(extra.getId());
+                    }
+                }
+            }
+            List<DietaryRequirement> dietaryRequirements = mealPlan.getDietaryRequirements() == null
+                    ? new ArrayList<>() : new ArrayList<>(mealPlan.getDietaryRequirements());
+            mealPlans.add(new MealPlanState(mealPlan.getGuest().getTempId(), foodExtraIds, dietaryRequirements));
+        }
+        Set<ReservationFlow.Step> completedSteps = EnumSet.noneOf(ReservationFlow.Step.class);
+        completedSteps.addAll(reservationFlow.getCompletedSteps());
+
+        return new ReservationFlowState(reservation.getReservationId(),
+                reservation.getRoom() == null ? null : reservation.getRoom().getId(),
+                dates.getCheckInDate(), dates.getCheckOutDate(), dates.getEstimatedCheckInTime(),
+                dates.isLateCheckout(), dates.isPolicyAcknowledged(),
+                guests, generalExtraIds, mealPlans, reservationFlow.getActiveStep(), completedSteps);
+    }
+
+    /**
+     * Rebuilds the {@code ReservationFlow}. Extras no longer in the catalogue are dropped.
+     *
+     * @param rooms  Finds a room by id.
+     * @param extras Finds an extra by id.
+     * @return Empty if the room no longer exists.
+     */
+    public Optional<ReservationFlow> restore(Function<Long, Optional<Room>> rooms,
+                                             Function<Long, Optional<Extra>> extras) {
+        Reservation reservation = new Reservation(reservationId);
+        if (roomId != null) {
+            Optional<Room> room = rooms.apply(roomId);
+            if (!room.isPresent()) {
+                return Optional.empty();
+            }
+            reservation.setRoom(room.get());
+        }
+        reservation.setDates(new ReservationDates(checkInDate, checkOutDate, estimatedCheckInTime, lateCheckout,
+                policyAcknowledged));
+
+        Map<UUID, Guest> guestsByTempId = new HashMap<>();
+        for (GuestState state : guests) {
+            Guest guest = new Guest(state.tempId, state.firstName, state.lastName, state.child);
+            guestsByTempId.put(state.tempId, guest);
+            if (reservation.getRoom() != null) {
+                reservation.addGuest(guest);
+            }
+        }
+
+        Set<Extra> generalExtras = new HashSet<>();
+        for (Long id : generalExtraIds) {
+            extras.apply(id).filter(extra -> extra.getCategory() == Extra.Category.General)
+                    .ifPresent(generalExtras::add);
+        }
+        reservation.setGeneralExtras(generalExtras);
+
+        List<MealPlan> restoredMealPlans = new ArrayList<>();
+        for (MealPlanState state : mealPlans) {
+            Guest guest = guestsByTempId.get(state.guestTempId);
+            if (guest == null) {
+                continue;
+            }
+            List<Extra> foodExtras = new ArrayList<>();
+            for (Long id : state.foodExtraIds) {
+                extras.apply(id).filter(extra -> extra.getCategory() == Extra.Category.Food)
+                        .ifPresent(foodExtras::add);
+            }
+            restoredMealPlans.add(new MealPlan(guest, reservation, foodExtras,
+                    new ArrayList<>(state.dietaryRequirements)));
+        }
+        reservation.setMealPlans(restoredMealPlans);
+
+        ReservationFlow reservationFlow = new ReservationFlow();
+        reservationFlow.setReservation(reservation);
+        reservationFlow.setActive(activeStep);
+        completedSteps.forEach(reservationFlow::completeStep);
+        return Optional.of(reservationFlow);
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public LocalDate getCheckInDate() {
+        return checkInDate;
+    }
+
+    public LocalDate getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    public LocalTime getEstimatedCheckInTime() {
+        return estimatedCheckInTime;
+    }
+
+    public boolean isLateCheckout() {
+        return lateCheckout;
+    }
+
+    public boolean isPolicyAcknowledged() {
+        return policyAcknowledged;
+    }
+
+    public List<GuestState> getGuests() {
+        return guests;
+    }
+
+    public List<Long> getGeneralExtraIds() {
+        return generalExtraIds;
+    }
+
+    public List<MealPlanState> getMealPlans() {
+        return mealPlans;
+    }
+
+    public ReservationFlow.Step getActiveStep() {
+        return activeStep;
+    }
+
+    public Set<ReservationFlow.Step> getCompletedSteps() {
+        return completedSteps;
+    }
+
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY,
+            getterVisibility = JsonAutoDetect.Visibility.NONE,
+            isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+    public static class GuestState {
+        private UUID tempId;
+        private String firstName;
+        private String lastName;
+        private boolean child;
+
+        public GuestState(UUID tempId, String firstName, String lastName, boolean child) {
+            this.tempId = tempId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.child = child;
+        }
+
+        private GuestState() {
+        }
+
+        public UUID getTempId() {
+            return tempId;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public boolean isChild() {
+            return child;
+        }
+    }
+
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY,
+            getterVisibility = JsonAutoDetect.Visibility.NONE,
+            isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+    public static class MealPlanState {
+        private UUID guestTempId;
+        private List<Long> foodExtraIds = new ArrayList<>();
+        private List<DietaryRequirement> dietaryRequirements = new ArrayList<>();
+
+        public MealPlanState(UUID guestTempId, List<Long> foodExtraIds,
+                             List<DietaryRequirement> dietaryRequirements) {
+            this.guestTempId = guestTempId;
+            this.foodExtraIds = foodExtraIds;
+            this.dietaryRequirements = dietaryRequirements;
+        }
+
+        private MealPlanState() {
+        }
+
+        public UUID getGuestTempId() {
+            return guestTempId;
+        }
+
+        public List<Long> getFoodExtraIds() {
+            return foodExtraIds;
+        }
+
+        public List<DietaryRequirement> getDietaryRequirements() {
+            return dietaryRequirements;
+        }
+    }
+}
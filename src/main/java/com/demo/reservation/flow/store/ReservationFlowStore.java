@@ -0,0 +1,32 @@
+package com.demo.reservation.flow.store;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps encoded reservation flows outside the server so any node can continue a flow, see
+ * {@link StoredReservationFlowCarrier}.
+ */
+public interface ReservationFlowStore {
+
+    Optional<byte[]> load(String flowId);
+
+    /**
+     * Adds or replaces the flow.
+     */
+    void save(String flowId, byte[] state);
+
+    void remove(String flowId);
+
+    /**
+     * Removes the flow unless it was saved after {@code time}, such as by another node still using it. Stores only
+     * used by this node can ignore the time.
+     *
+     * @return The state of the removed flow, empty if it was kept or there was none.
+     */
+    default Optional<byte[]> removeUnlessSavedAfter(String flowId, LocalDateTime time) {
+        Optional<byte[]> state = load(flowId);
+        remove(flowId);
+        return state;
+    }
+}
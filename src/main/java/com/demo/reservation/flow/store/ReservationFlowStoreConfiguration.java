@@ -0,0 +1,147 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.TimeProvider;
+import com.demo.persistance.RoomRepository;
+import com.demo.reservation.ExtrasService;
+import com.demo.reservation.inventory.RoomHolds;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keeps reservation flows out of the {@code HttpSession}, see {@link ReservationFlowSessionAttributeStore}. With
+ * {@code reservation.flow.store=database} flows are kept in the database, with {@code memory} they are kept on this
+ * node, both within an idle window and memory budget. With {@code token} they are sent to the browser in a signed
+ * cookie. Otherwise Spring's default session attribute store is used.
+ */
+@Configuration
+@ConditionalOnExpression("'${reservation.flow.store:session}' matches 'database|memory|token'")
+public class ReservationFlowStoreConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationFlowStoreConfiguration.class);
+
+    /**
+     * Expired flows release their room hold straight away rather than leaving the room unavailable until it expires.
+     *
+     * @param timeToLive Minutes a flow is kept after it was last saved, by any node.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "reservation.flow.store", havingValue = "database")
+    public DatabaseReservationFlowStore databaseReservationFlowStore(
+            StoredReservationFlowRepository repository, TimeProvider timeProvider,
+            ReservationFlowCodec codec, RoomHolds roomHolds,
+            @Value("${reservation.flow.database.ttl-minutes:60}") long timeToLive) {
+        return new DatabaseReservationFlowStore(repository, timeProvider, Duration.ofMinutes(timeToLive),
+                releaseHold(codec, roomHolds));
+    }
+
+    /**
+     * Bounds the flows of both the {@code database} and {@code memory} stores. Evicted flows release their room hold
+     * straight away rather than leaving the room unavailable until it expires.
+     *
+     * @param idle         Minutes a flow is kept after it was last used on this node.
+     * @param maxFlows     The most flows used on this node kept at once.
+     * @param maxMegabytes The most memory used by those flows.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnExpression("'${reservation.flow.store}' matches 'database|memory'")
+    public EvictingReservationFlowStore reservationFlowStore(
+            ObjectProvider<DatabaseReservationFlowStore> databaseStore,
+            ReservationFlowCodec codec, RoomHolds roomHolds, TimeProvider timeProvider,
+            @Value("${reservation.flow.idle-minutes:30}") long idle,
+            @Value("${reservation.flow.max-flows:50000}") int maxFlows,
+            @Value("${reservation.flow.max-megabytes:64}") long maxMegabytes) {
+        ReservationFlowStore store = databaseStore.getIfAvailable(InMemoryReservationFlowStore::new);
+        return new EvictingReservationFlowStore(store, Duration.ofMinutes(idle), maxFlows,
+                maxMegabytes * 1024 * 1024, releaseHold(codec, roomHolds), timeProvider);
+    }
+
+    private static Consumer<byte[]> releaseHold(ReservationFlowCodec codec, RoomHolds roomHolds) {
+        return state -> {
+            UUID reservationId = codec.decode(state).getReservationId();
+            if (reservationId != null) {
+                roomHolds.release(reservationId);
+            }
+        };
+    }
+
+    /**
+     * @param codec {@code json} for readable stored flows while debugging, otherwise the compact binary encoding.
+     */
+    @Bean
+    public ReservationFlowCodec reservationFlowCodec(@Value("${reservation.flow.codec:binary}") String codec,
+                                                     ObjectMapper objectMapper) {
+        if (codec.equals("json")) {
+            return new JsonReservationFlowCodec(objectMapper);
+        }
+        return new BinaryReservationFlowCodec();
+    }
+
+    /**
+     * @param secret     Signs flow tokens, a random secret is used when blank which only suits a single node.
+     * @param timeToLive Minutes a flow token is accepted for.
+     * @param secure     Always marks the flow cookie Secure, turn off only to serve flows over plain HTTP.
+     */
+    @Bean
+    public ReservationFlowCarrier reservationFlowCarrier(@Value("${reservation.flow.store}") String store,
+                                                         ObjectProvider<ReservationFlowStore> flowStore,
+                                                         @Value("${reservation.flow.token.secret:}") String secret,
+                                                         @Value("${reservation.flow.token.ttl-minutes:60}")
+                                                                 long timeToLive,
+                                                         @Value("${reservation.flow.cookie.secure:true}")
+                                                                 boolean secure) {
+        if (!store.equals("token")) {
+            return new StoredReservationFlowCarrier(flowStore.getObject(), secure);
+        }
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (secret.isBlank()) {
+            log.warn("No reservation.flow.token.secret set, flows cannot be continued on other nodes "
+                    + "or after a restart");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+        return new SignedTokenReservationFlowCarrier(key, timeToLive, System::currentTimeMillis, secure);
+    }
+
+    @Bean
+    public ReservationFlowSessionAttributeStore reservationFlowSessionAttributeStore(ReservationFlowCarrier carrier,
+                                                                                     ReservationFlowCodec codec,
+                                                                                     RoomRepository roomRepository,
+                                                                                     ExtrasService extrasService) {
+        return new ReservationFlowSessionAttributeStore(carrier, codec, roomRepository::findById,
+                extrasService::getExtra);
+    }
+
+    /**
+     * Static and lazy so the handler adapter is not created before the repositories it ends up using.
+     */
+    @Bean
+    public static BeanPostProcessor reservationFlowSessionAttributeStoreInstaller(
+            ObjectProvider<ReservationFlowSessionAttributeStore> sessionAttributeStore) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RequestMappingHandlerAdapter) {
+                    ((RequestMappingHandlerAdapter) bean).setSessionAttributeStore(sessionAttributeStore.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
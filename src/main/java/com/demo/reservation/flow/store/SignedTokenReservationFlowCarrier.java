@@ -0,0 +1,191 @@
+package com.demo.reservation.flow.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Sends the whole encoded flow to the browser in a signed cookie rather than keeping anything on the server, so a
+ * flow uses no server memory or storage between requests. The flow is rebuilt from the token on each request against
+ * the cached rooms and extras.
+ *
+ * <p>A token is {@code payload.signature}, both URL safe base 64. The payload is a format byte, the time the token
+ * was issued and the flow, deflated when that makes it smaller. The signature is an HMAC-SHA256 of the payload so
+ * the browser cannot change the room, dates or prices it is shown. Tokens older than the time to live are ignored
+ * and the user starts again.</p>
+ */
+public class SignedTokenReservationFlowCarrier implements ReservationFlowCarrier {
+
+    private static final Logger log = LoggerFactory.getLogger(SignedTokenReservationFlowCarrier.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    private static final int HEADER_LENGTH = 1 + Long.BYTES;
+    // Browsers only have to keep cookies up to 4096 bytes including the name and attributes.
+    private static final int MAX_TOKEN_LENGTH = 3800;
+    private static final int MAX_FLOW_LENGTH = 64 * 1024;
+
+    private final SecretKeySpec key;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final FlowCookies cookies;
+
+    /**
+     * @param secret       The signing key, every node serving flows must have the same key.
+     * @param timeToLive   How long in minutes a token is accepted after it was issued.
+     * @param clock        The current time in milliseconds.
+     * @param secureCookie {@code true} to always mark the token cookie Secure, otherwise only when it is set by a
+     *                     secure request.
+     */
+    public SignedTokenReservationFlowCarrier(byte[] secret, long timeToLive, LongSupplier clock,
+                                             boolean secureCookie) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("The reservation flow token secret must be at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.timeToLiveMillis = TimeUnit.MINUTES.toMillis(timeToLive);
+        this.clock = clock;
+        this.cookies = new FlowCookies(secureCookie);
+    }
+
+    @Override
+    public Optional<byte[]> read(WebRequest request) {
+        String token = FlowCookies.read(request);
+        return token == null || token.isEmpty() ? Optional.empty() : verify(token);
+    }
+
+    @Override
+    public void write(WebRequest request, byte[] flow) {
+        String token = issue(flow);
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            log.warn("Reservation flow token of {} characters may be dropped by the browser", token.length());
+        }
+        cookies.write(request, token);
+    }
+
+    @Override
+    public void clear(WebRequest request) {
+        if (FlowCookies.read(request) != null) {
+            cookies.clear(request);
+        }
+    }
+
+    String issue(byte[] flow) {
+        byte[] deflated = deflate(flow);
+        boolean compress = deflated.length < flow.length;
+        byte[] body = compress ? deflated : flow;
+
+        ByteBuffer payload = ByteBuffer.allocate(HEADER_LENGTH + body.length);
+        payload.put(compress ? DEFLATED : RAW);
+        payload.putLong(clock.getAsLong());
+        payload.put(body);
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload.array()) + "." + encoder.encodeToString(sign(payload.array()));
+    }
+
+    /**
+     * @return The flow of a token this carrier issued within the time to live, empty for any other value.
+     */
+    Optional<byte[]> verify(String token) {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return Optional.empty();
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(0, separator));
+            signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // constant time comparison so the signature cannot be guessed a byte at a time.
+        if (payload.length < HEADER_LENGTH || !MessageDigest.isEqual(sign(payload), signature)) {
+            log.warn("Ignoring a reservation flow token with an invalid signature");
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte format = buffer.get();
+        long issued = buffer.getLong();
+        long age = clock.getAsLong() - issued;
+        if (age < 0 || age > timeToLiveMillis) {
+            return Optional.empty();
+        }
+        byte[] body = Arrays.copyOfRange(payload, HEADER_LENGTH, payload.length);
+        if (format == RAW) {
+            return Optional.of(body);
+        }
+        return format == DEFLATED ? inflate(body) : Optional.empty();
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            // Mac instances are not thread safe and cheap to create from a key.
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign reservation flow tokens", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return The inflated bytes, empty if they are not valid or larger than any flow.
+     */
+    private static Optional<byte[]> inflate(byte[] bytes) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 2);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return Optional.empty();
+                }
+                out.write(buffer, 0, count);
+                if (out.size() > MAX_FLOW_LENGTH) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(out.toByteArray());
+        } catch (DataFormatException e) {
+            return Optional.empty();
+        } finally {
+            inflater.end();
+        }
+    }
+}
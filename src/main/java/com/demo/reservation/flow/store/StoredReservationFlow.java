@@ -0,0 +1,49 @@
+package com.demo.reservation.flow.store;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A reservation flow kept in the database by {@link DatabaseReservationFlowStore}. Indexed by the time it was last
+ * saved so expired flows are purged without scanning the table.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_stored_reservation_flow_updated_time", columnList = "updated_time"))
+public class StoredReservationFlow {
+    @Id
+    @Column(length = 36)
+    private String flowId;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] state;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedTime;
+
+    public StoredReservationFlow(String flowId, byte[] state, LocalDateTime updatedTime) {
+        this.flowId = flowId;
+        this.state = state;
+        this.updatedTime = updatedTime;
+    }
+
+    public StoredReservationFlow() {
+    }
+
+    public String getFlowId() {
+        return flowId;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+    public LocalDateTime getUpdatedTime() {
+        return updatedTime;
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.reservation.flow.store;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps flows in a {@link ReservationFlowStore} under a random flow id held in a cookie.
+ */
+public class StoredReservationFlowCarrier implements ReservationFlowCarrier {
+
+    // Remembers a flow id created earlier in the same request before the browser has the cookie.
+    private static final String FLOW_ID_REQUEST_ATTRIBUTE = StoredReservationFlowCarrier.class.getName() + ".flowId";
+
+    private final ReservationFlowStore store;
+    private final FlowCookies cookies;
+
+    /**
+     * @param secureCookie {@code true} to always mark the flow id cookie Secure, otherwise only when it is set by a
+     *                     secure request.
+     */
+    public StoredReservationFlowCarrier(ReservationFlowStore store, boolean secureCookie) {
+        this.store = store;
+        this.cookies = new FlowCookies(secureCookie);
+    }
+
+    @Override
+    public Optional<byte[]> read(WebRequest request) {
+        String flowId = flowId(request);
+        return flowId == null ? Optional.empty() : store.load(flowId);
+    }
+
+    @Override
+    public void write(WebRequest request, byte[] flow) {
+        String flowId = flowId(request);
+        if (flowId == null) {
+            flowId = UUID.randomUUID().toString();
+            request.setAttribute(FLOW_ID_REQUEST_ATTRIBUTE, flowId, RequestAttributes.SCOPE_REQUEST);
+            cookies.write(request, flowId);
+        }
+        store.save(flowId, flow);
+    }
+
+    @Override
+    public void clear(WebRequest request) {
+        String flowId = flowId(request);
+        if (flowId != null) {
+            store.remove(flowId);
+            request.removeAttribute(FLOW_ID_REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            cookies.clear(request);
+        }
+    }
+
+    /**
+     * @return The flow id of the request or {@code null} if it has not started a flow.
+     */
+    private String flowId(WebRequest request) {
+        Object created = request.getAttribute(FLOW_ID_REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (created != null) {
+            return (String) created;
+        }
+        String cookie = FlowCookies.read(request);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            // Only ids this class created are looked up.
+            return UUID.fromString(cookie).toString();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.demo.reservation.flow.store;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StoredReservationFlowRepository extends CrudRepository<StoredReservationFlow, String> {
+
+    /**
+     * @return The oldest flows last saved before {@code time}, at most 500 at a time.
+     */
+    List<StoredReservationFlow> findTop500ByUpdatedTimeBeforeOrderByUpdatedTime(LocalDateTime time);
+
+    /**
+     * Deletes in a single statement rather than loading the flow first, so a flow saved by another node in the
+     * meantime is kept. Clears the persistence context of a surrounding transaction so it cannot return the flow.
+     *
+     * @return 1 if the flow was deleted, otherwise 0.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from StoredReservationFlow f where f.flowId = :flowId and f.updatedTime <= :time")
+    int deleteUnlessSavedAfter(@Param("flowId") String flowId, @Param("time") LocalDateTime time);
+}
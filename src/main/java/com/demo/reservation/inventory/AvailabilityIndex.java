@@ -0,0 +1,177 @@
+package com.demo.reservation.inventory;
+
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory per night inventory of every {@code Room}. The {@code Reservation} table remains the source of truth,
+ * this index is loaded from it at startup by {@link AvailabilityIndexLoader} and then kept up to date as each new
+ * {@code Reservation} is booked. Rooms saved or deleted after startup are registered or removed by
+ * {@code HotelIndexLoader}.
+ *
+ * <p>Rooms that have never been registered or booked are always considered free.</p>
+ */
+@Component
+public class AvailabilityIndex {
+
+    private final Map<Long, IndexedRoom> rooms = new ConcurrentHashMap<>();
+
+    // hotel id -> room ids, allows finding all rooms in a hotel without touching the database.
+    private final Map<Long, Set<Long>> hotelRooms = new ConcurrentHashMap<>();
+
+    /**
+     * Makes the {@code Room} known to the index or updates its beds, cost and hotel, keeping its booked nights. Safe
+     * to call many times for the same {@code Room}.
+     */
+    public void register(Room room) {
+        Long hotelId = room.getHotel() == null ? null : room.getHotel().getId();
+        IndexedRoom[] previous = new IndexedRoom[1];
+        rooms.compute(room.getId(), (id, indexed) -> {
+            previous[0] = indexed;
+            return new IndexedRoom(hotelId, room.getBeds(), room.getCostPerNight(),
+                    indexed == null ? new RoomNights() : indexed.nights);
+        });
+        if (previous[0] != null && previous[0].hotelId != null && !previous[0].hotelId.equals(hotelId)) {
+            removeFromHotel(previous[0].hotelId, room.getId());
+        }
+        if (hotelId != null) {
+            hotelRooms.computeIfAbsent(hotelId, id -> ConcurrentHashMap.newKeySet()).add(room.getId());
+        }
+    }
+
+    /**
+     * Forgets a deleted {@code Room} along with its booked nights.
+     */
+    public void remove(Long roomId) {
+        IndexedRoom removed = rooms.remove(roomId);
+        if (removed != null && removed.hotelId != null) {
+            removeFromHotel(removed.hotelId, roomId);
+        }
+    }
+
+    private void removeFromHotel(Long hotelId, Long roomId) {
+        hotelRooms.computeIfPresent(hotelId, (id, roomIds) -> {
+            roomIds.remove(roomId);
+            return roomIds.isEmpty() ? null : roomIds;
+        });
+    }
+
+    /**
+     * Marks the nights of the {@code Reservation} as booked for its {@code Room}.
+     */
+    public void book(Reservation reservation) {
+        register(reservation.getRoom());
+        ReservationDates dates = reservation.getDates();
+        rooms.get(reservation.getRoom().getId()).nights.book(dates.getCheckInDate(), dates.getCheckOutDate());
+    }
+
+    /**
+     * Frees the nights of the {@code Reservation} so they can be booked again.
+     */
+    public void release(Reservation reservation) {
+        IndexedRoom room = rooms.get(reservation.getRoom().getId());
+        if (room != null) {
+            ReservationDates dates = reservation.getDates();
+            room.nights.release(dates.getCheckInDate(), dates.getCheckOutDate());
+        }
+    }
+
+    /**
+     * @return {@code true} if the room has no booked nights between {@code checkIn} and {@code checkOut}.
+     */
+    public boolean isAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        IndexedRoom room = rooms.get(roomId);
+        return room == null || room.nights.isFree(checkIn, checkOut);
+    }
+
+    /**
+     * Answers every stay length from the same check in date with a single scan, used when pricing calendars.
+     *
+     * @return How many consecutive nights starting from {@code checkIn} the room is free, capped at {@code limit}.
+     */
+    public int freeNightsFrom(Long roomId, LocalDate checkIn, int limit) {
+        IndexedRoom room = rooms.get(roomId);
+        return room == null ? limit : room.nights.freeNightsFrom(checkIn, limit);
+    }
+
+    /**
+     * @return The ids of every room in the hotel that has at least 1 booked night between {@code checkIn}
+     * and {@code checkOut}.
+     */
+    public Set<Long> unavailableRoomIds(Long hotelId, LocalDate checkIn, LocalDate checkOut) {
+        Set<Long> roomIds = hotelRooms.getOrDefault(hotelId, Collections.emptySet());
+        Set<Long> unavailable = new HashSet<>();
+        for (Long roomId : roomIds) {
+            if (!isAvailable(roomId, checkIn, checkOut)) {
+                unavailable.add(roomId);
+            }
+        }
+        return unavailable;
+    }
+
+    /**
+     * Finds the cheapest room in each hotel that sleeps at least {@code guests} and is free for every night between
+     * {@code checkIn} and {@code checkOut}. Hotels without a suitable room are left out of the result.
+     *
+     * @return hotel id -> lowest cost per night of a suitable room.
+     */
+    public Map<Long, BigDecimal> lowestAvailableRates(Collection<Long> hotelIds, LocalDate checkIn,
+                                                      LocalDate checkOut, int guests) {
+        Map<Long, BigDecimal> rates = new HashMap<>();
+        for (Long hotelId : hotelIds) {
+            BigDecimal lowest = null;
+            for (Long roomId : hotelRooms.getOrDefault(hotelId, Collections.emptySet())) {
+                IndexedRoom room = rooms.get(roomId);
+                if (room == null) {
+                    continue;
+                }
+                // cheap checks first, the nights scan is only needed for rooms that could be cheaper.
+                if (room.beds < guests || (lowest != null && room.costPerNight.compareTo(lowest) >= 0)) {
+                    continue;
+                }
+                if (room.nights.isFree(checkIn, checkOut)) {
+                    lowest = room.costPerNight;
+                }
+            }
+            if (lowest != null) {
+                rates.put(hotelId, lowest);
+            }
+        }
+        return rates;
+    }
+
+    public void clear() {
+        rooms.clear();
+        hotelRooms.clear();
+    }
+
+    /**
+     * The room attributes needed to answer availability searches without loading the {@code Room}. Replaced when
+     * the room is updated, the booked nights move to the replacement.
+     */
+    private static class IndexedRoom {
+        private final Long hotelId;
+        private final int beds;
+        private final BigDecimal costPerNight;
+        private final RoomNights nights;
+
+        private IndexedRoom(Long hotelId, int beds, BigDecimal costPerNight, RoomNights nights) {
+            this.hotelId = hotelId;
+            this.beds = beds;
+            this.costPerNight = costPerNight;
+            this.nights = nights;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.reservation.inventory;
+
+import com.demo.TimeProvider;
+import com.demo.domain.Reservation;
+import com.demo.persistance.RoomRepository;
+import com.demo.reservation.ReservationRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the {@link AvailabilityIndex} and {@link ReservationIntervalIndex} from the database once the application
+ * has started. Only reservations that have not yet checked out are loaded since past nights can never be booked again.
+ */
+@Component
+public class AvailabilityIndexLoader {
+
+    private AvailabilityIndex availabilityIndex;
+    private ReservationIntervalIndex reservationIntervalIndex;
+    private RoomRepository roomRepository;
+    private ReservationRepository reservationRepository;
+    private TimeProvider timeProvider;
+
+    public AvailabilityIndexLoader(AvailabilityIndex availabilityIndex,
+                                   ReservationIntervalIndex reservationIntervalIndex,
+                                   RoomRepository roomRepository,
+                                   ReservationRepository reservationRepository,
+                                   TimeProvider timeProvider) {
+        this.availabilityIndex = availabilityIndex;
+        this.reservationIntervalIndex = reservationIntervalIndex;
+        this.roomRepository = roomRepository;
+        this.reservationRepository = reservationRepository;
+        this.timeProvider = timeProvider;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        availabilityIndex.clear();
+        reservationIntervalIndex.clear();
+        roomRepository.findAll().forEach(availabilityIndex::register);
+
+        for (Reservation reservation : reservationRepository.findAllByDatesCheckOutDateAfter(timeProvider.localDate())) {
+            availabilityIndex.book(reservation);
+            reservationIntervalIndex.tryClaim(reservation);
+        }
+    }
+}
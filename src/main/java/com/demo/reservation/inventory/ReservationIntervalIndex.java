@@ -0,0 +1,51 @@
+package com.demo.reservation.inventory;
+
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per room index of booked stays used to detect overlapping reservations when confirming a booking without
+ * scanning the {@code Reservation} table. Loaded at startup by {@link AvailabilityIndexLoader}.
+ */
+@Component
+public class ReservationIntervalIndex {
+
+    private final Map<Long, RoomStays> roomStays = new ConcurrentHashMap<>();
+
+    /**
+     * Claims the nights of the {@code Reservation} if no other stay in the same room overlaps them.
+     * The check and insert are atomic so 2 concurrent claims for the same nights can never both succeed.
+     *
+     * @return The stay that prevented the claim or empty if the claim succeeded.
+     */
+    public Optional<RoomStays.Stay> tryClaim(Reservation reservation) {
+        ReservationDates dates = reservation.getDates();
+        return roomStays.computeIfAbsent(reservation.getRoom().getId(), id -> new RoomStays())
+                .tryAdd(reservation.getReservationId(), dates.getCheckInDate(), dates.getCheckOutDate());
+    }
+
+    /**
+     * Releases a claim made by {@link #tryClaim}, for example when saving the {@code Reservation} fails.
+     */
+    public void release(Reservation reservation) {
+        RoomStays stays = roomStays.get(reservation.getRoom().getId());
+        if (stays != null) {
+            stays.remove(reservation.getReservationId(), reservation.getDates().getCheckInDate());
+        }
+    }
+
+    public Optional<RoomStays.Stay> findOverlap(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomStays stays = roomStays.get(roomId);
+        return stays == null ? Optional.empty() : stays.findOverlap(checkIn, checkOut);
+    }
+
+    public void clear() {
+        roomStays.clear();
+    }
+}
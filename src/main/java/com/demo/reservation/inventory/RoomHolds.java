@@ -0,0 +1,197 @@
+package com.demo.reservation.inventory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Short lived holds placed on a room while a user works through the reservation flow, preventing 2 sessions from
+ * both walking the whole flow for the same nights. Each holder (identified by the {@code Reservation.reservationId}
+ * of its flow) can have at most 1 hold at a time.
+ *
+ * <p>Expiry is handled by a hashed timing wheel with 1 second ticks. Placing a hold drops it into the bucket for its
+ * deadline and every tick only visits the current bucket, so both placing and expiring a hold cost {@code O(1)}
+ * regardless of how many holds exist. Released holds are flagged and simply skipped when their bucket comes around.</p>
+ */
+@Component
+public class RoomHolds {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private final long ttlMillis;
+    private final AvailabilityIndex availabilityIndex;
+
+    private final Map<UUID, Hold> holdsByHolder = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Hold>> holdsByRoom = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private final Queue<Hold>[] wheel = new Queue[WHEEL_SIZE];
+
+    private long lastTick;
+
+    @Autowired
+    public RoomHolds(@Value("${reservation.hold.ttl-minutes:15}") long ttlMinutes,
+                     AvailabilityIndex availabilityIndex) {
+        this(Duration.ofMinutes(ttlMinutes), availabilityIndex, System.currentTimeMillis());
+    }
+
+    public RoomHolds(Duration ttl, AvailabilityIndex availabilityIndex, long nowMillis) {
+        this.ttlMillis = ttl.toMillis();
+        this.availabilityIndex = availabilityIndex;
+        this.lastTick = nowMillis / TICK_MILLIS;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    public boolean hold(UUID holderId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return hold(holderId, roomId, checkIn, checkOut, System.currentTimeMillis());
+    }
+
+    /**
+     * Places or refreshes the holder's hold on the room. Any previous hold by the same holder is replaced, allowing
+     * the user to go back and change their dates.
+     *
+     * @return {@code false} if the nights are already booked or held by someone else.
+     */
+    public boolean hold(UUID holderId, Long roomId, LocalDate checkIn, LocalDate checkOut, long nowMillis) {
+        if (!availabilityIndex.isAvailable(roomId, checkIn, checkOut)) {
+            return false;
+        }
+
+        Hold hold = new Hold(holderId, roomId, checkIn, checkOut, nowMillis + ttlMillis);
+        boolean[] placed = {false};
+
+        // compute locks the room's entry so checking for conflicts and adding the hold is atomic per room.
+        holdsByRoom.compute(roomId, (id, holds) -> {
+            Set<Hold> roomHolds = holds == null ? new HashSet<>() : holds;
+            roomHolds.removeIf(existing -> existing.released || existing.expiresAtMillis <= nowMillis);
+            boolean conflict = roomHolds.stream().anyMatch(existing ->
+                    !existing.holderId.equals(holderId) && existing.overlaps(checkIn, checkOut));
+            if (!conflict) {
+                roomHolds.add(hold);
+                placed[0] = true;
+            }
+            return roomHolds.isEmpty() ? null : roomHolds;
+        });
+
+        if (!placed[0]) {
+            return false;
+        }
+        Hold previous = holdsByHolder.put(holderId, hold);
+        if (previous != null) {
+            release(previous);
+        }
+        wheel[bucket(hold.expiresAtMillis)].add(hold);
+        return true;
+    }
+
+    /**
+     * Releases the holder's hold if it has one.
+     */
+    public void release(UUID holderId) {
+        Hold hold = holdsByHolder.remove(holderId);
+        if (hold != null) {
+            release(hold);
+        }
+    }
+
+    /**
+     * @return {@code true} if the holder has an unexpired hold covering exactly these nights.
+     */
+    public boolean isHeldBy(UUID holderId, Long roomId, LocalDate checkIn, LocalDate checkOut, long nowMillis) {
+        Hold hold = holdsByHolder.get(holderId);
+        return hold != null && !hold.released && hold.expiresAtMillis > nowMillis
+                && hold.roomId.equals(roomId)
+                && hold.checkIn.equals(checkIn) && hold.checkOut.equals(checkOut);
+    }
+
+    /**
+     * @return The number of holds that have not been released or expired by a tick.
+     */
+    public int activeHolds() {
+        return holdsByHolder.size();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expireHolds() {
+        expireHolds(System.currentTimeMillis());
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis}, expiring every hold whose deadline falls on or before the current tick.
+     * Holds therefore expire to the nearest second which is plenty for holds lasting minutes.
+     */
+    public synchronized void expireHolds(long nowMillis) {
+        long nowTick = nowMillis / TICK_MILLIS;
+        // After a long pause there is no point visiting the same bucket more than once.
+        long fromTick = Math.max(lastTick + 1, nowTick - WHEEL_SIZE + 1);
+
+        for (long tick = fromTick; tick <= nowTick; tick++) {
+            Queue<Hold> bucket = wheel[(int) (tick % WHEEL_SIZE)];
+            // Holds due in a later revolution of the wheel are put back.
+            int size = bucket.size();
+            for (int i = 0; i < size; i++) {
+                Hold hold = bucket.poll();
+                if (hold == null) {
+                    break;
+                }
+                if (hold.released) {
+                    continue;
+                }
+                if (hold.expiresAtMillis / TICK_MILLIS <= nowTick) {
+                    holdsByHolder.remove(hold.holderId, hold);
+                    release(hold);
+                } else {
+                    bucket.add(hold);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+    }
+
+    private void release(Hold hold) {
+        hold.released = true;
+        holdsByRoom.computeIfPresent(hold.roomId, (id, holds) -> {
+            holds.remove(hold);
+            return holds.isEmpty() ? null : holds;
+        });
+    }
+
+    private int bucket(long millis) {
+        return (int) ((millis / TICK_MILLIS) % WHEEL_SIZE);
+    }
+
+    private static class Hold {
+        private final UUID holderId;
+        private final Long roomId;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private final long expiresAtMillis;
+        private volatile boolean released;
+
+        private Hold(UUID holderId, Long roomId, LocalDate checkIn, LocalDate checkOut, long expiresAtMillis) {
+            this.holderId = holderId;
+            this.roomId = roomId;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean overlaps(LocalDate otherCheckIn, LocalDate otherCheckOut) {
+            return checkIn.isBefore(otherCheckOut) && otherCheckIn.isBefore(checkOut);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.demo.reservation.inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks striped by room id. Bookings of the same room are serialised while bookings of rooms on
+ * different stripes proceed in parallel. Rooms sharing a stripe also contend, {@link #stripeStats()} records how
+ * long each stripe is waited on so the stripe count can be sized from real traffic.
+ */
+@Component
+public class RoomLocks {
+
+    private final Stripe[] stripes;
+
+    public RoomLocks(@Value("${reservation.lock.stripes:64}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be at least 1");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Blocks until the stripe for the room is acquired. Callers must always {@link Lock#close()} the returned
+     * lock, typically with try with resources.
+     */
+    public Lock lock(Long roomId) {
+        Stripe stripe = stripes[stripeIndex(roomId)];
+        long start = System.nanoTime();
+        stripe.lock.lock();
+        stripe.record(System.nanoTime() - start);
+        return stripe.lock::unlock;
+    }
+
+    int stripeIndex(Long roomId) {
+        // Spread sequential ids, Long.hashCode alone maps neighbouring rooms to neighbouring stripes.
+        int hash = roomId.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash * 0x9E3779B9, stripes.length);
+    }
+
+    /**
+     * @return Wait time statistics for every stripe, indexed by stripe.
+     */
+    public List<StripeStats> stripeStats() {
+        List<StripeStats> stats = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            stats.add(new StripeStats(i, stripe.acquisitions.sum(), stripe.totalWaitNanos.sum(),
+                    stripe.maxWaitNanos.get()));
+        }
+        return stats;
+    }
+
+    /**
+     * A held stripe, closing it releases the stripe.
+     */
+    @FunctionalInterface
+    public interface Lock extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long waitNanos) {
+            acquisitions.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulate(waitNanos);
+        }
+    }
+
+    public static class StripeStats {
+        private final int stripe;
+        private final long acquisitions;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        public StripeStats(int stripe, long acquisitions, long totalWaitNanos, long maxWaitNanos) {
+            this.stripe = stripe;
+            this.acquisitions = acquisitions;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public int getStripe() {
+            return stripe;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getTotalWaitNanos() {
+            return totalWaitNanos;
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        public double getMeanWaitNanos() {
+            return acquisitions == 0 ? 0 : (double) totalWaitNanos / acquisitions;
+        }
+
+        @Override
+        public String toString() {
+            return "StripeStats{" +
+                    "stripe=" + stripe +
+                    ", acquisitions=" + acquisitions +
+                    ", totalWaitNanos=" + totalWaitNanos +
+                    ", maxWaitNanos=" + maxWaitNanos +
+                    '}';
+        }
+    }
+}
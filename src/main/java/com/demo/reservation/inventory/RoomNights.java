@@ -0,0 +1,112 @@
+package com.demo.reservation.inventory;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * The booked nights of a single {@code Room} stored as one bit per night.
+ *
+ * <p>Bit {@code i} represents the night starting on {@code origin + i} days where the origin is the earliest night
+ * ever booked. A night is identified by its check in date, so a stay from the 1st to the 3rd occupies the nights of
+ * the 1st and 2nd allowing another guest to check in on the 3rd.</p>
+ *
+ * <p>Asking whether a date range is free is a single {@link BitSet#nextSetBit} scan over the range which only touches
+ * one {@code long} per 64 nights.</p>
+ */
+public class RoomNights {
+
+    private BitSet nights = new BitSet();
+
+    // epoch day of bit 0, only meaningful once a night has been booked.
+    private long origin;
+
+    private boolean empty = true;
+
+    /**
+     * Marks every night from {@code checkIn} up to but excluding {@code checkOut} as booked.
+     */
+    public synchronized void book(LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (from >= to) {
+            return;
+        }
+        if (empty) {
+            origin = from;
+            empty = false;
+        } else if (from < origin) {
+            rebase(from);
+        }
+        nights.set(toIndex(from), toIndex(to));
+    }
+
+    /**
+     * Clears every night from {@code checkIn} up to but excluding {@code checkOut}.
+     */
+    public synchronized void release(LocalDate checkIn, LocalDate checkOut) {
+        if (empty) {
+            return;
+        }
+        long from = Math.max(checkIn.toEpochDay(), origin);
+        long to = checkOut.toEpochDay();
+        if (from < to) {
+            nights.clear(toIndex(from), toIndex(to));
+        }
+    }
+
+    /**
+     * @return {@code true} if no night between {@code checkIn} and {@code checkOut} is booked.
+     */
+    public synchronized boolean isFree(LocalDate checkIn, LocalDate checkOut) {
+        if (empty) {
+            return true;
+        }
+        long from = Math.max(checkIn.toEpochDay(), origin);
+        long to = checkOut.toEpochDay();
+        if (from >= to) {
+            return true;
+        }
+        int next = nights.nextSetBit(toIndex(from));
+        return next < 0 || next >= toIndex(to);
+    }
+
+    /**
+     * @return How many consecutive nights starting from {@code checkIn} are free, capped at {@code limit}.
+     */
+    public synchronized int freeNightsFrom(LocalDate checkIn, int limit) {
+        if (empty) {
+            return limit;
+        }
+        long from = checkIn.toEpochDay();
+        int next = nights.nextSetBit(toIndex(Math.max(from, origin)));
+        if (next < 0) {
+            return limit;
+        }
+        return (int) Math.min(limit, origin + next - from);
+    }
+
+    /**
+     * @return The total booked nights.
+     */
+    public synchronized int bookedNights() {
+        return nights.cardinality();
+    }
+
+    private int toIndex(long epochDay) {
+        return Math.toIntExact(epochDay - origin);
+    }
+
+    /**
+     * Moves the origin back to {@code newOrigin} by shifting every booked night. This only happens when a stay is
+     * booked earlier than any existing night which is rare once the index has been loaded.
+     */
+    private void rebase(long newOrigin) {
+        int shift = Math.toIntExact(origin - newOrigin);
+        BitSet shifted = new BitSet(nights.length() + shift);
+        for (int i = nights.nextSetBit(0); i >= 0; i = nights.nextSetBit(i + 1)) {
+            shifted.set(i + shift);
+        }
+        nights = shifted;
+        origin = newOrigin;
+    }
+}
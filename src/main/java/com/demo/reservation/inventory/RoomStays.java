@@ -0,0 +1,89 @@
+package com.demo.reservation.inventory;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Sorted segment index of every stay booked in a single {@code Room}.
+ *
+ * <p>Stays in a room can never overlap, so keying them by check in day gives a sorted list of disjoint intervals.
+ * The only stay that can overlap {@code [checkIn, checkOut)} is the one starting closest to but strictly before
+ * {@code checkOut}, making every overlap query a single {@code O(log n)} {@link TreeMap#lowerEntry} lookup. A stay
+ * starting on {@code checkOut} is excluded, allowing back to back stays.</p>
+ */
+public class RoomStays {
+
+    private final TreeMap<Long, Stay> stays = new TreeMap<>();
+
+    /**
+     * Atomically adds the stay only if it does not overlap an existing stay.
+     *
+     * @return The conflicting stay or empty if the stay was added.
+     */
+    public synchronized Optional<Stay> tryAdd(UUID reservationId, LocalDate checkIn, LocalDate checkOut) {
+        Optional<Stay> overlap = findOverlap(checkIn, checkOut);
+        if (overlap.isEmpty()) {
+            stays.put(checkIn.toEpochDay(), new Stay(reservationId, checkIn, checkOut));
+        }
+        return overlap;
+    }
+
+    /**
+     * Removes the stay only if it belongs to the supplied reservation.
+     */
+    public synchronized void remove(UUID reservationId, LocalDate checkIn) {
+        Stay stay = stays.get(checkIn.toEpochDay());
+        if (stay != null && stay.getReservationId().equals(reservationId)) {
+            stays.remove(checkIn.toEpochDay());
+        }
+    }
+
+    public synchronized Optional<Stay> findOverlap(LocalDate checkIn, LocalDate checkOut) {
+        // The latest stay starting before check out is the only candidate since stays are disjoint.
+        Map.Entry<Long, Stay> candidate = stays.lowerEntry(checkOut.toEpochDay());
+        if (candidate != null && candidate.getValue().getCheckOutDate().isAfter(checkIn)) {
+            return Optional.of(candidate.getValue());
+        }
+        return Optional.empty();
+    }
+
+    public synchronized int size() {
+        return stays.size();
+    }
+
+    public static class Stay {
+        private final UUID reservationId;
+        private final LocalDate checkInDate;
+        private final LocalDate checkOutDate;
+
+        public Stay(UUID reservationId, LocalDate checkInDate, LocalDate checkOutDate) {
+            this.reservationId = reservationId;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+        }
+
+        public UUID getReservationId() {
+            return reservationId;
+        }
+
+        public LocalDate getCheckInDate() {
+            return checkInDate;
+        }
+
+        public LocalDate getCheckOutDate() {
+            return checkOutDate;
+        }
+
+        @Override
+        public String toString() {
+            return "Stay{" +
+                    "reservationId=" + reservationId +
+                    ", checkInDate=" + checkInDate +
+                    ", checkOutDate=" + checkOutDate +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.demo.admin;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The statistics are not served unless {@code admin.endpoints.enabled} is set.
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(AdminController.class)
+@ActiveProfiles("test")
+public class AdminControllerDisabledTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void adminEndpoints_NotFound() throws Exception {
+        mockMvc.perform(get("/admin/locks")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/admin/cache")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/admin/flows")).andExpect(status().isNotFound());
+    }
+}
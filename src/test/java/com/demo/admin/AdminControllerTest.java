@@ -0,0 +1,72 @@
+package com.demo.admin;
+
+import com.demo.persistance.CacheStatistics;
+import com.demo.reservation.flow.store.EvictingReservationFlowStore;
+import com.demo.reservation.inventory.RoomLocks;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(controllers = AdminController.class, properties = "admin.endpoints.enabled=true")
+@ActiveProfiles("test")
+public class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RoomLocks roomLocks;
+
+    @MockBean
+    private CacheStatistics cacheStatistics;
+
+    @MockBean
+    private EvictingReservationFlowStore flowStore;
+
+    @Test
+    public void getLockStats_EveryStripe() throws Exception {
+        when(roomLocks.stripeStats()).thenReturn(List.of(new RoomLocks.StripeStats(0, 4, 2_000, 1_500),
+                new RoomLocks.StripeStats(1, 0, 0, 0)));
+
+        mockMvc.perform(get("/admin/locks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].acquisitions").value(4))
+                .andExpect(jsonPath("$[0].meanWaitNanos").value(500.0))
+                .andExpect(jsonPath("$[1].stripe").value(1));
+    }
+
+    @Test
+    public void getCacheStats_EveryRegion() throws Exception {
+        when(cacheStatistics.regionStats()).thenReturn(List.of(new CacheStatistics.RegionStats("hotel", 3, 1, 1, 1)));
+
+        mockMvc.perform(get("/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].region").value("hotel"))
+                .andExpect(jsonPath("$[0].hitRatio").value(0.75));
+    }
+
+    @Test
+    public void getFlowStats() throws Exception {
+        when(flowStore.flowStats()).thenReturn(new EvictingReservationFlowStore.FlowStats(12, 4_800, 3, 1));
+
+        mockMvc.perform(get("/admin/flows"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.liveFlows").value(12))
+                .andExpect(jsonPath("$.evictedIdle").value(3))
+                .andExpect(jsonPath("$.evictedOverBudget").value(1));
+    }
+}
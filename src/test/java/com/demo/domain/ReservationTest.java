@@ -3,6 +3,7 @@ package com.demo.domain;
 import com.demo.domain.location.Address;
 import com.demo.domain.location.Postcode;
 import com.demo.domain.location.State;
+import com.demo.domain.pricing.Quote;
 import org.junit.Test;
 
 import java.math.BigDecimal;
@@ -699,4 +700,47 @@ public class ReservationTest {
         // 1 guest has a food extra
         assertThat(reservation.hasEmptyMealPlans()).isFalse();
     }
-}
\ No newline at end of file
+
+    /**
+     * The quote is reused until something affecting the price changes.
+     */
+    @Test
+    public void getQuote_Unchanged_Memoised() {
+        Reservation reservation = new Reservation();
+        reservation.setRoom(createRoom());
+        reservation.getDates().setCheckInDate(LocalDate.of(2018, 1, 1));
+        reservation.getDates().setCheckOutDate(LocalDate.of(2018, 1, 4));
+
+        assertThat(reservation.getQuote()).isSameAs(reservation.getQuote());
+        assertThat(reservation.getQuote().getRoomCents()).isEqualTo(7650);
+    }
+
+    /**
+     * Dates and meal plans are edited in place by data binding, those changes must also reprice the reservation.
+     */
+    @Test
+    public void getQuote_Mutated_Recalculated() {
+        Room room = createRoom();
+        room.setBeds(4);
+        Reservation reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.getDates().setCheckInDate(LocalDate.of(2018, 1, 1));
+        reservation.getDates().setCheckOutDate(LocalDate.of(2018, 1, 4));
+        assertThat(reservation.getQuote().getRoomCents()).isEqualTo(7650);
+
+        reservation.getDates().setCheckOutDate(LocalDate.of(2018, 1, 2));
+        assertThat(reservation.getQuote().getRoomCents()).isEqualTo(2550);
+
+        reservation.setGeneralExtras(Set.of(
+                new Extra("foxtel", new BigDecimal("1.20"), Extra.Type.Basic, Extra.Category.General)));
+        assertThat(reservation.getQuote().getGeneralExtrasCents()).isEqualTo(120);
+
+        reservation.addGuest(new Guest("john", "smith", false));
+        reservation.createMealPlans();
+        Quote beforeFood = reservation.getQuote();
+        reservation.getMealPlans().get(0).setFoodExtras(List.of(
+                new Extra("breakfast", new BigDecimal("5.50"), Extra.Type.Basic, Extra.Category.Food)));
+        assertThat(reservation.getQuote()).isNotSameAs(beforeFood);
+        assertThat(reservation.getQuote().getMealPlansCents()).isEqualTo(550);
+    }
+}
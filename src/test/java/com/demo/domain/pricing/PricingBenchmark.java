@@ -0,0 +1,98 @@
+package com.demo.domain.pricing;
+
+import com.demo.domain.Extra;
+import com.demo.domain.Guest;
+import com.demo.domain.Hotel;
+import com.demo.domain.MealPlan;
+import com.demo.domain.Reservation;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pricing a full reservation through {@link PricingEngine} against reading every total the review page
+ * displays from the {@code BigDecimal} methods on {@code Reservation}.
+ *
+ * <p>Not a unit test, run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.demo.domain.pricing.PricingBenchmark} or from the IDE.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private Reservation reservation;
+
+    @Setup
+    public void setup() {
+        Room room = new Room("ABC123", RoomType.Economy, 4, new BigDecimal("125.50"));
+        Hotel hotel = new Hotel();
+        hotel.setLateCheckoutFee(new BigDecimal("20.50"));
+        room.setHotel(hotel);
+
+        reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.getDates().setCheckInDate(LocalDate.of(2018, 1, 1));
+        reservation.getDates().setCheckOutDate(LocalDate.of(2018, 1, 8));
+        reservation.getDates().setLateCheckout(true);
+        reservation.setGeneralExtras(Set.of(
+                new Extra("Foxtel", new BigDecimal("1.20"), Extra.Type.Basic, Extra.Category.General),
+                new Extra("Unlimited Internet", new BigDecimal("2.00"), Extra.Type.Basic, Extra.Category.General),
+                new Extra("Laundry", new BigDecimal("2.50"), Extra.Type.Basic, Extra.Category.General)
+        ));
+
+        List<Extra> food = List.of(
+                new Extra("Breakfast", new BigDecimal("2.00"), Extra.Type.Basic, Extra.Category.Food),
+                new Extra("Lunch", new BigDecimal("4.00"), Extra.Type.Basic, Extra.Category.Food),
+                new Extra("Dinner", new BigDecimal("5.60"), Extra.Type.Basic, Extra.Category.Food)
+        );
+        List<MealPlan> mealPlans = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            mealPlans.add(new MealPlan(new Guest("guest" + i, "smith", i % 2 == 0), reservation, food, List.of()));
+        }
+        reservation.setMealPlans(mealPlans);
+    }
+
+    @Benchmark
+    public void bigDecimalTotals(Blackhole blackhole) {
+        blackhole.consume(reservation.getTotalRoomCost());
+        blackhole.consume(reservation.getChargeableLateCheckoutFee());
+        blackhole.consume(reservation.getTotalGeneralExtrasCost());
+        blackhole.consume(reservation.getTotalMealPlansCost());
+        blackhole.consume(reservation.getTotalCostExcludingTax());
+        blackhole.consume(reservation.getTaxableAmount());
+        blackhole.consume(reservation.getTotalCostIncludingTax());
+    }
+
+    @Benchmark
+    public Quote pricingEngineQuote() {
+        return PricingEngine.quote(reservation);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.demo.domain.pricing;
+
+import com.demo.domain.Extra;
+import com.demo.domain.Guest;
+import com.demo.domain.Hotel;
+import com.demo.domain.MealPlan;
+import com.demo.domain.Reservation;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PricingEngineTest {
+
+    private Room createRoom() {
+        Address address = new Address("Royal Hotel", "166 Albert Road", null,
+                State.VIC, "Melbourne", new Postcode("3000"));
+
+        Room room = new Room("ABC123", RoomType.Economy, 2, new BigDecimal("25.50"));
+        room.setHotel(new Hotel("Royal Hotel", address, 4, "royal@hotel.com"));
+        room.getHotel().setLateCheckoutFee(new BigDecimal("20.50"));
+        return room;
+    }
+
+    /**
+     * Room for 3 nights with late checkout, 2 general extras, an adult and a child meal plan.
+     */
+    private Reservation createReservation() {
+        Reservation reservation = new Reservation();
+        reservation.setRoom(createRoom());
+        reservation.getDates().setCheckInDate(LocalDate.of(2018, 1, 1));
+        reservation.getDates().setCheckOutDate(LocalDate.of(2018, 1, 4));
+        reservation.getDates().setLateCheckout(true);
+
+        reservation.setGeneralExtras(Set.of(
+                new Extra("Foxtel", new BigDecimal("1.20"), Extra.Type.Basic, Extra.Category.General),
+                new Extra("Laundry", new BigDecimal("2.55"), Extra.Type.Basic, Extra.Category.General)
+        ));
+
+        Extra breakfast = new Extra("Breakfast", new BigDecimal("2.00"), Extra.Type.Basic, Extra.Category.Food);
+        Extra dinner = new Extra("Dinner", new BigDecimal("5.63"), Extra.Type.Basic, Extra.Category.Food);
+        reservation.setMealPlans(List.of(
+                new MealPlan(new Guest("john", "smith", false), reservation, List.of(breakfast, dinner), List.of()),
+                new MealPlan(new Guest("sally", "smith", true), reservation, List.of(dinner), List.of())
+        ));
+        return reservation;
+    }
+
+    @Test
+    public void quote_NoRoom_Empty() {
+        assertThat(PricingEngine.quote(new Reservation())).isEqualTo(Quote.EMPTY);
+    }
+
+    @Test
+    public void quote_BreakdownInCents() {
+        Quote quote = PricingEngine.quote(createReservation());
+
+        assertThat(quote.getRoomCents()).isEqualTo(7650);
+        assertThat(quote.getLateCheckoutFeeCents()).isEqualTo(2050);
+        assertThat(quote.getGeneralExtrasCents()).isEqualTo(360 + 765);
+        // child pays 40% of 16.89 = 6.756 which rounds to 6.76.
+        assertThat(quote.getMealPlansCents()).isEqualTo(600 + 1689 + 676);
+        assertThat(quote.getTotalExcludingTaxCents()).isEqualTo(13790);
+        assertThat(quote.getTaxCents()).isEqualTo(1379);
+        assertThat(quote.getTotalIncludingTaxCents()).isEqualTo(15169);
+        assertThat(quote.getTotalIncludingTax()).isEqualTo(new BigDecimal("151.69"));
+    }
+
+    /**
+     * The quote agrees with the existing {@code BigDecimal} totals once they are rounded to the cent.
+     */
+    @Test
+    public void quote_MatchesBigDecimalTotals() {
+        Reservation reservation = createReservation();
+        Quote quote = PricingEngine.quote(reservation);
+
+        assertThat(quote.getRoomWithLateCheckoutFee())
+                .isEqualByComparingTo(cents(reservation.getTotalRoomCostWithLateCheckoutFee()));
+        assertThat(quote.getGeneralExtras()).isEqualByComparingTo(cents(reservation.getTotalGeneralExtrasCost()));
+        assertThat(quote.getMealPlans()).isEqualByComparingTo(cents(reservation.getTotalMealPlansCost()));
+        assertThat(quote.getTotalExcludingTax()).isEqualByComparingTo(cents(reservation.getTotalCostExcludingTax()));
+        assertThat(quote.getTotalIncludingTax()).isEqualByComparingTo(cents(reservation.getTotalCostIncludingTax()));
+    }
+
+    @Test
+    public void quote_DatesOutOfOrder_NoCost() {
+        Reservation reservation = createReservation();
+        reservation.getDates().setCheckOutDate(LocalDate.of(2017, 12, 30));
+        reservation.getDates().setLateCheckout(false);
+
+        assertThat(PricingEngine.quote(reservation).getTotalIncludingTaxCents()).isZero();
+    }
+
+    @Test
+    public void basisPoints_MatchDomainRates() {
+        assertThat(PricingEngine.TAX_BASIS_POINTS).isEqualTo(1_000);
+        assertThat(PricingEngine.CHILD_DISCOUNT_BASIS_POINTS).isEqualTo(6_000);
+    }
+
+    @Test
+    public void applyRate_RoundsHalfUp() {
+        assertThat(PricingEngine.applyRate(1005, PricingEngine.TAX_BASIS_POINTS)).isEqualTo(101);
+        assertThat(PricingEngine.applyRate(1004, PricingEngine.TAX_BASIS_POINTS)).isEqualTo(100);
+        assertThat(PricingEngine.applyRate(0, PricingEngine.TAX_BASIS_POINTS)).isZero();
+    }
+
+    @Test
+    public void toCents_RoundsHalfUp() {
+        assertThat(PricingEngine.toCents(new BigDecimal("1.005"))).isEqualTo(101);
+        assertThat(PricingEngine.toCents(new BigDecimal("1.2"))).isEqualTo(120);
+        assertThat(PricingEngine.toCents(null)).isZero();
+    }
+
+    private BigDecimal cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
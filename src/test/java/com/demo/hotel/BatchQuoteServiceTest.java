@@ -0,0 +1,108 @@
+package com.demo.hotel;
+
+import com.demo.domain.Extra;
+import com.demo.domain.Hotel;
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import com.demo.reservation.ExtrasService;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BatchQuoteServiceTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2030, 1, 10);
+
+    private AvailabilityIndex availabilityIndex;
+    private BatchQuoteService batchQuoteService;
+    private Hotel hotel;
+    private Room economy;
+    private Room luxury;
+
+    private Room createRoom(long id, RoomType roomType, BigDecimal costPerNight) {
+        Room room = new Room("R" + id, roomType, 2, costPerNight);
+        room.setId(id);
+        hotel.addRoom(room);
+        return room;
+    }
+
+    @Before
+    public void setup() {
+        hotel = new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 4, "royal@hotel.com");
+        hotel.setId(1L);
+        hotel.setLateCheckoutFee(new BigDecimal("20.00"));
+        economy = createRoom(1, RoomType.Economy, new BigDecimal("50.00"));
+        luxury = createRoom(2, RoomType.Luxury, new BigDecimal("200.00"));
+
+        ExtrasService extrasService = mock(ExtrasService.class);
+        when(extrasService.getGeneralExtras(Extra.Type.Basic)).thenReturn(List.of(
+                new Extra("Foxtel", new BigDecimal("1.20"), Extra.Type.Basic, Extra.Category.General)));
+        when(extrasService.getGeneralExtras(Extra.Type.Premium)).thenReturn(List.of(
+                new Extra("Foxtel", new BigDecimal("0.20"), Extra.Type.Premium, Extra.Category.General)));
+
+        availabilityIndex = new AvailabilityIndex();
+        batchQuoteService = new BatchQuoteService(availabilityIndex, extrasService);
+    }
+
+    @Test
+    public void quote_AppliesRoomTypeRules() {
+        BatchQuote quote = batchQuoteService.quote(hotel, List.of(economy, luxury), JAN_10, 2, 3,
+                true, List.of("foxtel"));
+
+        assertThat(quote.getRoomIds()).containsExactly(1L, 2L);
+        assertThat(quote.getTotalCents()[0]).hasSize(6);
+        // economy: (50.00 + 1.20) * 2 + 20.00 late fee = 122.40 + 10% tax.
+        assertThat(quote.totalCents(0, 1, 2)).isEqualTo(13464);
+        // luxury: premium foxtel and free late checkout, (200.00 + 0.20) * 3 = 600.60 + 10% tax.
+        assertThat(quote.totalCents(1, 0, 3)).isEqualTo(66066);
+    }
+
+    /**
+     * Stays running into a booked night are unavailable while shorter stays from the same day are still priced.
+     */
+    @Test
+    public void quote_BookedNights_Unavailable() {
+        Reservation reservation = new Reservation();
+        reservation.setRoom(economy);
+        reservation.setDates(new ReservationDates(JAN_10.plusDays(2), JAN_10.plusDays(3),
+                LocalTime.of(10, 0), false, true));
+        availabilityIndex.book(reservation);
+
+        BatchQuote quote = batchQuoteService.quote(hotel, List.of(economy), JAN_10, 3, 3, false, Set.of());
+
+        assertThat(quote.totalCents(0, 0, 2)).isEqualTo(11000);
+        assertThat(quote.totalCents(0, 0, 3)).isEqualTo(BatchQuote.UNAVAILABLE);
+        assertThat(quote.totalCents(0, 2, 1)).isEqualTo(BatchQuote.UNAVAILABLE);
+        assertThat(quote.totalCents(0, 1, 1)).isEqualTo(5500);
+    }
+
+    @Test
+    public void quote_UnknownExtra_Rejected() {
+        assertThatThrownBy(() -> batchQuoteService.quote(hotel, List.of(economy), JAN_10, 1, 1,
+                false, List.of("Foxtel", "Netflix")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("netflix");
+    }
+
+    @Test
+    public void quote_CalendarTooLong_Rejected() {
+        assertThatThrownBy(() -> batchQuoteService.quote(hotel, List.of(economy), JAN_10,
+                BatchQuoteService.MAX_DAYS + 1, 1, false, Set.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
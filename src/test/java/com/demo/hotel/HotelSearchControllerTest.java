@@ -5,9 +5,18 @@ import com.demo.domain.Room;
 import com.demo.domain.location.Address;
 import com.demo.domain.location.Postcode;
 import com.demo.domain.location.State;
+import com.demo.hotel.search.HotelFacetIndex;
+import com.demo.hotel.search.HotelGeoIndex;
+import com.demo.hotel.search.HotelTextIndex;
 import com.demo.persistance.HotelRepository;
+import com.demo.persistance.KeysetQueries;
+import com.demo.persistance.KeysetSlice;
+import com.demo.persistance.predicates.HotelPredicates;
 import com.demo.persistance.predicates.RoomPredicates;
 import com.demo.persistance.RoomRepository;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
 import org.hamcrest.FeatureMatcher;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -21,11 +30,16 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.demo.TestHelpers.mappedAssertion;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
@@ -48,6 +62,21 @@ public class HotelSearchControllerTest {
     @MockBean
     private RoomRepository roomRepository;
 
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+
+    @MockBean
+    private KeysetQueries keysetQueries;
+
+    @MockBean
+    private HotelTextIndex hotelTextIndex;
+
+    @MockBean
+    private HotelGeoIndex hotelGeoIndex;
+
+    @MockBean
+    private HotelFacetIndex hotelFacetIndex;
+
     /**
      * No search results should be returned when no location query parameters are provided.
      */
@@ -118,6 +147,22 @@ public class HotelSearchControllerTest {
                 .findAllByLocation(eq("VIC"), isNull(), isNull(), any(Pageable.class));
     }
 
+    /**
+     * The facet counts for the searched location are shown alongside the results.
+     */
+    @Test
+    public void getHotels_AddsFacetsToModel() throws Exception {
+        HotelFacetIndex.Facets facets = new HotelFacetIndex.Facets(1, Map.of(State.VIC, 1),
+                Map.of("Melbourne", 1), Map.of(5, 1), Map.of());
+        when(hotelFacetIndex.facets("VIC", null, null)).thenReturn(facets);
+        when(hotelRepository.findAllByLocation(eq("VIC"), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        mockMvc.perform(get("/hotel/search?state=VIC"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("facets", facets));
+    }
+
     /**
      * 400 bad request when the hotel id is non numeric.
      */
@@ -150,7 +195,7 @@ public class HotelSearchControllerTest {
 
         // Rather than recreate a new hotel room, setting total elements to 1 will achieve the same thing for testing.
         PageImpl<Room> page = new PageImpl<>(List.of(), PageRequest.of(0, 20), 1);
-        when(roomRepository.findAll(RoomPredicates.availableRoom(hotel.getId()), PageRequest.of(0, 20))).thenReturn(page);
+        when(roomRepository.findAll(RoomPredicates.availableRoom(hotel.getId(), Set.of()), PageRequest.of(0, 20))).thenReturn(page);
 
         when(hotelRepository.findById(hotel.getId())).thenReturn(Optional.of(hotel));
 
@@ -161,8 +206,171 @@ public class HotelSearchControllerTest {
                 .andExpect(model().attribute("rooms", hasExpectedPageResult));
 
         verify(roomRepository, times(1))
-                .findAll(eq(RoomPredicates.availableRoom(hotel.getId())), any(Pageable.class));
+                .findAll(eq(RoomPredicates.availableRoom(hotel.getId(), Set.of())), any(Pageable.class));
 
         verify(hotelRepository, times(1)).findById(eq(hotel.getId()));
     }
-}
\ No newline at end of file
+
+    /**
+     * When check in/out dates are supplied, rooms the {@code AvailabilityIndex} reports as booked are excluded.
+     */
+    @Test
+    public void getAvailableHotelRooms_WithDates_ExcludesBookedRooms() throws Exception {
+        Address address = new Address("Xavier Hotel", "100 smith road", "",
+                State.QLD, "Brisbane", new Postcode("4000"));
+        Hotel hotel = new Hotel("Xavier Hotel", address, 4, "xavier@hotel.com");
+        hotel.setId(3L);
+
+        LocalDate checkIn = LocalDate.of(2030, 1, 10);
+        LocalDate checkOut = LocalDate.of(2030, 1, 12);
+
+        when(hotelRepository.findById(hotel.getId())).thenReturn(Optional.of(hotel));
+        when(availabilityIndex.unavailableRoomIds(hotel.getId(), checkIn, checkOut)).thenReturn(Set.of(7L));
+        when(roomRepository.findAll(any(Predicate.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
+
+        mockMvc.perform(get(String.format("/hotel/%d/rooms?checkIn=2030-01-10&checkOut=2030-01-12", hotel.getId())))
+                .andExpect(status().isOk())
+                .andExpect(view().name("/hotel/rooms"));
+
+        verify(availabilityIndex, times(1)).unavailableRoomIds(hotel.getId(), checkIn, checkOut);
+        verify(roomRepository, times(1))
+                .findAll(eq(RoomPredicates.availableRoom(hotel.getId(), Set.of(7L))), any(Pageable.class));
+    }
+
+    /**
+     * Only hotels with a suitable free room are returned, ordered by their cheapest rate.
+     */
+    @Test
+    public void getAvailableHotels_OrderedByLowestRate() throws Exception {
+        Hotel royal = new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 5, "royal@hotel.com");
+        royal.setId(1L);
+        Hotel summer = new Hotel("Hotel Summer", new Address("Hotel Summer", "133 kennedy avenue", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 4, "summer@hotel.com");
+        summer.setId(2L);
+
+        LocalDate checkIn = LocalDate.of(2030, 1, 10);
+        LocalDate checkOut = LocalDate.of(2030, 1, 12);
+
+        when(hotelRepository.findIdsByLocation("VIC", null, null)).thenReturn(List.of(1L, 2L, 3L));
+        when(hotelRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(royal, summer));
+        when(availabilityIndex.lowestAvailableRates(List.of(1L, 2L, 3L), checkIn, checkOut, 2))
+                .thenReturn(Map.of(1L, BigDecimal.valueOf(120), 2L, BigDecimal.valueOf(80)));
+
+        FeatureMatcher<Page<Hotel>, List<Hotel>> hasExpectedPageResult =
+                mappedAssertion(Slice::getContent, Matchers.contains(summer, royal));
+
+        mockMvc.perform(get("/hotel/availability?state=VIC&checkIn=2030-01-10&checkOut=2030-01-12&guests=2"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("/hotel/hotels"))
+                .andExpect(model().attribute("hotels", hasExpectedPageResult))
+                .andExpect(model().attributeExists("rates"));
+
+        verify(hotelRepository, never()).findAll(any(Predicate.class));
+    }
+
+    /**
+     * A cursor parameter switches to keyset paging, the count query behind {@code Page} is never run.
+     */
+    @Test
+    public void getHotels_Cursor_KeysetPaged() throws Exception {
+        Hotel hotel = new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000")),
+                5, "royal@hotel.com");
+        hotel.setId(1L);
+        KeysetSlice<Hotel> slice = new KeysetSlice<>(List.of(hotel), PageRequest.of(0, 1), "next");
+
+        when(keysetQueries.findSlice(any(EntityPath.class), any(Predicate.class), eq(HotelPredicates.KEYSET),
+                any(Pageable.class), eq(""))).thenReturn(slice);
+
+        mockMvc.perform(get("/hotel/search?state=VIC&size=1&cursor="))
+                .andExpect(status().isOk())
+                .andExpect(view().name("/hotel/hotels"))
+                .andExpect(model().attribute("hotels", Matchers.sameInstance(slice)))
+                .andExpect(content().string(Matchers.containsString("cursor=next")));
+
+        verify(hotelRepository, never()).findAllByLocation(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    public void getHotels_InvalidCursor_BadRequest() throws Exception {
+        when(keysetQueries.findSlice(any(), any(), any(), any(Pageable.class), eq("bad")))
+                .thenThrow(new IllegalArgumentException("Cursor does not match the sort"));
+
+        mockMvc.perform(get("/hotels?cursor=bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Text search results keep the relevance order of the index, only the requested page of hotels is loaded.
+     */
+    @Test
+    public void findHotels_OrderedByRelevance() throws Exception {
+        Hotel royal = new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 5, "royal@hotel.com");
+        royal.setId(1L);
+        Hotel summer = new Hotel("Hotel Summer", new Address("Hotel Summer", "133 kennedy avenue", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 4, "summer@hotel.com");
+        summer.setId(2L);
+
+        when(hotelTextIndex.search("melb")).thenReturn(List.of(2L, 1L, 3L));
+        when(hotelRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(royal, summer));
+
+        FeatureMatcher<Page<Hotel>, List<Hotel>> hasExpectedPageResult =
+                mappedAssertion(Slice::getContent, Matchers.contains(summer, royal));
+        FeatureMatcher<Page<Hotel>, Long> hasExpectedTotal =
+                mappedAssertion(Page::getTotalElements, Matchers.is(3L));
+
+        mockMvc.perform(get("/hotel/find?q=melb&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("/hotel/hotels"))
+                .andExpect(model().attribute("hotels", hasExpectedPageResult))
+                .andExpect(model().attribute("hotels", hasExpectedTotal));
+    }
+
+    /**
+     * Hotels near a point are listed nearest first along with their distance.
+     */
+    @Test
+    public void getHotels_Near_NearestFirst() throws Exception {
+        Hotel royal = new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 5, "royal@hotel.com");
+        royal.setId(1L);
+        Hotel summer = new Hotel("Hotel Summer", new Address("Hotel Summer", "133 kennedy avenue", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 4, "summer@hotel.com");
+        summer.setId(2L);
+
+        when(hotelGeoIndex.near(-37.81, 144.96, 5))
+                .thenReturn(List.of(new HotelGeoIndex.Nearby(2L, 0.4), new HotelGeoIndex.Nearby(1L, 2.5)));
+        when(hotelRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(royal, summer));
+
+        FeatureMatcher<Page<Hotel>, List<Hotel>> hasExpectedPageResult =
+                mappedAssertion(Slice::getContent, Matchers.contains(summer, royal));
+
+        mockMvc.perform(get("/hotel/search?near=-37.81,144.96&radiusKm=5"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("/hotel/hotels"))
+                .andExpect(model().attribute("hotels", hasExpectedPageResult))
+                .andExpect(model().attribute("distances", Matchers.hasEntry(2L, 0.4)))
+                .andExpect(content().string(Matchers.containsString("2.5 km")));
+
+        verify(hotelRepository, never()).findAllByLocation(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    public void getHotels_NearInvalid_BadRequest() throws Exception {
+        mockMvc.perform(get("/hotel/search?near=north"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getHotels_NearRadiusUnbounded_BadRequest() throws Exception {
+        when(hotelGeoIndex.near(anyDouble(), anyDouble(), anyDouble())).thenCallRealMethod();
+
+        mockMvc.perform(get("/hotel/search?near=-37.81,144.96&radiusKm=Infinity"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/hotel/search?near=-37.81,144.96&radiusKm=1000"))
+                .andExpect(status().isBadRequest());
+    }
+}
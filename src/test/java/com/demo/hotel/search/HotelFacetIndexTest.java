@@ -0,0 +1,150 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class HotelFacetIndexTest {
+
+    private HotelFacetIndex index;
+
+    private Hotel hotel(long id, State state, String suburb, String postcode, int stars) {
+        Hotel hotel = new Hotel("Hotel " + id, new Address("Hotel " + id, "33 kent street", null,
+                state, suburb, new Postcode(postcode)), stars, "hotel@hotel.com");
+        hotel.setId(id);
+        return hotel;
+    }
+
+    private Room room(long id, Hotel hotel, RoomType roomType) {
+        Room room = new Room("R" + id, roomType, 2, new BigDecimal("100.00"));
+        room.setId(id);
+        room.setHotel(hotel);
+        return room;
+    }
+
+    @Before
+    public void setup() {
+        index = new HotelFacetIndex();
+        Hotel royal = hotel(1, State.VIC, "melbourne", "3000", 5);
+        Hotel carlton = hotel(2, State.VIC, "Carlton", "3053", 4);
+        Hotel kent = hotel(3, State.VIC, "Melbourne", "3000", 4);
+        Hotel harbour = hotel(4, State.NSW, "Sydney", "2000", 3);
+        index.index(royal);
+        index.index(carlton);
+        index.index(kent);
+        index.index(harbour);
+
+        index.index(room(1, royal, RoomType.Luxury));
+        index.index(room(2, royal, RoomType.Luxury));
+        index.index(room(3, royal, RoomType.Economy));
+        index.index(room(4, carlton, RoomType.Economy));
+        index.index(room(5, harbour, RoomType.Business));
+    }
+
+    @Test
+    public void facets_AllHotels() {
+        HotelFacetIndex.Facets facets = index.facets(null, null, null);
+
+        assertThat(facets.getHotels()).isEqualTo(4);
+        assertThat(facets.getStates()).containsExactly(entry(State.VIC, 3), entry(State.NSW, 1));
+        assertThat(facets.getSuburbs()).containsExactly(entry("Melbourne", 2), entry("Carlton", 1),
+                entry("Sydney", 1));
+        assertThat(facets.getStars()).containsExactly(entry(4, 2), entry(5, 1), entry(3, 1));
+        // hotels offering each type, not rooms.
+        assertThat(facets.getRoomTypes()).containsExactly(entry(RoomType.Economy, 2), entry(RoomType.Business, 1),
+                entry(RoomType.Luxury, 1));
+    }
+
+    /**
+     * Search terms are matched ignoring case and surrounding whitespace the same way as the location search.
+     */
+    @Test
+    public void facets_ByLocation() {
+        HotelFacetIndex.Facets facets = index.facets(" vic ", "MELBOURNE", null);
+
+        assertThat(facets.getHotels()).isEqualTo(2);
+        assertThat(facets.getStates()).containsExactly(entry(State.VIC, 2));
+        assertThat(facets.getStars()).containsExactly(entry(5, 1), entry(4, 1));
+        assertThat(facets.getRoomTypes()).containsExactly(entry(RoomType.Economy, 1), entry(RoomType.Luxury, 1));
+
+        assertThat(index.facets(null, null, "3053").getSuburbs()).containsExactly(entry("Carlton", 1));
+    }
+
+    @Test
+    public void facets_NoMatches_Empty() {
+        HotelFacetIndex.Facets facets = index.facets("QLD", null, null);
+
+        assertThat(facets.getHotels()).isZero();
+        assertThat(facets.getStates()).isEmpty();
+        assertThat(facets.getRoomTypes()).isEmpty();
+    }
+
+    /**
+     * Moving a hotel moves its counts, including the room types it offers.
+     */
+    @Test
+    public void index_HotelUpdated_CountsMoved() {
+        index.index(hotel(1, State.NSW, "Sydney", "2000", 5));
+
+        assertThat(index.facets("VIC", null, null).getHotels()).isEqualTo(2);
+        assertThat(index.facets("VIC", null, null).getRoomTypes()).containsOnlyKeys(RoomType.Economy);
+        assertThat(index.facets("NSW", null, null).getRoomTypes())
+                .containsOnly(entry(RoomType.Luxury, 1), entry(RoomType.Economy, 1), entry(RoomType.Business, 1));
+        assertThat(index.facets(null, null, null).getHotels()).isEqualTo(4);
+    }
+
+    @Test
+    public void removeHotel_CountsRemoved() {
+        index.removeHotel(4L);
+        index.removeHotel(99L);
+
+        assertThat(index.facets("NSW", null, null).getHotels()).isZero();
+        assertThat(index.facets(null, null, null).getStates()).containsOnlyKeys(State.VIC);
+        assertThat(index.facets(null, null, null).getRoomTypes()).doesNotContainKey(RoomType.Business);
+    }
+
+    /**
+     * A room type is counted until the hotel's last room of that type is removed or changed.
+     */
+    @Test
+    public void rooms_TypeCountedWhileHotelOffersIt() {
+        Hotel royal = hotel(1, State.VIC, "melbourne", "3000", 5);
+
+        index.removeRoom(1L);
+        assertThat(index.facets(null, null, null).getRoomTypes()).containsEntry(RoomType.Luxury, 1);
+
+        index.index(room(2, royal, RoomType.Business));
+        assertThat(index.facets(null, null, null).getRoomTypes())
+                .doesNotContainKey(RoomType.Luxury)
+                .containsEntry(RoomType.Business, 2);
+    }
+
+    /**
+     * Rooms loaded before their hotel are counted once the hotel is indexed.
+     */
+    @Test
+    public void rooms_IndexedBeforeHotel() {
+        Hotel hotel = hotel(5, State.QLD, "Brisbane", "4000", 4);
+        index.index(room(6, hotel, RoomType.Balcony));
+        assertThat(index.facets("QLD", null, null).getHotels()).isZero();
+
+        index.index(hotel);
+        assertThat(index.facets("QLD", null, null).getRoomTypes()).containsExactly(entry(RoomType.Balcony, 1));
+    }
+
+    @Test
+    public void clear_RemovesEverything() {
+        index.clear();
+
+        assertThat(index.facets(null, null, null).getHotels()).isZero();
+    }
+}
@@ -0,0 +1,74 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times {@link HotelGeoIndex#near} over 100k hotels scattered across south eastern Australia with a dense cluster
+ * around Melbourne, the realistic worst case for a city search.
+ *
+ * <p>Not a unit test, run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.demo.hotel.search.HotelGeoIndexBenchmark} or from the IDE.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotelGeoIndexBenchmark {
+
+    private static final int HOTELS = 100_000;
+
+    @Param({"2", "10", "50"})
+    public double radiusKm;
+
+    private HotelGeoIndex index;
+
+    @Setup
+    public void setup() {
+        index = new HotelGeoIndex();
+        Random random = new Random(42);
+        for (long id = 0; id < HOTELS; id++) {
+            boolean melbourne = id % 4 == 0;
+            double latitude = melbourne ? -37.81 + random.nextGaussian() * 0.1 : -44 + random.nextDouble() * 16;
+            double longitude = melbourne ? 144.96 + random.nextGaussian() * 0.1 : 135 + random.nextDouble() * 19;
+
+            Address address = new Address("Hotel", "1 street", null, com.demo.domain.location.State.VIC,
+                    "Suburb", new Postcode("3000"));
+            address.setLatitude(latitude);
+            address.setLongitude(longitude);
+            Hotel hotel = new Hotel("Hotel " + id, address, 3, "hotel@hotel.com");
+            hotel.setId(id);
+            index.index(hotel);
+        }
+    }
+
+    @Benchmark
+    public List<HotelGeoIndex.Nearby> nearMelbourne() {
+        return index.near(-37.8136, 144.9631, radiusKm);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HotelGeoIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
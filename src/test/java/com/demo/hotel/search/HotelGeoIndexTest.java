@@ -0,0 +1,103 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class HotelGeoIndexTest {
+
+    private HotelGeoIndex index;
+
+    private Hotel hotel(long id, Double latitude, Double longitude) {
+        Address address = new Address("Hotel " + id, "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000"));
+        address.setLatitude(latitude);
+        address.setLongitude(longitude);
+        Hotel hotel = new Hotel("Hotel " + id, address, 4, "hotel@hotel.com");
+        hotel.setId(id);
+        return hotel;
+    }
+
+    @Before
+    public void setup() {
+        index = new HotelGeoIndex();
+        // Melbourne CBD, Carlton, Glen Waverley and Sydney.
+        index.index(hotel(1, -37.8136, 144.9631));
+        index.index(hotel(2, -37.8001, 144.9671));
+        index.index(hotel(3, -37.8790, 145.1645));
+        index.index(hotel(4, -33.8688, 151.2093));
+        index.index(hotel(5, null, null));
+    }
+
+    @Test
+    public void distanceKm_MelbourneToSydney() {
+        assertThat(HotelGeoIndex.distanceKm(-37.8136, 144.9631, -33.8688, 151.2093))
+                .isCloseTo(714, within(2.0));
+    }
+
+    /**
+     * Hotels across several grid cells are returned nearest first, hotels outside the radius are left out.
+     */
+    @Test
+    public void near_WithinRadius_NearestFirst() {
+        assertThat(index.near(-37.8000, 144.9670, 25))
+                .extracting(HotelGeoIndex.Nearby::getHotelId)
+                .containsExactly(2L, 1L, 3L);
+        assertThat(index.near(-37.8000, 144.9670, 5))
+                .extracting(HotelGeoIndex.Nearby::getHotelId)
+                .containsExactly(2L, 1L);
+        assertThat(index.near(-37.8000, 144.9670, 1000))
+                .extracting(HotelGeoIndex.Nearby::getHotelId)
+                .containsExactly(2L, 1L, 3L, 4L);
+    }
+
+    @Test
+    public void near_AcrossAntimeridian() {
+        index.index(hotel(6, -17.5, 178.8));
+        index.index(hotel(7, -16.5, -179.9));
+
+        assertThat(index.near(-17.0, 179.9, 200))
+                .extracting(HotelGeoIndex.Nearby::getHotelId)
+                .containsExactlyInAnyOrder(6L, 7L);
+    }
+
+    /**
+     * Re-indexing a hotel moves it, removing its coordinates takes it out of the index.
+     */
+    @Test
+    public void index_Moved() {
+        index.index(hotel(4, -37.8140, 144.9640));
+        assertThat(index.near(-37.8136, 144.9631, 1))
+                .extracting(HotelGeoIndex.Nearby::getHotelId)
+                .containsExactly(1L, 4L);
+
+        index.index(hotel(4, null, null));
+        index.remove(1L);
+        assertThat(index.near(-37.8136, 144.9631, 1)).isEmpty();
+    }
+
+    @Test
+    public void near_InvalidPoint_Rejected() {
+        assertThatThrownBy(() -> index.near(91, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(0, 0, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(Double.NaN, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * An unbounded radius would visit every cell of the grid and return every indexed hotel.
+     */
+    @Test
+    public void near_RadiusNotFiniteOrTooWide_Rejected() {
+        assertThatThrownBy(() -> index.near(0, 0, Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(0, 0, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(0, 0, HotelGeoIndex.MAX_RADIUS_KM + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(index.near(0, 0, HotelGeoIndex.MAX_RADIUS_KM)).isEmpty();
+    }
+}
@@ -0,0 +1,89 @@
+package com.demo.hotel.search;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HotelTextIndexTest {
+
+    private HotelTextIndex index;
+    private Hotel royal;
+    private Hotel summer;
+    private Hotel ryde;
+
+    private Hotel hotel(long id, String name, String street, State state, String suburb, String postcode) {
+        Hotel hotel = new Hotel(name, new Address(name, street, null, state, suburb, new Postcode(postcode)),
+                4, "hotel@hotel.com");
+        hotel.setId(id);
+        return hotel;
+    }
+
+    @Before
+    public void setup() {
+        index = new HotelTextIndex();
+        royal = hotel(1, "Hotel Royal", "33 kent street", State.VIC, "Melbourne", "3000");
+        summer = hotel(2, "Hotel Summer", "133 kennedy avenue", State.VIC, "Summer West", "3500");
+        ryde = hotel(3, "Ryde Lodge", "11A ryde avenue", State.NSW, "North Ryde", "2800");
+        index.index(royal);
+        index.index(summer);
+        index.index(ryde);
+    }
+
+    @Test
+    public void search_PartialWord_MatchesPrefix() {
+        assertThat(index.search("melb")).containsExactly(1L);
+        assertThat(index.search("KEN")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void search_Typo_Matches() {
+        assertThat(index.search("melbuorne")).containsExactly(1L);
+        assertThat(index.search("sumer")).containsExactly(2L);
+        // too short to allow a typo.
+        assertThat(index.search("nsx")).isEmpty();
+    }
+
+    /**
+     * Every word must match and exact matches rank above prefix matches, regardless of name.
+     */
+    @Test
+    public void search_MultipleWords_AllMustMatchRankedByScore() {
+        assertThat(index.search("ryde avenue")).containsExactly(3L);
+        assertThat(index.search("hotel vic")).containsExactly(1L, 2L);
+        assertThat(index.search("summer")).containsExactly(2L);
+
+        index.index(hotel(4, "Ascot Kentish", "1 main road", State.TAS, "Hobart", "7000"));
+        assertThat(index.search("kent")).containsExactly(1L, 4L);
+        assertThat(index.search("  ,, ")).isEmpty();
+        assertThat(index.search(null)).isEmpty();
+    }
+
+    /**
+     * Reindexing a hotel replaces its old words.
+     */
+    @Test
+    public void index_Reindexed_OldWordsRemoved() {
+        royal.setName("Grand Palace");
+        index.index(royal);
+
+        assertThat(index.search("royal")).isEmpty();
+        assertThat(index.search("grand")).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.search("grand")).isEmpty();
+        assertThat(index.search("vic")).containsExactly(2L);
+    }
+
+    @Test
+    public void editDistance_CountsSwapsAsOneEdit() {
+        assertThat(HotelTextIndex.editDistance("melbourne", "melbourne", 2)).isEqualTo(0);
+        assertThat(HotelTextIndex.editDistance("melbuorne", "melbourne", 2)).isEqualTo(1);
+        assertThat(HotelTextIndex.editDistance("melborne", "melbourne", 2)).isEqualTo(1);
+        assertThat(HotelTextIndex.editDistance("kent", "kennedy", 2)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,162 @@
+package com.demo.importer;
+
+import com.demo.domain.Extra;
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.persistance.HotelRepository;
+import com.demo.persistance.RoomRepository;
+import com.demo.reservation.ExtraRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {"hotel.import.threads=2", "hotel.import.chunk-size=2"})
+@Import({BulkImporter.class, HotelImportType.class, ExtraImportType.class})
+public class BulkImporterTest {
+
+    private static final String HEADER = "ref,name,email,stars,street_line1,street_line2,state,suburb,postcode," +
+            "latitude,longitude,room_number,room_type,beds,cost_per_night\n";
+
+    // 5 hotels, the 3rd has an invalid postcode.
+    private static final String HOTELS_CSV = HEADER +
+            "royal,Hotel Royal,royal@hotel.com,4,33 kent street,,VIC,Melbourne,3000,-37.81,144.96,R1,Luxury,2,63.30\n" +
+            "royal,Hotel Royal,royal@hotel.com,4,33 kent street,,VIC,Melbourne,3000,-37.81,144.96,R2,Economy,4,45.40\n" +
+            "\n" +
+            "summer,\"Summer, The Hotel\",summer@hotel.com,3,1 beach road,,NSW,Sydney,2000,,,S1,Balcony,2,80.00\n" +
+            "broken,Broken Hotel,broken@hotel.com,3,1 broken road,,VIC,Carlton,30,,,K1,Economy,1,10.00\n" +
+            "ryde,Ryde Hotel,ryde@hotel.com,2,4 ryde road,,NSW,Ryde,2112,,,,,,\n" +
+            "kent,Kent Hotel,kent@hotel.com,5,8 kent road,,VIC,Melbourne,3000,,,K2,Business,2,99.00\n";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private HotelImportType hotelImportType;
+
+    @Autowired
+    private ExtraImportType extraImportType;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ExtraRepository extraRepository;
+
+    @Autowired
+    private ImportProgressRepository progressRepository;
+
+    private ImportResult importHotels(String name, String csv) throws Exception {
+        return bulkImporter.importFrom(name, BulkImporter.source(csv.length(), 0),
+                new BufferedReader(new StringReader(csv)), ImportFormat.CSV, hotelImportType);
+    }
+
+    @Test
+    public void importFrom_Csv_ImportsValidHotelsWithRooms() throws Exception {
+        ImportResult result = importHotels("hotels.csv", HOTELS_CSV);
+
+        assertThat(result.getImportedRecords()).isEqualTo(4);
+        assertThat(result.getRejectedRecords()).isEqualTo(1);
+        assertThat(result.getSkippedRecords()).isZero();
+        assertThat(result.getRejections()).singleElement()
+                .satisfies(rejection -> {
+                    assertThat(rejection.getLineNumber()).isEqualTo(6);
+                    assertThat(rejection.getReason()).isEqualTo("postcode must be 4 digits");
+                });
+
+        assertThat(hotelRepository.findAll()).extracting(Hotel::getName)
+                .containsExactlyInAnyOrder("Hotel Royal", "Summer, The Hotel", "Ryde Hotel", "Kent Hotel");
+        assertThat(roomRepository.findAll()).extracting(Room::getRoomNumber)
+                .containsExactlyInAnyOrder("R1", "R2", "S1", "K2");
+        assertThat(progressRepository.findById("hotels.csv")).hasValueSatisfying(progress -> {
+            assertThat(progress.getCommittedRecords()).isEqualTo(5);
+            assertThat(progress.getRejectedRecords()).isEqualTo(1);
+        });
+    }
+
+    /**
+     * A restarted import continues after the records committed by the last run.
+     */
+    @Test
+    public void importFrom_Restarted_SkipsCommittedRecords() throws Exception {
+        ImportProgress progress = new ImportProgress("hotels.csv");
+        progress.setSource(BulkImporter.source(HOTELS_CSV.length(), 0));
+        progress.chunkCommitted(2, 0, LocalDateTime.now());
+        entityManager.persist(progress);
+
+        ImportResult result = importHotels("hotels.csv", HOTELS_CSV);
+
+        assertThat(result.getSkippedRecords()).isEqualTo(2);
+        assertThat(result.getImportedRecords()).isEqualTo(2);
+        assertThat(hotelRepository.findAll()).extracting(Hotel::getName)
+                .containsExactlyInAnyOrder("Ryde Hotel", "Kent Hotel");
+
+        ImportResult again = importHotels("hotels.csv", HOTELS_CSV);
+        assertThat(again.getSkippedRecords()).isEqualTo(5);
+        assertThat(again.getImportedRecords()).isZero();
+    }
+
+    /**
+     * Skipping the committed records of a file which has since changed would skip the wrong records.
+     */
+    @Test
+    public void importFrom_ChangedSinceCommitted_Refused() throws Exception {
+        importHotels("hotels.csv", HOTELS_CSV);
+
+        String changed = HOTELS_CSV +
+                "grand,Grand Hotel,grand@hotel.com,5,1 grand road,,VIC,Melbourne,3000,,,G1,Business,2,99.00\n";
+        assertThatIOException().isThrownBy(() -> importHotels("hotels.csv", changed))
+                .withMessageContaining("hotels.csv has changed since 5 of its records were imported");
+        assertThat(hotelRepository.findAll()).extracting(Hotel::getName).doesNotContain("Grand Hotel");
+    }
+
+    @Test
+    public void importFrom_Ndjson_ArrayRowsMergedWithObject() throws Exception {
+        String ndjson = "{\"ref\": \"royal\", \"name\": \"Hotel Royal\", \"email\": \"royal@hotel.com\", \"stars\": 4," +
+                " \"street_line1\": \"33 kent street\", \"state\": \"VIC\", \"suburb\": \"Melbourne\"," +
+                " \"postcode\": \"3000\", \"rooms\": [" +
+                "{\"room_number\": \"R1\", \"room_type\": \"Luxury\", \"beds\": 2, \"cost_per_night\": 63.30}," +
+                "{\"room_number\": \"R2\", \"room_type\": \"Economy\", \"beds\": 4, \"cost_per_night\": 45.40}]}\n" +
+                "not json\n";
+
+        ImportResult result = bulkImporter.importFrom("hotels.ndjson", "test",
+                new BufferedReader(new StringReader(ndjson)), ImportFormat.NDJSON, hotelImportType);
+
+        assertThat(result.getImportedRecords()).isEqualTo(1);
+        assertThat(result.getRejections()).extracting(ImportResult.Rejection::getLineNumber).containsExactly(2L);
+        assertThat(roomRepository.findAll()).extracting(Room::getRoomNumber).containsExactlyInAnyOrder("R1", "R2");
+    }
+
+    @Test
+    public void importFrom_Extras() throws Exception {
+        String csv = "description,per_night_price,type,category\n" +
+                "Foxtel,1.20,Basic,General\n" +
+                "Breakfast,2.00,Premium,Food\n" +
+                "Massage,free,Premium,General\n";
+
+        ImportResult result = bulkImporter.importFrom("extras.csv", "test",
+                new BufferedReader(new StringReader(csv)), ImportFormat.CSV, extraImportType);
+
+        assertThat(result.getImportedRecords()).isEqualTo(2);
+        assertThat(result.getRejections()).extracting(ImportResult.Rejection::getReason)
+                .containsExactly("per_night_price must be an amount but was free");
+        assertThat(extraRepository.findAll()).extracting(Extra::getDescription)
+                .containsExactlyInAnyOrder("Foxtel", "Breakfast");
+    }
+}
@@ -0,0 +1,141 @@
+package com.demo.importer;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.State;
+import com.demo.exceptions.InvalidRecordException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class HotelImportTypeTest {
+
+    private final HotelImportType hotelImportType = new HotelImportType();
+
+    private Map<String, String> row(String roomNumber) {
+        Map<String, String> row = new HashMap<>();
+        row.put("ref", "royal");
+        row.put("name", "Hotel Royal");
+        row.put("email", "royal@hotel.com");
+        row.put("stars", "4");
+        row.put("street_line1", "33 kent street");
+        row.put("state", "vic");
+        row.put("suburb", "Melbourne");
+        row.put("postcode", "3000");
+        row.put("latitude", "-37.8136");
+        row.put("longitude", "144.9631");
+        if (roomNumber != null) {
+            row.put("room_number", roomNumber);
+            row.put("room_type", "Luxury");
+            row.put("beds", "2");
+            row.put("cost_per_night", "63.30");
+        }
+        return row;
+    }
+
+    @Test
+    public void map_HotelWithRooms() throws Exception {
+        Hotel hotel = hotelImportType.map(List.of(row("A"), row("B")));
+
+        assertThat(hotel.getName()).isEqualTo("Hotel Royal");
+        assertThat(hotel.getStars()).isEqualTo(4);
+        assertThat(hotel.getAddress().getState()).isEqualTo(State.VIC);
+        assertThat(hotel.getAddress().getPostcode().getValue()).isEqualTo("3000");
+        assertThat(hotel.getAddress().getLatitude()).isEqualTo(-37.8136);
+        assertThat(hotel.getRooms()).extracting(Room::getRoomNumber).containsOnly("A", "B");
+        assertThat(hotel.getRooms()).allSatisfy(room -> {
+            assertThat(room.getHotel()).isSameAs(hotel);
+            assertThat(room.getRoomType()).isEqualTo(RoomType.Luxury);
+            assertThat(room.getCostPerNight()).isEqualByComparingTo(new BigDecimal("63.30"));
+        });
+    }
+
+    /**
+     * A single row with no room number is a hotel without rooms.
+     */
+    @Test
+    public void map_NoRoomNumber_NoRooms() throws Exception {
+        Hotel hotel = hotelImportType.map(List.of(row(null)));
+
+        assertThat(hotel.getRooms()).isEmpty();
+    }
+
+    @Test
+    public void map_CheckInOutTimes() throws Exception {
+        Map<String, String> row = row(null);
+        row.put("earliest_check_in", "09:00");
+        row.put("latest_check_in", "20:00");
+        row.put("standard_check_out", "12:00");
+        row.put("latest_check_out", "14:00");
+        row.put("late_checkout_fee", "45.60");
+
+        Hotel hotel = hotelImportType.map(List.of(row));
+
+        assertThat(hotel.getEarliestCheckInTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(hotel.getLatestCheckOutTime()).isEqualTo(LocalTime.of(14, 0));
+        assertThat(hotel.getLateCheckoutFee()).isEqualByComparingTo(new BigDecimal("45.60"));
+    }
+
+    @Test
+    public void map_SomeCheckInOutTimes_Rejected() {
+        Map<String, String> row = row(null);
+        row.put("earliest_check_in", "09:00");
+
+        assertThatThrownBy(() -> hotelImportType.map(List.of(row)))
+                .isInstanceOf(InvalidRecordException.class)
+                .hasMessageContaining("check in and out times");
+    }
+
+    @Test
+    public void map_InvalidPostcode_Rejected() {
+        Map<String, String> row = row("A");
+        row.put("postcode", "300");
+
+        assertThatThrownBy(() -> hotelImportType.map(List.of(row)))
+                .isInstanceOf(InvalidRecordException.class)
+                .hasMessage("postcode must be 4 digits");
+    }
+
+    @Test
+    public void map_MissingStreet_Rejected() {
+        Map<String, String> row = row("A");
+        row.put("street_line1", " ");
+
+        assertThatThrownBy(() -> hotelImportType.map(List.of(row)))
+                .isInstanceOf(InvalidRecordException.class)
+                .hasMessage("street_line1 is required");
+    }
+
+    @Test
+    public void map_InvalidValues_Rejected() {
+        Map<String, String> stars = row(null);
+        stars.put("stars", "6");
+        Map<String, String> state = row(null);
+        state.put("state", "XYZ");
+        Map<String, String> latitudeOnly = row(null);
+        latitudeOnly.remove("longitude");
+        Map<String, String> roomType = row("A");
+        roomType.put("room_type", "Penthouse");
+        Map<String, String> cost = row("A");
+        cost.put("cost_per_night", "-1");
+
+        for (Map<String, String> row : List.of(stars, state, latitudeOnly, roomType, cost)) {
+            assertThatThrownBy(() -> hotelImportType.map(List.of(row)))
+                    .isInstanceOf(InvalidRecordException.class);
+        }
+    }
+
+    @Test
+    public void map_RepeatedRoomNumber_Rejected() {
+        assertThatThrownBy(() -> hotelImportType.map(List.of(row("A"), row("A"))))
+                .isInstanceOf(InvalidRecordException.class)
+                .hasMessage("room_number A is repeated");
+    }
+}
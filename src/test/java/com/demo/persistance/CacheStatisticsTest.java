@@ -0,0 +1,65 @@
+package com.demo.persistance;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The second level cache only fills once a transaction commits so these tests commit their data, removing it again
+ * at the end.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(CacheStatistics.class)
+public class CacheStatisticsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private CacheStatistics cacheStatistics;
+
+    private CacheStatistics.RegionStats region(String name) {
+        return cacheStatistics.regionStats().stream()
+                .filter(stats -> stats.getRegion().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void commitAndStartNew() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+    }
+
+    @Test
+    public void findById_SecondRead_HitsCache() {
+        Hotel hotel = entityManager.persist(new Hotel("Hotel Cached",
+                new Address("Hotel Cached", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "cached@hotel.com"));
+        commitAndStartNew();
+
+        long hitsBefore = region("hotel").getHits();
+        assertThat(hotelRepository.findById(hotel.getId())).isPresent();
+        assertThat(region("hotel").getHits()).isGreaterThan(hitsBefore);
+
+        hotelRepository.deleteById(hotel.getId());
+        commitAndStartNew();
+        assertThat(hotelRepository.findById(hotel.getId())).isEmpty();
+    }
+}
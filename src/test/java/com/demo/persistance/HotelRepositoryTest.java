@@ -420,4 +420,90 @@ public class HotelRepositoryTest {
         assertThat(pageToHotelNames(pageResult), Matchers.containsInAnyOrder("Hotel EastNight"));
     }
 
-}
\ No newline at end of file
+
+    /**
+     * The search columns are normalised on write so searches ignore case without wrapping columns in upper(...).
+     */
+    @Test
+    public void persist_SearchColumnsNormalised() {
+        entityManager.persist(new Hotel("Hotel Royal",
+                new Address("Hotel Royal", "33 kent street", null,
+                        State.VIC, " east melbourne ", new Postcode(" 3000")),
+                4, "royal@hotel.com"));
+
+        Page<Hotel> pageResult = hotelRepository.findAllByLocation("vic", "East Melbourne", "3000",
+                PageRequest.of(0, 20));
+        assertThat(pageToHotelNames(pageResult), Matchers.contains("Hotel Royal"));
+
+        pageResult = hotelRepository.findAllByLocation(" ", "", null, PageRequest.of(0, 20));
+        assertThat(pageResult.getTotalElements(), Matchers.is(1L));
+    }
+
+    /**
+     * Each combination of search terms the UI sends must be answerable by an index rather than a full table scan.
+     */
+    @Test
+    public void locationSearch_UsesIndexes() {
+        entityManager.persist(new Hotel("Hotel Royal",
+                new Address("Hotel Royal", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "royal@hotel.com"));
+        entityManager.flush();
+
+        assertThat(explain("search_state = 'VIC'"), Matchers.containsString("IDX_HOTEL_SEARCH_STATE_SUBURB"));
+        assertThat(explain("search_state = 'VIC' and search_suburb = 'MELBOURNE'"),
+                Matchers.containsString("IDX_HOTEL_SEARCH_STATE_SUBURB"));
+        assertThat(explain("search_suburb = 'MELBOURNE'"), Matchers.containsString("IDX_HOTEL_SEARCH_SUBURB"));
+        assertThat(explain("search_postcode = '3000'"), Matchers.containsString("IDX_HOTEL_SEARCH_POSTCODE"));
+    }
+
+    private String explain(String where) {
+        return entityManager.getEntityManager()
+                .createNativeQuery("explain select id from hotel where " + where)
+                .getSingleResult()
+                .toString()
+                .toUpperCase();
+    }
+
+    /**
+     * Page flips reuse the cached total until a hotel in the searched location is added.
+     */
+    @Test
+    public void findAllByLocation_CachedCount_EvictedOnInsert() {
+        entityManager.persist(new Hotel("Hotel Royal",
+                new Address("Hotel Royal", "33 kent street", null,
+                        State.TAS, "Hobart", new Postcode("7000")),
+                4, "royal@hotel.com"));
+        entityManager.persist(new Hotel("Hotel Summer",
+                new Address("Hotel Summer", "133 kennedy avenue", null,
+                        State.TAS, "Hobart", new Postcode("7000")),
+                4, "summer@hotel.com"));
+
+        Page<Hotel> pageResult = hotelRepository.findAllByLocation("TAS", null, null, PageRequest.of(0, 1));
+        assertThat(pageResult.getTotalElements(), Matchers.is(2L));
+
+        entityManager.persist(new Hotel("Hotel EastNight",
+                new Address("Hotel EastNight", "54 east avenue", null,
+                        State.TAS, "Launceston", new Postcode("7250")),
+                4, "eastnight@hotel.com"));
+
+        pageResult = hotelRepository.findAllByLocation("tas", null, null, PageRequest.of(1, 1));
+        assertThat(pageResult.getTotalElements(), Matchers.is(3L));
+    }
+
+    @Test
+    public void findIdsByLocation_OnlyHotelsInLocation() {
+        Long royal = entityManager.persistAndGetId(new Hotel("Hotel Royal",
+                new Address("Hotel Royal", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "royal@hotel.com"), Long.class);
+
+        entityManager.persist(new Hotel("Hotel Ryde",
+                new Address("Hotel Ryde", "11A ryde avenue", null,
+                        State.NSW, "North Ryde", new Postcode("2800")),
+                4, "ryde@hotel.com"));
+
+        assertThat(hotelRepository.findIdsByLocation(" vic ", null, null), Matchers.contains(royal));
+        assertThat(hotelRepository.findIdsByLocation(null, null, null), Matchers.hasSize(2));
+    }
+}
@@ -0,0 +1,152 @@
+package com.demo.persistance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original {@code upper(...)}/{@code coalesce} location search against equality on the normalised
+ * search columns over 1 million hotels in H2. The schema mirrors the columns and indexes Hibernate generates for
+ * {@code Hotel}. The query plans are printed before the run to show which query is answered from an index.
+ *
+ * <p>Not a unit test, run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.demo.persistance.HotelSearchBenchmark} or from the IDE.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotelSearchBenchmark {
+
+    private static final int HOTELS = 1_000_000;
+    private static final String[] STATES = {"SA", "WA", "NT", "TAS", "NSW", "VIC", "ACT", "QLD"};
+
+    static final String UPPER_COALESCE_QUERY = "select id from hotel " +
+            "where upper(state) = coalesce(upper(?), upper(state)) " +
+            "and upper(suburb) = coalesce(upper(?), upper(suburb)) " +
+            "and postcode = coalesce(?, postcode) limit 20";
+
+    static final String SEARCH_COLUMN_QUERY = "select id from hotel " +
+            "where search_state = ? and search_suburb = ? limit 20";
+
+    private Connection connection;
+    private PreparedStatement upperCoalesce;
+    private PreparedStatement searchColumns;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:hotel_search_benchmark;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table hotel (id bigint primary key, state varchar(255), " +
+                    "suburb varchar(255), postcode varchar(255), search_state varchar(255), " +
+                    "search_suburb varchar(255), search_postcode varchar(255))");
+            statement.execute("create index idx_hotel_search_state_suburb on hotel (search_state, search_suburb)");
+            statement.execute("create index idx_hotel_search_suburb on hotel (search_suburb)");
+            statement.execute("create index idx_hotel_search_postcode on hotel (search_postcode)");
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into hotel values (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < HOTELS; i++) {
+                String state = STATES[i % STATES.length];
+                String suburb = "Suburb " + (i % 5000);
+                String postcode = String.valueOf(1000 + i % 8000);
+                insert.setLong(1, i);
+                insert.setString(2, state);
+                insert.setString(3, suburb);
+                insert.setString(4, postcode);
+                insert.setString(5, state);
+                insert.setString(6, suburb.toUpperCase());
+                insert.setString(7, postcode);
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        upperCoalesce = connection.prepareStatement(UPPER_COALESCE_QUERY);
+        upperCoalesce.setString(1, "vic");
+        upperCoalesce.setString(2, "suburb 4997");
+        upperCoalesce.setString(3, null);
+
+        searchColumns = connection.prepareStatement(SEARCH_COLUMN_QUERY);
+        searchColumns.setString(1, "VIC");
+        searchColumns.setString(2, "SUBURB 4997");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int upperCoalesce() throws SQLException {
+        return count(upperCoalesce);
+    }
+
+    @Benchmark
+    public int searchColumns() throws SQLException {
+        return count(searchColumns);
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static void printPlans() throws SQLException {
+        HotelSearchBenchmark benchmark = new HotelSearchBenchmark();
+        benchmark.setup();
+        try (Statement statement = benchmark.connection.createStatement()) {
+            for (String query : new String[]{UPPER_COALESCE_QUERY, SEARCH_COLUMN_QUERY}) {
+                String explain = "explain " + query.replaceFirst("\\?", "'VIC'")
+                        .replaceFirst("\\?", "'SUBURB 4997'")
+                        .replaceFirst("\\?", "null");
+                try (ResultSet plan = statement.executeQuery(explain)) {
+                    plan.next();
+                    System.out.println(plan.getString(1));
+                }
+            }
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, SQLException {
+        printPlans();
+        new Runner(new OptionsBuilder().include(HotelSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
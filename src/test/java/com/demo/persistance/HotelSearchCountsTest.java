@@ -0,0 +1,79 @@
+package com.demo.persistance;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HotelSearchCountsTest {
+
+    private final HotelSearchCounts searchCounts = new HotelSearchCounts(Duration.ofSeconds(30));
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private LongSupplier countQuery(long count) {
+        return () -> {
+            queries.incrementAndGet();
+            return count;
+        };
+    }
+
+    private Hotel hotel(State state, String suburb, String postcode) {
+        return new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                state, suburb, new Postcode(postcode)), 4, "royal@hotel.com");
+    }
+
+    /**
+     * Searches differing only by case or surrounding whitespace share the cached count until it expires.
+     */
+    @Test
+    public void count_SameLocation_QueriedOncePerTtl() {
+        assertThat(searchCounts.count("vic", "melbourne", null, countQuery(5), 0)).isEqualTo(5);
+        assertThat(searchCounts.count(" VIC", "Melbourne ", "", countQuery(6), 29_999)).isEqualTo(5);
+        assertThat(queries).hasValue(1);
+
+        assertThat(searchCounts.count("VIC", "MELBOURNE", null, countQuery(6), 30_000)).isEqualTo(6);
+        assertThat(queries).hasValue(2);
+    }
+
+    /**
+     * Only the counts a hotel could be included in are evicted when it is added or removed.
+     */
+    @Test
+    public void evict_OnlyMatchingLocations() {
+        searchCounts.count(null, null, null, countQuery(10), 0);
+        searchCounts.count("VIC", null, null, countQuery(4), 0);
+        searchCounts.count("VIC", "Melbourne", "3000", countQuery(2), 0);
+        searchCounts.count("NSW", null, null, countQuery(3), 0);
+        searchCounts.count("VIC", "Geelong", null, countQuery(1), 0);
+        queries.set(0);
+
+        searchCounts.evict(hotel(State.VIC, "melbourne", "3000"));
+
+        assertThat(searchCounts.count(null, null, null, countQuery(11), 1)).isEqualTo(11);
+        assertThat(searchCounts.count("VIC", null, null, countQuery(5), 1)).isEqualTo(5);
+        assertThat(searchCounts.count("VIC", "Melbourne", "3000", countQuery(3), 1)).isEqualTo(3);
+        assertThat(searchCounts.count("NSW", null, null, countQuery(99), 1)).isEqualTo(3);
+        assertThat(searchCounts.count("VIC", "Geelong", null, countQuery(99), 1)).isEqualTo(1);
+        assertThat(queries).hasValue(3);
+    }
+
+    /**
+     * A count that was being queried while a hotel changed may be stale so it is not cached.
+     */
+    @Test
+    public void count_HotelChangedDuringQuery_NotCached() {
+        searchCounts.count("VIC", null, null, () -> {
+            searchCounts.evictAll();
+            return 4;
+        }, 0);
+
+        assertThat(searchCounts.count("VIC", null, null, countQuery(5), 1)).isEqualTo(5);
+    }
+}
@@ -0,0 +1,115 @@
+package com.demo.persistance;
+
+import com.demo.domain.*;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Renders whole pages against the database, so lazy loading done by the templates rather than the queries is also
+ * counted. MockMvc runs each request on the test thread, where the statements are counted.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = SqlStatementLimit.INSPECTOR_PROPERTY)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PageSqlStatementsTest {
+
+    @Rule
+    public final SqlStatementLimit sqlStatements = SqlStatementLimit.atMost(4);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Hotel persistHotel(String name, int rooms) {
+        Hotel hotel = new Hotel("Hotel " + name,
+                new Address("Hotel " + name, "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, name + "@hotel.com");
+        for (int i = 0; i < rooms; i++) {
+            hotel.addRoom(new Room(name + i, RoomType.Luxury, 4, BigDecimal.valueOf(63.3)));
+        }
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(hotel));
+        return hotel;
+    }
+
+    @Test
+    public void hotelRooms() throws Exception {
+        Hotel hotel = persistHotel("Rooms", 5);
+
+        sqlStatements.start();
+        mockMvc.perform(get("/hotel/{id}/rooms", hotel.getId()).param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Rooms4")));
+        assertThat(sqlStatements.count()).isLessThanOrEqualTo(3);
+    }
+
+    /**
+     * The completed page shows every guest, extra and meal plan of the saved reservation, see
+     * {@code BookingService.findBooking}.
+     */
+    @Test
+    public void reservationCompleted() throws Exception {
+        Room room = persistHotel("Completed", 1).getRooms().iterator().next();
+        Extra wifi = new Extra("Wifi", BigDecimal.valueOf(2), Extra.Type.Premium, Extra.Category.General);
+        Extra breakfast = new Extra("Breakfast", BigDecimal.valueOf(10), Extra.Type.Premium, Extra.Category.Food);
+
+        Reservation reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.setDates(new ReservationDates(LocalDate.now().plusDays(1), LocalDate.now().plusDays(3),
+                LocalTime.of(10, 0), false, true));
+        reservation.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
+                "3455", "344", YearMonth.of(2018, 1)));
+        reservation.addGuest(new Guest("John", "Smith", false));
+        reservation.addGuest(new Guest("Jane", "Smith", false));
+        reservation.addGuest(new Guest("Jimmy", "Smith", true));
+        reservation.setGeneralExtras(Set.of(wifi));
+        reservation.createMealPlans();
+        reservation.getMealPlans().forEach(mealPlan -> {
+            mealPlan.setFoodExtras(List.of(breakfast));
+            mealPlan.setDietaryRequirements(List.of(DietaryRequirement.Vegan));
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(wifi);
+            entityManager.persist(breakfast);
+            entityManager.persist(reservation);
+        });
+
+        sqlStatements.start();
+        mockMvc.perform(get("/reservation/completed").flashAttr("reservationId", reservation.getReservationId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Jimmy")))
+                .andExpect(content().string(containsString("Wifi")))
+                .andExpect(content().string(containsString("Breakfast")));
+    }
+}
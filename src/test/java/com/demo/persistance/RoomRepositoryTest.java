@@ -5,6 +5,8 @@ import com.demo.domain.location.Address;
 import com.demo.domain.location.Postcode;
 import com.demo.domain.location.State;
 import com.demo.persistance.predicates.RoomPredicates;
+import com.querydsl.core.types.Predicate;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +14,28 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @RunWith(SpringRunner.class)
-@DataJpaTest
+@DataJpaTest(properties = SqlStatementLimit.INSPECTOR_PROPERTY)
 public class RoomRepositoryTest {
 
+    @Rule
+    public final SqlStatementLimit sqlStatements = SqlStatementLimit.atMost(1);
+
     @Autowired
     private TestEntityManager entityManager;
 
@@ -43,12 +54,49 @@ public class RoomRepositoryTest {
         Long nextMissingHotelId = hotelId + 1;
 
         PageRequest page = PageRequest.of(0, 20);
-        Page<Room> rooms = roomRepository.findAll(RoomPredicates.availableRoom(nextMissingHotelId), page);
+        Page<Room> rooms = roomRepository.findAll(RoomPredicates.availableRoom(nextMissingHotelId, Set.of()), page);
         assertThat(rooms.getTotalElements()).isEqualTo(0);
     }
 
     /**
-     * When a hotel has many rooms but only 1 room is free (no reservation assigned) it should be the only room returned.
+     * Creates a valid paid {@code Reservation} for the room spanning the supplied dates.
+     */
+    private Reservation reservationFor(Room room, LocalDate checkIn, LocalDate checkOut) {
+        Reservation reservation = new Reservation();
+        ReservationDates reservationDates = new ReservationDates();
+        reservationDates.setCheckInDate(checkIn);
+        reservationDates.setCheckOutDate(checkOut);
+        reservationDates.setEstimatedCheckInTime(LocalTime.of(10, 0));
+        reservationDates.setPolicyAcknowledged(true);
+        reservation.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
+                "3455", "344", YearMonth.of(2018, 1)));
+        reservation.setDates(reservationDates);
+        reservation.setRoom(room);
+        return reservation;
+    }
+
+    /**
+     * When no rooms are unavailable, every room in the hotel is returned.
+     */
+    @Test
+    public void availableRoom_NoUnavailableRooms_ReturnsAllHotelRooms() {
+        Hotel hotel = new Hotel("Hotel Royal",
+                new Address("Hotel Royal", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "royal@hotel.com");
+        hotel.addRoom(new Room("A", RoomType.Luxury, 2, BigDecimal.valueOf(63.3)));
+        hotel.addRoom(new Room("B", RoomType.Economy, 4, BigDecimal.valueOf(45.4)));
+
+        Long hotelId = entityManager.persistAndGetId(hotel, Long.class);
+        PageRequest page = PageRequest.of(0, 20);
+        Page<Room> availableRooms = roomRepository.findAll(RoomPredicates.availableRoom(hotelId, Set.of()), page);
+
+        assertThat(availableRooms.getTotalElements()).isEqualTo(2);
+    }
+
+    /**
+     * When a hotel has many rooms but only 1 room is free it should be the only room returned. A room having a
+     * reservation does not make it unavailable, only the supplied unavailable room ids do.
      */
     @Test
     public void availableRoom_AtLeastOneFree() {
@@ -57,36 +105,26 @@ public class RoomRepositoryTest {
                         State.VIC, "Melbourne", new Postcode("3000")),
                 4, "royal@hotel.com");
 
-        // This room is free since the reservation is null by default.
         Room roomA = new Room("A", RoomType.Luxury, 2, BigDecimal.valueOf(63.3));
         hotel.addRoom(roomA);
-
         Room roomB = new Room("B", RoomType.Economy, 4, BigDecimal.valueOf(45.4));
-        // boiler plate to create a valid reservation...
-        Reservation reservation = new Reservation();
-        ReservationDates reservationDates = new ReservationDates();
-        reservationDates.setCheckInDate(LocalDate.now());
-        reservationDates.setCheckOutDate(LocalDate.now().plusDays(3));
-        reservationDates.setEstimatedCheckInTime(LocalTime.of(10, 0));
-        reservationDates.setPolicyAcknowledged(true);
-        reservation.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
-                "3455", "344", YearMonth.of(2018, 1)));
-        reservation.setDates(reservationDates);
-
-        roomB.setReservation(reservation);
         hotel.addRoom(roomB);
 
         Long hotelId = entityManager.persistAndGetId(hotel, Long.class);
+        entityManager.persist(reservationFor(roomA, LocalDate.now().plusDays(10), LocalDate.now().plusDays(12)));
+        entityManager.persist(reservationFor(roomB, LocalDate.now(), LocalDate.now().plusDays(3)));
+
         PageRequest page = PageRequest.of(0, 20);
-        Page<Room> availableRooms = roomRepository.findAll(RoomPredicates.availableRoom(hotelId), page);
+        Page<Room> availableRooms = roomRepository.findAll(
+                RoomPredicates.availableRoom(hotelId, Set.of(roomB.getId())), page);
 
-        // The only free hotel is returned.
+        // The only free room is returned.
         assertThat(availableRooms.getTotalElements()).isEqualTo(1);
         assertThat(availableRooms.getContent().get(0).getRoomNumber()).isEqualTo("A");
     }
 
     /**
-     * When a hotel has no free rooms, an empty list should be returned. Note: Both rooms have a non null reservation.
+     * When a hotel has no free rooms, an empty list should be returned.
      */
     @Test
     public void availableRoom_NoneFree() {
@@ -95,41 +133,82 @@ public class RoomRepositoryTest {
                         State.VIC, "Melbourne", new Postcode("3000")),
                 4, "royal@hotel.com");
 
-        // boiler plate to create a valid reservation...
         Room roomA = new Room("A", RoomType.Luxury, 2, BigDecimal.valueOf(63.3));
-        Reservation reservationA = new Reservation();
-        ReservationDates reservationDatesA = new ReservationDates();
-        reservationDatesA.setCheckInDate(LocalDate.now());
-        reservationDatesA.setCheckOutDate(LocalDate.now().plusDays(3));
-        reservationDatesA.setEstimatedCheckInTime(LocalTime.of(10, 0));
-        reservationDatesA.setPolicyAcknowledged(true);
-        reservationA.setDates(reservationDatesA);
-        reservationA.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
-                "3455", "344", YearMonth.of(2018, 1)));
-        roomA.setReservation(reservationA);
-
-        // boiler plate to create a valid reservation...
         Room roomB = new Room("B", RoomType.Economy, 4, BigDecimal.valueOf(45.4));
-        Reservation reservationB = new Reservation();
-        ReservationDates reservationDatesB = new ReservationDates();
-        reservationDatesB.setCheckInDate(LocalDate.now());
-        reservationDatesB.setCheckOutDate(LocalDate.now().plusDays(3));
-        reservationDatesB.setEstimatedCheckInTime(LocalTime.of(10, 0));
-        reservationDatesB.setPolicyAcknowledged(true);
-        reservationB.setDates(reservationDatesB);
-        reservationB.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
-                "3455", "344", YearMonth.of(2018, 1)));
-        roomB.setReservation(reservationB);
-
         hotel.addRoom(roomA);
         hotel.addRoom(roomB);
 
         Long id = entityManager.persistAndGetId(hotel, Long.class);
         PageRequest page = PageRequest.of(0, 20);
-        Page<Room> availableRooms = roomRepository.findAll(RoomPredicates.availableRoom(id), page);
+        Page<Room> availableRooms = roomRepository.findAll(
+                RoomPredicates.availableRoom(id, Set.of(roomA.getId(), roomB.getId())), page);
 
         // no rooms are free
         assertThat(availableRooms.getTotalElements()).isEqualTo(0);
         assertThat(availableRooms.getContent()).isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Walking every keyset page returns each room exactly once in sort order, rooms sharing a cost are ordered by id.
+     */
+    @Test
+    public void keysetPaging_CostPerNightDesc_VisitsEveryRoomInOrder() {
+        Hotel hotel = new Hotel("Hotel Royal",
+                new Address("Hotel Royal", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "royal@hotel.com");
+        hotel.addRoom(new Room("A", RoomType.Luxury, 2, new BigDecimal("90.00")));
+        hotel.addRoom(new Room("B", RoomType.Economy, 4, new BigDecimal("45.40")));
+        hotel.addRoom(new Room("C", RoomType.Business, 2, new BigDecimal("63.30")));
+        hotel.addRoom(new Room("D", RoomType.Economy, 2, new BigDecimal("63.30")));
+        hotel.addRoom(new Room("E", RoomType.Balcony, 3, new BigDecimal("63.30")));
+        Long hotelId = entityManager.persistAndGetId(hotel, Long.class);
+
+        KeysetQueries keysetQueries = new KeysetQueries(entityManager.getEntityManager());
+        Predicate inHotel = RoomPredicates.inHotel(hotelId);
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("costPerNight")));
+
+        List<Room> visited = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<Room> slice = keysetQueries.findSlice(QRoom.room, inHotel, RoomPredicates.KEYSET,
+                    pageable, cursor);
+            visited.addAll(slice.getContent());
+            pageSizes.add(slice.getNumberOfElements());
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+
+        List<Room> expected = hotel.getRooms().stream()
+                .sorted(Comparator.comparing(Room::getCostPerNight).reversed().thenComparing(Room::getId))
+                .collect(Collectors.toList());
+        assertThat(visited).containsExactlyElementsOf(expected);
+        assertThat(visited.get(0).getRoomNumber()).isEqualTo("A");
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+    }
+
+    /**
+     * Listing rooms from several hotels fetches the hotels in the same query.
+     */
+    @Test
+    public void findAll_RoomsOfManyHotels_SingleQuery() {
+        for (String name : List.of("Royal", "Summer", "Ryde")) {
+            Hotel hotel = new Hotel("Hotel " + name,
+                    new Address("Hotel " + name, "33 kent street", null,
+                            State.VIC, "Melbourne", new Postcode("3000")),
+                    4, name + "@hotel.com");
+            hotel.addRoom(new Room(name, RoomType.Luxury, 2, BigDecimal.valueOf(63.3)));
+            entityManager.persist(hotel);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        sqlStatements.start();
+        Page<Room> rooms = roomRepository.findAll(QRoom.room.roomNumber.in("Royal", "Summer", "Ryde"),
+                PageRequest.of(0, 20));
+
+        assertThat(rooms.getContent()).extracting(room -> room.getHotel().getName())
+                .containsExactlyInAnyOrder("Hotel Royal", "Hotel Summer", "Hotel Ryde");
+        assertThat(sqlStatements.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.demo.persistance;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread. Hibernate creates its own instance, so the counts are
+ * static. Register it with {@link SqlStatementLimit#INSPECTOR_PROPERTY}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.set(COUNT.get() + 1);
+        return sql;
+    }
+
+    static int count() {
+        return COUNT.get();
+    }
+
+    static void reset() {
+        COUNT.set(0);
+    }
+}
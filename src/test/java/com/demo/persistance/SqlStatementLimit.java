@@ -0,0 +1,72 @@
+package com.demo.persistance;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Fails a test when a request issues more SQL statements than allowed, catching lazy loading that runs 1 query per
+ * row. Statements are only counted between {@link #start()} and the next {@code start()} or the end of the test, so
+ * a test sets up its data then starts counting. Requests made through MockMvc are counted the same way, see
+ * {@code PageSqlStatementsTest}.
+ *
+ * <pre>
+ *     &#64;DataJpaTest(properties = SqlStatementLimit.INSPECTOR_PROPERTY)
+ *     public class RoomRepositoryTest {
+ *         &#64;Rule
+ *         public final SqlStatementLimit sqlStatements = SqlStatementLimit.atMost(1);
+ * </pre>
+ */
+public class SqlStatementLimit implements TestRule {
+
+    public static final String INSPECTOR_PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + "com.demo.persistance.SqlStatementCounter";
+
+    private final int maxStatements;
+    private boolean counting;
+
+    private SqlStatementLimit(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public static SqlStatementLimit atMost(int maxStatements) {
+        return new SqlStatementLimit(maxStatements);
+    }
+
+    /**
+     * Checks the statements of the previous request, if any, then starts counting the next.
+     */
+    public void start() {
+        verify();
+        SqlStatementCounter.reset();
+        counting = true;
+    }
+
+    /**
+     * @return Statements issued since {@link #start()}.
+     */
+    public int count() {
+        return SqlStatementCounter.count();
+    }
+
+    private void verify() {
+        if (counting && count() > maxStatements) {
+            fail("Expected at most " + maxStatements + " SQL statements but " + count() + " were issued");
+        }
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                counting = false;
+                base.evaluate();
+                verify();
+            }
+        };
+    }
+}
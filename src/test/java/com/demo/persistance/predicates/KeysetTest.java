@@ -0,0 +1,76 @@
+package com.demo.persistance.predicates;
+
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class KeysetTest {
+
+    private static final Sort COST_DESC = Sort.by(Sort.Order.desc("costPerNight"));
+
+    private Room room(long id, String roomNumber, BigDecimal costPerNight) {
+        Room room = new Room(roomNumber, RoomType.Economy, 2, costPerNight);
+        room.setId(id);
+        return room;
+    }
+
+    @Test
+    public void after_FirstPage_NoPredicate() {
+        assertThat(RoomPredicates.KEYSET.after(COST_DESC, null)).isNull();
+        assertThat(RoomPredicates.KEYSET.after(COST_DESC, "")).isNull();
+    }
+
+    /**
+     * The seek predicate continues after the last row's sort key, using the id to break ties.
+     */
+    @Test
+    public void after_SeeksPastLastRow() {
+        String cursor = RoomPredicates.KEYSET.cursorAfter(room(7, "A", new BigDecimal("63.30")), COST_DESC);
+
+        assertThat(RoomPredicates.KEYSET.after(COST_DESC, cursor).toString())
+                .isEqualTo("room.costPerNight < 63.30 || room.costPerNight = 63.30 && room.id > 7");
+    }
+
+    /**
+     * Values with separators in them survive the round trip through the cursor.
+     */
+    @Test
+    public void after_StringKey_RoundTrips() {
+        Sort sort = Sort.by("roomNumber", "beds");
+        String cursor = RoomPredicates.KEYSET.cursorAfter(room(3, "1,2 & 3=%", BigDecimal.TEN), sort);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(RoomPredicates.KEYSET.after(sort, cursor).toString())
+                .contains("room.roomNumber > 1,2 & 3=%")
+                .contains("room.beds > 2")
+                .contains("room.id > 3");
+    }
+
+    @Test
+    public void after_CursorForDifferentSort_Rejected() {
+        String cursor = RoomPredicates.KEYSET.cursorAfter(room(7, "A", BigDecimal.TEN), COST_DESC);
+
+        assertThatThrownBy(() -> RoomPredicates.KEYSET.after(Sort.by("roomNumber", "beds"), cursor))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoomPredicates.KEYSET.after(COST_DESC, "not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void orderBy_UnknownProperty_Rejected() {
+        assertThatThrownBy(() -> RoomPredicates.KEYSET.orderBy(Sort.by("hotel.name")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void orderBy_EndsWithId() {
+        assertThat(RoomPredicates.KEYSET.orderBy(COST_DESC))
+                .extracting(Object::toString)
+                .containsExactly("room.costPerNight DESC", "room.id ASC");
+    }
+}
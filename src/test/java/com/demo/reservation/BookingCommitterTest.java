@@ -0,0 +1,188 @@
+package com.demo.reservation;
+
+import com.demo.domain.*;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import com.demo.persistance.RoomRepository;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import com.demo.reservation.inventory.ReservationIntervalIndex;
+import com.demo.reservation.inventory.RoomLocks;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Books through the transactional {@code BookingCommitter} against the database, without the transaction each test
+ * otherwise runs in, so every attempt really commits or rolls back.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingCommitterTest {
+
+    // How many more attempts lose the room to another booking committed while they run.
+    private static final AtomicInteger conflicts = new AtomicInteger();
+
+    @TestConfiguration
+    static class Config {
+
+        /**
+         * Commits another booking of the same room, incrementing its version, after the attempt has loaded it.
+         */
+        @Bean
+        BookingCommitter bookingCommitter(ReservationRepository reservationRepository, RoomRepository roomRepository,
+                                          PlatformTransactionManager transactionManager) {
+            TransactionTemplate otherBooking = new TransactionTemplate(transactionManager);
+            otherBooking.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            RoomRepository conflicting = mock(RoomRepository.class, delegatesTo(roomRepository));
+            doAnswer(invocation -> {
+                Long roomId = invocation.getArgument(0);
+                Optional<Room> room = roomRepository.findByIdForBooking(roomId);
+                if (conflicts.getAndDecrement() > 0) {
+                    otherBooking.executeWithoutResult(status -> roomRepository.findByIdForBooking(roomId));
+                }
+                return room;
+            }).when(conflicting).findByIdForBooking(anyLong());
+            return new BookingCommitter(reservationRepository, conflicting);
+        }
+    }
+
+    @Autowired
+    private BookingCommitter bookingCommitter;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BookingService bookingService;
+
+    @Before
+    public void setup() {
+        conflicts.set(0);
+        bookingService = new BookingService(bookingCommitter, reservationRepository, new AvailabilityIndex(),
+                new ReservationIntervalIndex(), new RoomLocks(4));
+    }
+
+    private Room persistRoom(String name) {
+        Hotel hotel = new Hotel("Hotel " + name,
+                new Address("Hotel " + name, "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, name + "@hotel.com");
+        Room room = new Room(name, RoomType.Luxury, 4, BigDecimal.valueOf(63.3));
+        hotel.addRoom(room);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(hotel));
+        return room;
+    }
+
+    private Reservation reservationFor(Room room) {
+        Reservation reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.setDates(new ReservationDates(LocalDate.now().plusDays(1), LocalDate.now().plusDays(3),
+                LocalTime.of(10, 0), false, true));
+        reservation.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
+                "3455", "344", YearMonth.of(2018, 1)));
+        reservation.addGuest(new Guest("John", "Smith", false));
+        reservation.addGuest(new Guest("Jane", "Smith", false));
+        reservation.createMealPlans();
+        return reservation;
+    }
+
+    private Object idOf(Object entity) {
+        return entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
+    private List<Reservation> committedFor(Room room) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                "select r from Reservation r where r.room.id = :roomId", Reservation.class)
+                .setParameter("roomId", room.getId())
+                .getResultList());
+    }
+
+    private List<Object> committedGuestIdsOf(Reservation reservation) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                "select g.id from Reservation r join r.guests g where r.id = :id", Object.class)
+                .setParameter("id", reservation.getId())
+                .getResultList());
+    }
+
+    /**
+     * The attempt that lost the room had already given the reservation, guests, meal plans and payment ids, which
+     * the retry must not merge into copies.
+     */
+    @Test
+    public void book_VersionConflict_RetryCommitsReservationAsGiven() throws Exception {
+        Room room = persistRoom("Conflict");
+        Reservation reservation = reservationFor(room);
+        conflicts.set(1);
+
+        Reservation saved = bookingService.book(reservation);
+
+        assertThat(conflicts.get()).isNegative();
+        assertThat(saved).isSameAs(reservation);
+        List<Reservation> committed = committedFor(room);
+        assertThat(committed).hasSize(1);
+        assertThat(committed.get(0).getId()).isEqualTo(reservation.getId());
+        List<Object> guestIds = reservation.getGuests().stream().map(this::idOf).collect(toList());
+        assertThat(committedGuestIdsOf(reservation)).containsExactlyInAnyOrderElementsOf(guestIds);
+        Long paymentId = transactionTemplate.execute(status -> entityManager
+                .find(Reservation.class, reservation.getId()).getCompletedPayment().getId());
+        assertThat(paymentId).isEqualTo(reservation.getCompletedPayment().getId());
+        Long mealPlans = transactionTemplate.execute(status -> entityManager.createQuery(
+                "select count(m) from MealPlan m where m.reservation.id = :id", Long.class)
+                .setParameter("id", reservation.getId())
+                .getSingleResult());
+        assertThat(mealPlans).isEqualTo(2);
+    }
+
+    /**
+     * Submitting a booking again, such as after its response was lost, returns the committed booking rather than
+     * failing against its own stay.
+     */
+    @Test
+    public void book_AlreadyCommitted_ReturnsCommittedBooking() throws Exception {
+        Room room = persistRoom("Resubmitted");
+        Reservation reservation = reservationFor(room);
+        bookingService.book(reservation);
+
+        Reservation resubmitted = bookingService.book(reservation);
+
+        assertThat(resubmitted.getId()).isEqualTo(reservation.getId());
+        assertThat(committedFor(room)).hasSize(1);
+    }
+}
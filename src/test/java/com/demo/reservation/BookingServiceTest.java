@@ -0,0 +1,142 @@
+package com.demo.reservation;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.exceptions.RoomUnavailableException;
+import com.demo.reservation.inventory.AvailabilityIndex;
+import com.demo.reservation.inventory.ReservationIntervalIndex;
+import com.demo.reservation.inventory.RoomLocks;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BookingServiceTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2030, 1, 10);
+
+    private BookingCommitter bookingCommitter;
+    private AvailabilityIndex availabilityIndex;
+    private ReservationIntervalIndex reservationIntervalIndex;
+    private BookingService bookingService;
+    private Room room;
+
+    @Before
+    public void setup() {
+        bookingCommitter = mock(BookingCommitter.class);
+        availabilityIndex = new AvailabilityIndex();
+        reservationIntervalIndex = new ReservationIntervalIndex();
+        bookingService = new BookingService(bookingCommitter, mock(ReservationRepository.class), availabilityIndex,
+                reservationIntervalIndex, new RoomLocks(4));
+
+        Hotel hotel = new Hotel();
+        hotel.setId(1L);
+        room = new Room("R1", RoomType.Economy, 2, BigDecimal.valueOf(50));
+        room.setId(1L);
+        hotel.addRoom(room);
+    }
+
+    private Reservation reservationFor(LocalDate checkIn, LocalDate checkOut) {
+        Reservation reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.setDates(new ReservationDates(checkIn, checkOut, LocalTime.of(10, 0), false, true));
+        return reservation;
+    }
+
+    private ObjectOptimisticLockingFailureException versionConflict() {
+        return new ObjectOptimisticLockingFailureException(Room.class, room.getId());
+    }
+
+    @Test
+    public void book_Committed_NightsIndexed() throws Exception {
+        Reservation reservation = reservationFor(JAN_10, JAN_10.plusDays(2));
+        when(bookingCommitter.commit(reservation)).thenReturn(reservation);
+
+        assertThat(bookingService.book(reservation)).isSameAs(reservation);
+        assertThat(availabilityIndex.isAvailable(room.getId(), JAN_10, JAN_10.plusDays(1))).isFalse();
+        assertThat(reservationIntervalIndex.findOverlap(room.getId(), JAN_10, JAN_10.plusDays(1))).isPresent();
+    }
+
+    /**
+     * Losing the optimistic lock to a booking for other dates is retried rather than failing the payment.
+     */
+    @Test
+    public void book_VersionConflict_Retried() throws Exception {
+        Reservation reservation = reservationFor(JAN_10, JAN_10.plusDays(2));
+        when(bookingCommitter.commit(reservation)).thenThrow(versionConflict()).thenReturn(reservation);
+
+        assertThat(bookingService.book(reservation)).isSameAs(reservation);
+        verify(bookingCommitter, times(2)).commit(reservation);
+    }
+
+    @Test
+    public void book_VersionConflictEveryAttempt_RoomUnavailable() throws Exception {
+        Reservation reservation = reservationFor(JAN_10, JAN_10.plusDays(2));
+        when(bookingCommitter.commit(reservation)).thenThrow(versionConflict());
+
+        assertThatThrownBy(() -> bookingService.book(reservation)).isInstanceOf(RoomUnavailableException.class);
+        verify(bookingCommitter, times(BookingService.MAX_COMMIT_ATTEMPTS)).commit(reservation);
+        assertThat(reservationIntervalIndex.findOverlap(room.getId(), JAN_10, JAN_10.plusDays(2))).isEmpty();
+    }
+
+    /**
+     * A stay committed by another node is only found by the database check, the claim on this node must be released.
+     */
+    @Test
+    public void book_OverlapCommittedElsewhere_ClaimReleased() throws Exception {
+        Reservation reservation = reservationFor(JAN_10, JAN_10.plusDays(2));
+        when(bookingCommitter.commit(reservation)).thenThrow(new RoomUnavailableException());
+
+        assertThatThrownBy(() -> bookingService.book(reservation)).isInstanceOf(RoomUnavailableException.class);
+        assertThat(reservationIntervalIndex.findOverlap(room.getId(), JAN_10, JAN_10.plusDays(2))).isEmpty();
+        assertThat(availabilityIndex.isAvailable(room.getId(), JAN_10, JAN_10.plusDays(2))).isTrue();
+    }
+
+    @Test
+    public void book_OverlapBookedOnThisNode_NotCommitted() throws Exception {
+        Reservation first = reservationFor(JAN_10, JAN_10.plusDays(3));
+        when(bookingCommitter.commit(first)).thenReturn(first);
+        bookingService.book(first);
+
+        assertThatThrownBy(() -> bookingService.book(reservationFor(JAN_10.plusDays(2), JAN_10.plusDays(4))))
+                .isInstanceOf(RoomUnavailableException.class);
+        verify(bookingCommitter, times(1)).commit(any(Reservation.class));
+    }
+
+    /**
+     * The stay claimed by an already committed booking is its own, so submitting it again is not a conflict.
+     */
+    @Test
+    public void book_AlreadyBookedOnThisNode_CommittedBookingReturned() throws Exception {
+        Reservation reservation = reservationFor(JAN_10, JAN_10.plusDays(2));
+        when(bookingCommitter.commit(reservation)).thenReturn(reservation);
+        bookingService.book(reservation);
+
+        assertThat(bookingService.book(reservation)).isSameAs(reservation);
+        verify(bookingCommitter, times(2)).commit(reservation);
+    }
+
+    /**
+     * A failed resubmission must not release the stay of the booking committed before.
+     */
+    @Test
+    public void book_ResubmissionFails_CommittedStayKept() throws Exception {
+        Reservation reservation = reservationFor(JAN_10, JAN_10.plusDays(2));
+        when(bookingCommitter.commit(reservation)).thenReturn(reservation)
+                .thenThrow(new IllegalStateException("database unavailable"));
+        bookingService.book(reservation);
+
+        assertThatThrownBy(() -> bookingService.book(reservation)).isInstanceOf(IllegalStateException.class);
+        assertThat(reservationIntervalIndex.findOverlap(room.getId(), JAN_10, JAN_10.plusDays(2))).isPresent();
+    }
+}
@@ -0,0 +1,84 @@
+package com.demo.reservation;
+
+import com.demo.domain.Extra;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExtrasServiceTest {
+
+    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+    private List<Extra> extras;
+
+    private Extra createExtra(long id, String description, Extra.Type type, Extra.Category category) {
+        Extra extra = new Extra(description, BigDecimal.valueOf(1.50), type, category);
+        extra.setId(id);
+        return extra;
+    }
+
+    @Before
+    public void setup() {
+        extras = new ArrayList<>(List.of(
+                createExtra(1, "foxtel", Extra.Type.Basic, Extra.Category.General),
+                createExtra(2, "breakfast", Extra.Type.Basic, Extra.Category.Food),
+                createExtra(3, "massage", Extra.Type.Premium, Extra.Category.General),
+                createExtra(4, "laundry", Extra.Type.Basic, Extra.Category.General)
+        ));
+        extraRepository = mock(ExtraRepository.class);
+        when(extraRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(extras));
+        extrasService = new ExtrasService(extraRepository);
+    }
+
+    @Test
+    public void getExtras_GroupedByTypeAndCategory() {
+        assertThat(extrasService.getGeneralExtras(Extra.Type.Basic))
+                .extracting(Extra::getDescription).containsExactly("foxtel", "laundry");
+        assertThat(extrasService.getFoodExtras(Extra.Type.Basic))
+                .extracting(Extra::getDescription).containsExactly("breakfast");
+        assertThat(extrasService.getGeneralExtras(Extra.Type.Premium))
+                .extracting(Extra::getDescription).containsExactly("massage");
+        assertThat(extrasService.getFoodExtras(Extra.Type.Premium)).isEmpty();
+        assertThat(extrasService.getExtra(3L)).map(Extra::getDescription).contains("massage");
+        assertThat(extrasService.getExtrasById(List.of(4L, 99L, 1L)))
+                .extracting(Extra::getDescription).containsExactly("laundry", "foxtel");
+    }
+
+    /**
+     * The database is only read once no matter how many times the catalogue is used.
+     */
+    @Test
+    public void getExtras_LoadedOnce() {
+        extrasService.getGeneralExtras(Extra.Type.Basic);
+        extrasService.getFoodExtras(Extra.Type.Premium);
+        extrasService.getExtra(1L);
+
+        verify(extraRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void getExtras_Immutable() {
+        assertThatThrownBy(() -> extrasService.getGeneralExtras(Extra.Type.Basic).clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void save_CatalogueRefreshed() {
+        extrasService.getFoodExtras(Extra.Type.Premium);
+        Extra dinner = createExtra(5, "dinner", Extra.Type.Premium, Extra.Category.Food);
+        when(extraRepository.save(dinner)).thenAnswer(invocation -> {
+            extras.add(dinner);
+            return dinner;
+        });
+
+        extrasService.save(dinner);
+
+        assertThat(extrasService.getFoodExtras(Extra.Type.Premium)).containsExactly(dinner);
+    }
+}
@@ -0,0 +1,140 @@
+package com.demo.reservation;
+
+import com.demo.HotelApplication;
+import com.demo.domain.*;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Inserts 100k paid reservations, each with 2 guests, their meal plans and a payment, through Hibernate into H2 in
+ * transactions of 1000 reservations. {@code batchSize=0} turns JDBC batching off to show the cost of sending every
+ * insert on its own. Ids are allocated from pooled sequences in both runs, run the same benchmark on the commit
+ * before pooled sequences were added for the cost of a sequence call per row.
+ *
+ * <p>Not a unit test, run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.demo.reservation.ReservationInsertBenchmark} or from the IDE.</p>
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ReservationInsertBenchmark {
+
+    private static final int RESERVATIONS = 100_000;
+    private static final int PER_TRANSACTION = 1000;
+
+    @Param({"0", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private Long roomId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(HotelApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:reservation_insert_benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "logging.level.root=WARN")
+                .run();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        Hotel hotel = new Hotel("Hotel Benchmark",
+                new Address("Hotel Benchmark", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "benchmark@hotel.com");
+        Room room = new Room("BENCH1", RoomType.Luxury, 4, BigDecimal.valueOf(63.3));
+        hotel.addRoom(room);
+        inTransaction(entityManager -> entityManager.persist(hotel));
+        roomId = room.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertReservations() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            for (int i = 1; i <= RESERVATIONS; i++) {
+                entityManager.persist(reservation(entityManager.getReference(Room.class, roomId), i));
+                if (i % PER_TRANSACTION == 0) {
+                    entityManager.getTransaction().commit();
+                    entityManager.clear();
+                    entityManager.getTransaction().begin();
+                }
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+        return RESERVATIONS;
+    }
+
+    private static Reservation reservation(Room room, int i) {
+        Reservation reservation = new Reservation();
+        ReservationDates dates = new ReservationDates();
+        dates.setCheckInDate(LocalDate.of(2030, 1, 1).plusDays(i));
+        dates.setCheckOutDate(LocalDate.of(2030, 1, 1).plusDays(i + 2));
+        dates.setEstimatedCheckInTime(LocalTime.of(10, 0));
+        dates.setPolicyAcknowledged(true);
+        reservation.setDates(dates);
+        reservation.setRoom(room);
+        reservation.addGuest(new Guest("John", "Smith" + i, false));
+        reservation.addGuest(new Guest("Jane", "Smith" + i, false));
+        reservation.createMealPlans();
+        reservation.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
+                "3455", "344", YearMonth.of(2030, 1)));
+        return reservation;
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            work.accept(entityManager);
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReservationInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+package com.demo.reservation;
+
+import com.demo.domain.*;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import com.demo.persistance.SqlStatementLimit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Each query must load everything its view renders without a further query per row.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = SqlStatementLimit.INSPECTOR_PROPERTY)
+public class ReservationRepositoryTest {
+
+    @Rule
+    public final SqlStatementLimit sqlStatements = SqlStatementLimit.atMost(4);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Room persistRoom(String name) {
+        Hotel hotel = new Hotel("Hotel " + name,
+                new Address("Hotel " + name, "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, name + "@hotel.com");
+        Room room = new Room(name, RoomType.Luxury, 4, BigDecimal.valueOf(63.3));
+        hotel.addRoom(room);
+        entityManager.persist(hotel);
+        return room;
+    }
+
+    private Reservation reservationFor(Room room) {
+        Reservation reservation = new Reservation();
+        ReservationDates reservationDates = new ReservationDates();
+        reservationDates.setCheckInDate(LocalDate.now().plusDays(1));
+        reservationDates.setCheckOutDate(LocalDate.now().plusDays(3));
+        reservationDates.setEstimatedCheckInTime(LocalTime.of(10, 0));
+        reservationDates.setPolicyAcknowledged(true);
+        reservation.setCompletedPayment(new CompletedPayment(PendingPayment.CreditCardType.MasterCard,
+                "3455", "344", YearMonth.of(2018, 1)));
+        reservation.setDates(reservationDates);
+        reservation.setRoom(room);
+        return reservation;
+    }
+
+    /**
+     * Showing a completed reservation with several guests and meal plans takes the reservation query, the meal plans
+     * query, then 1 batch each for the meal plan food extras and dietary requirements.
+     */
+    @Test
+    public void findWithDetailsByReservationId_FetchesEverythingShown() {
+        Extra wifi = entityManager.persist(new Extra("Wifi", BigDecimal.valueOf(2), Extra.Type.Premium,
+                Extra.Category.General));
+        Extra breakfast = entityManager.persist(new Extra("Breakfast", BigDecimal.valueOf(10), Extra.Type.Premium,
+                Extra.Category.Food));
+
+        Reservation reservation = reservationFor(persistRoom("A"));
+        reservation.addGuest(new Guest("John", "Smith", false));
+        reservation.addGuest(new Guest("Jane", "Smith", false));
+        reservation.addGuest(new Guest("Jimmy", "Smith", true));
+        reservation.setGeneralExtras(Set.of(wifi));
+        reservation.createMealPlans();
+        reservation.getMealPlans().forEach(mealPlan -> {
+            mealPlan.setFoodExtras(List.of(breakfast));
+            mealPlan.setDietaryRequirements(List.of(DietaryRequirement.Vegan));
+        });
+        entityManager.persist(reservation);
+        entityManager.flush();
+        entityManager.clear();
+
+        sqlStatements.start();
+        Reservation found = reservationRepository.findWithDetailsByReservationId(reservation.getReservationId())
+                .orElseThrow();
+        reservationRepository.findWithMealPlansByReservationId(reservation.getReservationId());
+
+        assertThat(found.getRoom().getHotel().getName()).isEqualTo("Hotel A");
+        assertThat(found.getGuests()).hasSize(3);
+        assertThat(found.getGeneralExtras()).containsOnly(wifi);
+        assertThat(found.getCompletedPayment()).isNotNull();
+        assertThat(found.getMealPlans()).hasSize(3).allSatisfy(mealPlan -> {
+            assertThat(mealPlan.getFoodExtras()).containsOnly(breakfast);
+            assertThat(mealPlan.getDietaryRequirements()).containsOnly(DietaryRequirement.Vegan);
+        });
+        assertThat(sqlStatements.count()).isLessThanOrEqualTo(4);
+    }
+
+    /**
+     * Each meal plan is loaded once however many guests and general extras the reservation has.
+     */
+    @Test
+    public void findWithMealPlansByReservationId_NoRepeatedMealPlans() {
+        Extra wifi = entityManager.persist(new Extra("Wifi", BigDecimal.valueOf(2), Extra.Type.Premium,
+                Extra.Category.General));
+        Extra parking = entityManager.persist(new Extra("Parking", BigDecimal.valueOf(5), Extra.Type.Premium,
+                Extra.Category.General));
+
+        Reservation reservation = reservationFor(persistRoom("A"));
+        reservation.addGuest(new Guest("John", "Smith", false));
+        reservation.addGuest(new Guest("Jane", "Smith", false));
+        reservation.setGeneralExtras(Set.of(wifi, parking));
+        reservation.createMealPlans();
+        entityManager.persist(reservation);
+        entityManager.flush();
+        entityManager.clear();
+
+        Reservation found = reservationRepository.findWithDetailsByReservationId(reservation.getReservationId())
+                .orElseThrow();
+        Reservation withMealPlans = reservationRepository
+                .findWithMealPlansByReservationId(reservation.getReservationId()).orElseThrow();
+
+        assertThat(withMealPlans).isSameAs(found);
+        assertThat(found.getGuests()).hasSize(2);
+        assertThat(found.getGeneralExtras()).containsOnly(wifi, parking);
+        assertThat(found.getMealPlans()).hasSize(2).doesNotHaveDuplicates();
+    }
+
+    /**
+     * Loading the current reservations at startup fetches every room and hotel in the same query.
+     */
+    @Test
+    public void findAllByDatesCheckOutDateAfter_FetchesRoomsAndHotels() {
+        entityManager.persist(reservationFor(persistRoom("A")));
+        entityManager.persist(reservationFor(persistRoom("B")));
+        entityManager.persist(reservationFor(persistRoom("C")));
+        entityManager.flush();
+        entityManager.clear();
+
+        sqlStatements.start();
+        List<Reservation> reservations = reservationRepository.findAllByDatesCheckOutDateAfter(LocalDate.now());
+
+        assertThat(reservations).extracting(reservation -> reservation.getRoom().getHotel().getName())
+                .containsExactlyInAnyOrder("Hotel A", "Hotel B", "Hotel C");
+        assertThat(sqlStatements.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,112 @@
+package com.demo.reservation.flow;
+
+import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.flow.forms.ReservationFlow.Step;
+import com.demo.reservation.flow.forms.ReservationFlow.StepDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the memory held by 50k concurrent sessions, each with a new {@code ReservationFlow}, now that step
+ * descriptions are shared against the previous layout where every flow created its own descriptions, list and
+ * {@code HashSet} of completed steps. The retained heap of each is printed before the run, the run reports the bytes
+ * allocated per flow as {@code gc.alloc.rate.norm}.
+ *
+ * <p>Not a unit test, run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.demo.reservation.flow.ReservationFlowMemoryBenchmark} or from the IDE.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationFlowMemoryBenchmark {
+
+    static final int SESSIONS = 50_000;
+
+    @Param({"shared", "perSession"})
+    public String layout;
+
+    @Benchmark
+    public Object newFlow() {
+        return layout.equals("shared") ? sharedFlow() : perSessionFlow();
+    }
+
+    private static Object sharedFlow() {
+        ReservationFlow flow = new ReservationFlow();
+        flow.completeStep(Step.Dates);
+        flow.setActive(Step.Guests);
+        return flow;
+    }
+
+    /**
+     * The flow as it was before step descriptions were shared.
+     */
+    private static Object perSessionFlow() {
+        List<StepDescription> descriptions = new ArrayList<>();
+        descriptions.add(new StepDescription(0, "Dates", "Choose your reservation dates"));
+        descriptions.add(new StepDescription(1, "Guests", "Provide guest details"));
+        descriptions.add(new StepDescription(2, "Extras", "Select optional extras"));
+        descriptions.add(new StepDescription(3, "Meals", "Choose optional meal plans"));
+        descriptions.add(new StepDescription(4, "Review", "Verify your reservation"));
+        descriptions.add(new StepDescription(5, "Payment", "Provide payment details"));
+        Set<Step> completedSteps = new HashSet<>();
+        completedSteps.add(Step.Dates);
+        return new Object[]{sharedFlow(), descriptions, completedSteps};
+    }
+
+    /**
+     * @return The approximate bytes of heap each session's flow keeps reachable.
+     */
+    static long retainedBytesPerSession(Supplier<Object> flows) {
+        long before = usedHeap();
+        Object[] sessions = new Object[SESSIONS];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = flows.get();
+        }
+        long after = usedHeap();
+        // keeps every session reachable until measured.
+        if (sessions[SESSIONS - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / SESSIONS;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        System.out.printf("Retained bytes per session across %,d sessions: shared %d, perSession %d%n", SESSIONS,
+                retainedBytesPerSession(ReservationFlowMemoryBenchmark::sharedFlow),
+                retainedBytesPerSession(ReservationFlowMemoryBenchmark::perSessionFlow));
+        new Runner(new OptionsBuilder()
+                .include(ReservationFlowMemoryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -25,6 +25,22 @@ public class ReservationFlowTest {
         assertThat(flow.getStepDescriptions().get(5).getTitle()).isEqualTo("Payment");
     }
 
+    /**
+     * Step descriptions come from messages.properties and are the same instances for every flow.
+     */
+    @Test
+    public void stepDescriptions_SharedByEveryFlow() {
+        ReservationFlow first = new ReservationFlow();
+        ReservationFlow second = new ReservationFlow();
+        second.setActive(ReservationFlow.Step.Meals);
+
+        assertThat(first.getStepDescriptions()).isSameAs(second.getStepDescriptions());
+        assertThat(first.getActiveStepDescription()).isSameAs(first.getStepDescriptions().get(0));
+        assertThat(second.getActiveStepDescription().getDescription()).isEqualTo("Choose optional meal plans");
+        assertThatThrownBy(() -> first.getStepDescriptions().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
     @Test
     public void transition() {
         ReservationFlow flow = new ReservationFlow();
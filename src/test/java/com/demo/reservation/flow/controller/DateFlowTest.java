@@ -5,9 +5,11 @@ import com.demo.domain.Reservation;
 import com.demo.domain.ReservationDates;
 import com.demo.domain.Room;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.ReservationController;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.flow.helpers.FlowMatchers;
 import com.demo.reservation.flow.helpers.FlowStages;
 import org.hamcrest.Matchers;
@@ -26,10 +28,12 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static com.demo.reservation.flow.helpers.FlowMatchers.modelHasActiveFlowStep;
 import static com.demo.reservation.flow.helpers.FlowMatchers.modelHasIncompleteFlowStep;
 import static com.demo.reservation.flow.helpers.FlowStages.pendingDateFlow;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -47,7 +51,13 @@ public class DateFlowTest {
     private RoomRepository roomRepository;
 
     @MockBean
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private RoomHolds roomHolds;
 
     @MockBean
     private TimeProvider timeProvider;
@@ -193,7 +203,6 @@ public class DateFlowTest {
                 .andExpect(model().attribute("reservationFlow",
                         Matchers.hasProperty("reservation", Matchers.allOf(
                                 Matchers.hasProperty("room", Matchers.is(room)),
-                                Matchers.hasProperty("room", Matchers.hasProperty("reservation", Matchers.notNullValue(Reservation.class))),
                                 Matchers.hasProperty("dates", Matchers.notNullValue())
                         ))));
     }
@@ -302,8 +311,8 @@ public class DateFlowTest {
     }
 
     /**
-     * Note the flash attributes are being used since we are redirecting. flash is used otherwise Model attributes
-     * wont survive the redirect. ReservationFlow.Step.Dates should now be completed.
+     * The flow is not flashed for the redirect, the next step retrieves it from where session attributes are kept.
+     * ReservationFlow.Step.Dates should now be completed.
      */
     @Test
     public void postDateForm_Valid_RedirectToNextView() throws Exception {
@@ -315,14 +324,51 @@ public class DateFlowTest {
 
         when(roomRepository.findById(anyLong())).thenReturn(Optional.of(reservationFlow.getReservation().getRoom()));
         when(timeProvider.localDate()).thenReturn(LocalDate.now());
+        when(roomHolds.hold(any(UUID.class), anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
 
         mockMvc.perform(post("/reservation/dates")
                 .sessionAttr("reservationFlow", reservationFlow)
                 .params(validParams(timeProvider)))
                 .andExpect(view().name("redirect:/reservation/guests"))
-                .andExpect(flash().attributeExists("reservationFlow"))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Dates))
-                .andExpect(FlowMatchers.flashHasCompletedFlowStep(ReservationFlow.Step.Dates));
+                .andExpect(flash().attributeCount(0))
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Dates))
+                .andExpect(FlowMatchers.sessionHasCompletedFlowStep(ReservationFlow.Step.Dates));
+    }
+
+    /**
+     * Valid dates that are already held or booked by another session must be rejected and the Dates step left
+     * incomplete so the user can pick different dates.
+     */
+    @Test
+    public void postDateForm_RoomNotHeld_RejectsDates() throws Exception {
+        ReservationFlow reservationFlow = pendingDateFlow();
+
+        when(timeProvider.localDate()).thenReturn(LocalDate.now());
+        when(roomHolds.hold(any(UUID.class), anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(false);
+
+        mockMvc.perform(post("/reservation/dates")
+                .sessionAttr("reservationFlow", reservationFlow)
+                .params(validParams(timeProvider)))
+                .andExpect(view().name("reservation/dates"))
+                .andExpect(model().errorCount(1))
+                .andExpect(model().attributeHasFieldErrorCode("reservationFlow", "reservation.dates", "dates.unavailable"))
+                .andExpect(modelHasActiveFlowStep(ReservationFlow.Step.Dates))
+                .andExpect(modelHasIncompleteFlowStep(ReservationFlow.Step.Dates));
+    }
+
+    /**
+     * Cancelling releases any hold the flow has on the room.
+     */
+    @Test
+    public void postDateForm_Cancel_ReleasesHold() throws Exception {
+        ReservationFlow reservationFlow = pendingDateFlow();
+
+        mockMvc.perform(post("/reservation/dates")
+                .sessionAttr("reservationFlow", reservationFlow)
+                .param("cancel", ""))
+                .andExpect(view().name("redirect:/"));
+
+        verify(roomHolds, times(1)).release(reservationFlow.getReservation().getReservationId());
     }
 
     // Ajax dynamic room price fragment
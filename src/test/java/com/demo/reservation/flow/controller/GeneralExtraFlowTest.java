@@ -3,9 +3,11 @@ package com.demo.reservation.flow.controller;
 import com.demo.TimeProvider;
 import com.demo.domain.Extra;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.ReservationController;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.flow.helpers.FlowMatchers;
 import com.demo.reservation.flow.helpers.FlowStages;
 import org.hamcrest.Matchers;
@@ -38,7 +40,13 @@ public class GeneralExtraFlowTest {
     private RoomRepository roomRepository;
 
     @MockBean
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private RoomHolds roomHolds;
 
     @MockBean
     private TimeProvider timeProvider;
@@ -57,7 +65,7 @@ public class GeneralExtraFlowTest {
         List<Extra> generalExtras = List.of(
                 new Extra("foxtel", BigDecimal.valueOf(3.94), Extra.Type.Premium, Extra.Category.General)
         );
-        when(extraRepository.findAllByTypeAndCategory(any(Extra.Type.class), eq(Extra.Category.General)))
+        when(extrasService.getGeneralExtras(any(Extra.Type.class)))
                 .thenReturn(generalExtras);
 
         mockMvc.perform(get("/reservation/extras")
@@ -68,14 +76,13 @@ public class GeneralExtraFlowTest {
                 .andExpect(modelHasActiveFlowStep(ReservationFlow.Step.Extras))
                 .andExpect(FlowMatchers.modelHasIncompleteFlowStep(ReservationFlow.Step.Extras));
 
-        verify(extraRepository, times(1))
-                .findAllByTypeAndCategory(any(Extra.Type.class), eq(Extra.Category.General));
-        verifyNoMoreInteractions(extraRepository);
+        verify(extrasService, times(1)).getGeneralExtras(any(Extra.Type.class));
+        verifyNoMoreInteractions(extrasService);
     }
 
     /**
-     * Going back requires the model be transferred into flash attributes otherwise it will be lost
-     * during the redirect.
+     * Going back redirects without flashing the flow, the previous step retrieves it from where session attributes
+     * are kept.
      */
     @Test
     public void fromGeneralExtrasBackToGuests_RedirectsCorrectView() throws Exception {
@@ -85,13 +92,13 @@ public class GeneralExtraFlowTest {
                 .param("back", "")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/guests"))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(flash().attributeCount(0));
     }
 
     /**
      * When the selected general extras are submitted, check the flow step is completed for Extras and
-     * we redirect to the next meal view. flash attributes are needed so the Model state is not lost
-     * across the redirect.
+     * we redirect to the next meal view. The flow is kept as a session attribute rather than flashed across the
+     * redirect.
      * <p>
      * We cant test for checking extras are added to the reservation since all of that happens
      * using spring binding infrastructure so would need to make an integration test for that using
@@ -104,9 +111,9 @@ public class GeneralExtraFlowTest {
         mockMvc.perform(post("/reservation/extras")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/meals"))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Extras))
-                .andExpect(FlowMatchers.flashHasCompletedFlowStep(ReservationFlow.Step.Extras))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Extras))
+                .andExpect(FlowMatchers.sessionHasCompletedFlowStep(ReservationFlow.Step.Extras))
+                .andExpect(flash().attributeCount(0));
     }
 
 }
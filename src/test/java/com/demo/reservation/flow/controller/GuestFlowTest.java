@@ -3,9 +3,11 @@ package com.demo.reservation.flow.controller;
 import com.demo.TimeProvider;
 import com.demo.domain.Guest;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.ReservationController;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.flow.helpers.FlowMatchers;
 import com.demo.reservation.flow.helpers.FlowStages;
 import org.hamcrest.Matchers;
@@ -41,7 +43,13 @@ public class GuestFlowTest {
     private RoomRepository roomRepository;
 
     @MockBean
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private RoomHolds roomHolds;
 
     @MockBean
     private TimeProvider timeProvider;
@@ -65,9 +73,9 @@ public class GuestFlowTest {
     }
 
     /**
-     * Going back to the date view requires a redirect which means the Model should be in flash otherwise it wont
-     * survive the redirect. The {@code ReservationFlow} step doesn't need checking as it will be updated when
-     * GET date form is called.
+     * Going back to the date view requires a redirect, the date form retrieves the flow from where session attributes
+     * are kept rather than from flash attributes. The {@code ReservationFlow} step doesn't need checking as it will be
+     * updated when GET date form is called.
      */
     @Test
     public void fromGuestBackToDates_GoBackToDateView_RedirectsCorrectView() throws Exception {
@@ -78,9 +86,9 @@ public class GuestFlowTest {
                 .param("back", "")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation?roomId=" + roomId))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Guests))
-                .andExpect(FlowMatchers.flashHasIncompleteFlowStep(ReservationFlow.Step.Guests))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Guests))
+                .andExpect(FlowMatchers.sessionHasIncompleteFlowStep(ReservationFlow.Step.Guests))
+                .andExpect(flash().attributeCount(0));
     }
 
     @Test
@@ -360,8 +368,8 @@ public class GuestFlowTest {
 
     /**
      * When all guest info is entered in correctly, redirect to the next flow step.
-     * <p>Note the flash attributes are being used since we are redirecting. If flash was not used then the Model
-     * attributes wouldn't survive the redirect. ReservationFlow.Step.Guests should now be completed.</p>
+     * <p>The flow is not flashed for the redirect, the next step retrieves it from where session attributes are kept.
+     * ReservationFlow.Step.Guests should now be completed.</p>
      */
     @Test
     public void postGuestToExtras_Valid() throws Exception {
@@ -373,8 +381,8 @@ public class GuestFlowTest {
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/extras"))
                 .andExpect(model().hasNoErrors())
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Guests))
-                .andExpect(FlowMatchers.flashHasCompletedFlowStep(ReservationFlow.Step.Guests))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Guests))
+                .andExpect(FlowMatchers.sessionHasCompletedFlowStep(ReservationFlow.Step.Guests))
+                .andExpect(flash().attributeCount(0));
     }
 }
@@ -3,9 +3,11 @@ package com.demo.reservation.flow.controller;
 import com.demo.TimeProvider;
 import com.demo.domain.*;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.ReservationController;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.flow.helpers.FlowMatchers;
 import com.demo.reservation.flow.helpers.FlowStages;
 import org.hamcrest.Matchers;
@@ -23,7 +25,6 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -43,7 +44,13 @@ public class MealPlanFlowTest {
     private RoomRepository roomRepository;
 
     @MockBean
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private RoomHolds roomHolds;
 
     @MockBean
     private TimeProvider timeProvider;
@@ -51,8 +58,8 @@ public class MealPlanFlowTest {
     // Flow step 4 - meal plans
 
     /**
-     * Redirects to general extras form when in the meal plans form. Note the flash attributes
-     * used are so the Model is not lost between redirects.
+     * Redirects to general extras form when in the meal plans form. The flow is kept as a session attribute rather
+     * than flashed across the redirect.
      */
     @Test
     public void fromMealPlansBackToGeneralExtras() throws Exception {
@@ -62,9 +69,9 @@ public class MealPlanFlowTest {
                 .param("back", "")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/extras"))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Meals))
-                .andExpect(FlowMatchers.flashHasIncompleteFlowStep(ReservationFlow.Step.Meals))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Meals))
+                .andExpect(FlowMatchers.sessionHasIncompleteFlowStep(ReservationFlow.Step.Meals))
+                .andExpect(flash().attributeCount(0));
     }
 
     /**
@@ -98,7 +105,7 @@ public class MealPlanFlowTest {
         reservationFlow.setReservation(reservationSpy);
 
         // So we can verify the correct call to get the food extras occurs.
-        when(extraRepository.findAllByTypeAndCategory(any(Extra.Type.class), eq(Extra.Category.Food)))
+        when(extrasService.getFoodExtras(any(Extra.Type.class)))
                 .thenReturn(foodExtras);
 
         ResultMatcher expectedMealPlansCreated = model().attribute("reservationFlow",
@@ -116,17 +123,16 @@ public class MealPlanFlowTest {
                 .andExpect(FlowMatchers.modelHasActiveFlowStep(ReservationFlow.Step.Meals))
                 .andExpect(FlowMatchers.modelHasIncompleteFlowStep(ReservationFlow.Step.Meals));
 
-        verify(extraRepository, times(1))
-                .findAllByTypeAndCategory(any(Extra.Type.class), eq(Extra.Category.Food));
-        verifyNoMoreInteractions(extraRepository);
+        verify(extrasService, times(1)).getFoodExtras(any(Extra.Type.class));
+        verifyNoMoreInteractions(extrasService);
 
         verify(reservationSpy, times(1)).createMealPlans();
     }
 
     /**
      * When the meal plans are submitted, check the flow step is completed for Meals and
-     * we redirect to the next review view. flash attributes are needed so the Model state is not lost
-     * across the redirect. Since there are no errors, the Model doesn't need to contain the foodExtras or
+     * we redirect to the next review view. The flow is kept as a session attribute rather than flashed across the
+     * redirect. Since there are no errors, the Model doesn't need to contain the foodExtras or
      * dietaryRequirements since we are redirecting to a new view.
      *
      * <p>We cant test for checking the meal plans have been updated within the reservation since all of that
@@ -154,11 +160,11 @@ public class MealPlanFlowTest {
         mockMvc.perform(post("/reservation/meals")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/review"))
-                .andExpect(flash().attributeExists("reservationFlow"))
+                .andExpect(flash().attributeCount(0))
                 .andExpect(flash().attribute("foodExtras", Matchers.nullValue()))
                 .andExpect(flash().attribute("dietaryRequirements", Matchers.nullValue()))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Meals))
-                .andExpect(FlowMatchers.flashHasCompletedFlowStep(ReservationFlow.Step.Meals));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Meals))
+                .andExpect(FlowMatchers.sessionHasCompletedFlowStep(ReservationFlow.Step.Meals));
     }
 
     /**
@@ -204,7 +210,7 @@ public class MealPlanFlowTest {
         );
 
         // So we can verify the correct call to get the food extras occurs.
-        when(extraRepository.findAllByTypeAndCategory(any(Extra.Type.class), eq(Extra.Category.Food)))
+        when(extrasService.getFoodExtras(any(Extra.Type.class)))
                 .thenReturn(foodExtras);
 
         mockMvc.perform(post("/reservation/meals")
@@ -218,8 +224,7 @@ public class MealPlanFlowTest {
                 .andExpect(FlowMatchers.modelHasActiveFlowStep(ReservationFlow.Step.Meals))
                 .andExpect(FlowMatchers.modelHasIncompleteFlowStep(ReservationFlow.Step.Meals));
 
-        verify(extraRepository, times(1))
-                .findAllByTypeAndCategory(any(Extra.Type.class), eq(Extra.Category.Food));
-        verifyNoMoreInteractions(extraRepository);
+        verify(extrasService, times(1)).getFoodExtras(any(Extra.Type.class));
+        verifyNoMoreInteractions(extrasService);
     }
 }
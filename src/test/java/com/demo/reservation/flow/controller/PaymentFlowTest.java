@@ -3,11 +3,15 @@ package com.demo.reservation.flow.controller;
 import com.demo.reservation.flow.TestContextConfiguration;
 import com.demo.TimeProvider;
 import com.demo.domain.PendingPayment;
+import com.demo.domain.Reservation;
 import com.demo.domain.Room;
+import com.demo.exceptions.RoomUnavailableException;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.ReservationController;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.flow.helpers.FlowMatchers;
 import com.demo.reservation.flow.helpers.FlowStages;
 import org.hamcrest.Matchers;
@@ -21,16 +25,22 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -48,7 +58,13 @@ public class PaymentFlowTest {
     private RoomRepository roomRepository;
 
     @MockBean
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private RoomHolds roomHolds;
 
     @MockBean
     private TimeProvider timeProvider;
@@ -73,8 +89,8 @@ public class PaymentFlowTest {
     }
 
     /**
-     * Redirects to review form when in the payment form. Note the flash attributes
-     * used are so the Model is not lost between redirects.
+     * Redirects to review form when in the payment form. The flow is kept as a session attribute rather than flashed
+     * across the redirect.
      */
     @Test
     public void fromPaymentBackToReview() throws Exception {
@@ -84,9 +100,9 @@ public class PaymentFlowTest {
                 .param("back", "")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/review"))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Payment))
-                .andExpect(FlowMatchers.flashHasIncompleteFlowStep(ReservationFlow.Step.Payment))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Payment))
+                .andExpect(FlowMatchers.sessionHasIncompleteFlowStep(ReservationFlow.Step.Payment))
+                .andExpect(flash().attributeCount(0));
     }
 
     /**
@@ -383,6 +399,7 @@ public class PaymentFlowTest {
     @Test
     public void postPayment_Valid() throws Exception {
         ReservationFlow reservationFlow = FlowStages.reviewCompletedFlow();
+        when(roomHolds.hold(any(UUID.class), anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
 
         mockMvc.perform(post("/reservation/payment")
                 .sessionAttr("reservationFlow", reservationFlow)
@@ -394,10 +411,90 @@ public class PaymentFlowTest {
                 .param("cardExpiryYear", "2018")
                 .param("cardExpiryMonth", Month.DECEMBER.name()))
                 .andExpect(view().name("redirect:/reservation/completed"))
-                .andExpect(flash().attributeCount(0))
+                .andExpect(flash().attribute("reservationId", reservationFlow.getReservation().getReservationId()))
                 .andExpect(model().errorCount(0));
 
-        verify(roomRepository, times(1)).save(any(Room.class));
+        verify(bookingService, times(1)).book(any(Reservation.class));
+        verify(roomHolds, times(1)).release(reservationFlow.getReservation().getReservationId());
         verifyNoMoreInteractions(roomRepository);
     }
+
+    /**
+     * When another reservation has taken some of the nights since the flow began, the payment form is redisplayed
+     * with a global error and the session is kept so the user can go back and change dates.
+     */
+    @Test
+    public void postPayment_RoomJustBooked_RejectsWithGlobalError() throws Exception {
+        ReservationFlow reservationFlow = FlowStages.reviewCompletedFlow();
+        when(roomHolds.hold(any(UUID.class), anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
+        when(bookingService.book(any(Reservation.class))).thenThrow(new RoomUnavailableException());
+
+        mockMvc.perform(post("/reservation/payment")
+                .sessionAttr("reservationFlow", reservationFlow)
+                .param("createdTime", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("creditCardType", PendingPayment.CreditCardType.MasterCard.name())
+                .param("creditCardNumber", "1234567892")
+                .param("cvv", "123")
+                .param("cardHolderName", "john smith")
+                .param("cardExpiryYear", "2018")
+                .param("cardExpiryMonth", Month.DECEMBER.name()))
+                .andExpect(view().name("reservation/payment"))
+                .andExpect(model().attributeExists("reservationFlow"))
+                .andExpect(model().errorCount(1))
+                .andExpect(FlowMatchers.modelHasActiveFlowStep(ReservationFlow.Step.Payment))
+                .andExpect(FlowMatchers.modelHasIncompleteFlowStep(ReservationFlow.Step.Payment));
+    }
+
+    /**
+     * When the flow's hold has expired and another session now holds the nights, payment is rejected before
+     * attempting to book.
+     */
+    @Test
+    public void postPayment_HoldLost_RejectsWithGlobalError() throws Exception {
+        ReservationFlow reservationFlow = FlowStages.reviewCompletedFlow();
+        when(roomHolds.hold(any(UUID.class), anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(false);
+
+        mockMvc.perform(post("/reservation/payment")
+                .sessionAttr("reservationFlow", reservationFlow)
+                .param("createdTime", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("creditCardType", PendingPayment.CreditCardType.MasterCard.name())
+                .param("creditCardNumber", "1234567892")
+                .param("cvv", "123")
+                .param("cardHolderName", "john smith")
+                .param("cardExpiryYear", "2018")
+                .param("cardExpiryMonth", Month.DECEMBER.name()))
+                .andExpect(view().name("reservation/payment"))
+                .andExpect(model().errorCount(1));
+
+        verifyNoMoreInteractions(bookingService);
+    }
+
+    // End flow
+
+    /**
+     * The completed page shows the booking saved for the reservation id flashed by the payment.
+     */
+    @Test
+    public void getCompleted_ShowsSavedBooking() throws Exception {
+        Reservation reservation = FlowStages.reviewCompletedFlow().getReservation();
+        when(bookingService.findBooking(reservation.getReservationId())).thenReturn(Optional.of(reservation));
+
+        mockMvc.perform(get("/reservation/completed")
+                .flashAttr("reservationId", reservation.getReservationId()))
+                .andExpect(view().name("reservation/completed"))
+                .andExpect(model().attribute("reservation", reservation))
+                .andExpect(content().string(Matchers.containsString(reservation.getRoom().getHotel().getName())));
+    }
+
+    /**
+     * Refreshing the completed page after the flash has gone still shows the success message, without a booking.
+     */
+    @Test
+    public void getCompleted_NoReservationId_NoBookingShown() throws Exception {
+        mockMvc.perform(get("/reservation/completed"))
+                .andExpect(view().name("reservation/completed"))
+                .andExpect(model().attributeDoesNotExist("reservation"));
+
+        verifyNoMoreInteractions(bookingService);
+    }
 }
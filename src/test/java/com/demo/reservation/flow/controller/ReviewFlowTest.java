@@ -2,9 +2,11 @@ package com.demo.reservation.flow.controller;
 
 import com.demo.TimeProvider;
 import com.demo.persistance.RoomRepository;
-import com.demo.reservation.ExtraRepository;
+import com.demo.reservation.BookingService;
+import com.demo.reservation.ExtrasService;
 import com.demo.reservation.flow.ReservationController;
 import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.inventory.RoomHolds;
 import com.demo.reservation.flow.helpers.FlowMatchers;
 import com.demo.reservation.flow.helpers.FlowStages;
 import org.junit.Test;
@@ -34,7 +36,13 @@ public class ReviewFlowTest {
     private RoomRepository roomRepository;
 
     @MockBean
-    private ExtraRepository extraRepository;
+    private ExtrasService extrasService;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @MockBean
+    private RoomHolds roomHolds;
 
     @MockBean
     private TimeProvider timeProvider;
@@ -58,8 +66,8 @@ public class ReviewFlowTest {
     }
 
     /**
-     * Going back requires the model be transferred into flash attributes otherwise it will be lost
-     * during the redirect.
+     * Going back redirects without flashing the flow, the previous step retrieves it from where session attributes
+     * are kept.
      */
     @Test
     public void fromReviewBackToMealPlans_RedirectsCorrectView() throws Exception {
@@ -69,9 +77,9 @@ public class ReviewFlowTest {
                 .param("back", "")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/meals"))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Review))
-                .andExpect(FlowMatchers.flashHasIncompleteFlowStep(ReservationFlow.Step.Review))
-                .andExpect(flash().attributeExists("reservationFlow"));
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Review))
+                .andExpect(FlowMatchers.sessionHasIncompleteFlowStep(ReservationFlow.Step.Review))
+                .andExpect(flash().attributeCount(0));
     }
 
     /**
@@ -85,8 +93,8 @@ public class ReviewFlowTest {
         mockMvc.perform(post("/reservation/review")
                 .sessionAttr("reservationFlow", reservationFlow))
                 .andExpect(view().name("redirect:/reservation/payment"))
-                .andExpect(flash().attributeExists("reservationFlow"))
-                .andExpect(FlowMatchers.flashHasActiveFlowStep(ReservationFlow.Step.Review))
-                .andExpect(FlowMatchers.flashHasCompletedFlowStep(ReservationFlow.Step.Review));
+                .andExpect(flash().attributeCount(0))
+                .andExpect(FlowMatchers.sessionHasActiveFlowStep(ReservationFlow.Step.Review))
+                .andExpect(FlowMatchers.sessionHasCompletedFlowStep(ReservationFlow.Step.Review));
     }
 }
@@ -8,8 +8,8 @@ import org.springframework.test.web.servlet.ResultMatcher;
 
 import java.util.function.Function;
 
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 public class FlowMatchers {
 
@@ -67,14 +67,14 @@ public class FlowMatchers {
     }
 
     /**
-     * Asserts the {@code FlashAttributes} has the supplied {@code Step} as being completed.
+     * Asserts the flow kept between requests has the supplied {@code Step} as being completed.
      */
-    public static ResultMatcher flashHasCompletedFlowStep(ReservationFlow.Step step) {
+    public static ResultMatcher sessionHasCompletedFlowStep(ReservationFlow.Step step) {
         FeatureMatcher<ReservationFlow, Boolean> matcher = flowStateAssertion(
                 flow -> flow.isCompleted(step),
                 Matchers.is(Boolean.TRUE)
         );
-        return flash().attribute("reservationFlow", matcher);
+        return request().sessionAttribute("reservationFlow", matcher);
     }
 
     /**
@@ -89,14 +89,14 @@ public class FlowMatchers {
     }
 
     /**
-     * Asserts the {@code FlashAttributes} has the supplied {@code Step} set as active.
+     * Asserts the flow kept between requests has the supplied {@code Step} set as active.
      */
-    public static ResultMatcher flashHasActiveFlowStep(ReservationFlow.Step step) {
+    public static ResultMatcher sessionHasActiveFlowStep(ReservationFlow.Step step) {
         FeatureMatcher<ReservationFlow, Boolean> matcher = flowStateAssertion(
                 flow -> flow.isActive(step),
                 Matchers.is(Boolean.TRUE)
         );
-        return flash().attribute("reservationFlow", matcher);
+        return request().sessionAttribute("reservationFlow", matcher);
     }
 
 
@@ -112,13 +112,13 @@ public class FlowMatchers {
     }
 
     /**
-     * Asserts the {@code FlashAttributes} has the supplied {@code Step} as NOT being completed.
+     * Asserts the flow kept between requests has the supplied {@code Step} as NOT being completed.
      */
-    public static ResultMatcher flashHasIncompleteFlowStep(ReservationFlow.Step step) {
+    public static ResultMatcher sessionHasIncompleteFlowStep(ReservationFlow.Step step) {
         FeatureMatcher<ReservationFlow, Boolean> matcher = flowStateAssertion(
                 flow -> flow.isCompleted(step),
                 Matchers.is(Boolean.FALSE)
         );
-        return flash().attribute("reservationFlow", matcher);
+        return request().sessionAttribute("reservationFlow", matcher);
     }
 }
@@ -0,0 +1,72 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.reservation.flow.forms.ReservationFlow;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BinaryReservationFlowCodecTest {
+
+    private final BinaryReservationFlowCodec codec = new BinaryReservationFlowCodec();
+
+    @Test
+    public void roundTrip() {
+        ReservationFlow original = ReservationFlowStateTest.mealsFlow();
+
+        byte[] bytes = codec.encode(ReservationFlowState.of(original));
+        ReservationFlow restored = codec.decode(bytes).restore(ReservationFlowStateTest.ROOMS,
+                ReservationFlowStateTest.EXTRAS).orElseThrow();
+
+        ReservationFlowStateTest.assertSameFlow(restored, original);
+    }
+
+    /**
+     * A flow that has only just started has no room, dates or guests.
+     */
+    @Test
+    public void roundTrip_NewFlow() {
+        ReservationFlowState state = ReservationFlowState.of(new ReservationFlow());
+
+        ReservationFlowState decoded = codec.decode(codec.encode(state));
+
+        assertThat(decoded).isEqualToComparingFieldByFieldRecursively(state);
+        assertThat(decoded.getRoomId()).isNull();
+        assertThat(decoded.getCheckInDate()).isNull();
+    }
+
+    @Test
+    public void encode_SmallerThanJson() {
+        ReservationFlowState state = ReservationFlowState.of(ReservationFlowStateTest.mealsFlow());
+        JsonReservationFlowCodec json = new JsonReservationFlowCodec(Jackson2ObjectMapperBuilder.json().build());
+
+        byte[] bytes = codec.encode(state);
+
+        assertThat(bytes.length).isLessThan(json.encode(state).length / 3);
+        assertThat(bytes[0]).isEqualTo((byte) BinaryReservationFlowCodec.VERSION);
+    }
+
+    @Test
+    public void decode_OtherVersion_Rejected() {
+        byte[] bytes = codec.encode(ReservationFlowState.of(ReservationFlowStateTest.mealsFlow()));
+        bytes[0] = BinaryReservationFlowCodec.VERSION + 1;
+
+        assertThatThrownBy(() -> codec.decode(bytes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    public void decode_Corrupt_Rejected() {
+        byte[] bytes = codec.encode(ReservationFlowState.of(ReservationFlowStateTest.mealsFlow()));
+
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThatThrownBy(() -> codec.decode(truncated)).isInstanceOf(IllegalArgumentException.class);
+        }
+        byte[] extra = Arrays.copyOf(bytes, bytes.length + 1);
+        assertThatThrownBy(() -> codec.decode(extra)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
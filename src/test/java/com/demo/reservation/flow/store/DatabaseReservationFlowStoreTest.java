@@ -0,0 +1,85 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.TimeProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class DatabaseReservationFlowStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 10, 12, 0);
+
+    @Autowired
+    private StoredReservationFlowRepository repository;
+
+    private final TimeProvider timeProvider = mock(TimeProvider.class);
+    private final List<byte[]> expired = new ArrayList<>();
+    private DatabaseReservationFlowStore store;
+
+    @Before
+    public void setup() {
+        store = new DatabaseReservationFlowStore(repository, timeProvider, Duration.ofMinutes(60), expired::add);
+    }
+
+    private void saveAt(String flowId, LocalDateTime time) {
+        when(timeProvider.localDateTime()).thenReturn(time);
+        store.save(flowId, flowId.getBytes());
+    }
+
+    @Test
+    public void saveLoadAndRemove() {
+        saveAt("a", NOW);
+
+        assertThat(store.load("a")).hasValueSatisfying(state -> assertThat(state).isEqualTo("a".getBytes()));
+        store.remove("a");
+        store.remove("a");
+        assertThat(store.load("a")).isEmpty();
+    }
+
+    /**
+     * Another node saving the flow after this node last used it keeps the flow.
+     */
+    @Test
+    public void removeUnlessSavedAfter_OnlyIfNotSavedSince() {
+        saveAt("a", NOW);
+
+        assertThat(store.removeUnlessSavedAfter("a", NOW.minusMinutes(1))).isEmpty();
+        assertThat(store.load("a")).isPresent();
+
+        assertThat(store.removeUnlessSavedAfter("a", NOW))
+                .hasValueSatisfying(state -> assertThat(state).isEqualTo("a".getBytes()));
+        assertThat(store.load("a")).isEmpty();
+        assertThat(store.removeUnlessSavedAfter("a", NOW)).isEmpty();
+    }
+
+    /**
+     * Saving a flow again restarts its time to live. Each purged flow is passed on so its room hold is released.
+     */
+    @Test
+    public void purgeExpired_OnlyFlowsNotSavedWithinTimeToLive() {
+        saveAt("expired", NOW.minusMinutes(61));
+        saveAt("resaved", NOW.minusMinutes(90));
+        saveAt("resaved", NOW.minusMinutes(30));
+        saveAt("recent", NOW.minusMinutes(59));
+
+        when(timeProvider.localDateTime()).thenReturn(NOW);
+        store.purgeExpired();
+
+        assertThat(repository.findAll()).extracting(StoredReservationFlow::getFlowId)
+                .containsExactlyInAnyOrder("resaved", "recent");
+        assertThat(expired).containsExactly("expired".getBytes());
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.TimeProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class EvictingReservationFlowStoreTest {
+
+    private static final Duration IDLE = Duration.ofMinutes(30);
+
+    private final List<byte[]> evicted = new ArrayList<>();
+    private final TimeProvider timeProvider = mock(TimeProvider.class);
+    private LocalDateTime now = LocalDateTime.of(2030, 1, 10, 12, 0);
+    private InMemoryReservationFlowStore flows;
+    private EvictingReservationFlowStore store;
+
+    @Before
+    public void setup() {
+        when(timeProvider.localDateTime()).thenAnswer(invocation -> now);
+        flows = new InMemoryReservationFlowStore();
+        store = new EvictingReservationFlowStore(flows, IDLE, 3,
+                4 * (EvictingReservationFlowStore.ENTRY_OVERHEAD_BYTES + 10), evicted::add, timeProvider);
+    }
+
+    @Test
+    public void saveAndLoad() {
+        store.save("a", new byte[]{1});
+        store.save("a", new byte[]{2});
+
+        assertThat(store.load("a")).hasValueSatisfying(state -> assertThat(state).containsExactly(2));
+        assertThat(store.load("b")).isEmpty();
+        assertThat(store.flowStats().getLiveFlows()).isEqualTo(1);
+        assertThat(store.flowStats().getLiveBytes()).isEqualTo(EvictingReservationFlowStore.ENTRY_OVERHEAD_BYTES + 1);
+    }
+
+    /**
+     * Loading a flow counts as activity, only flows unused for the whole idle window are evicted.
+     */
+    @Test
+    public void evictIdle_OnlyFlowsUnusedForIdleWindow() {
+        store.save("a", new byte[]{1});
+        store.save("b", new byte[]{2});
+        now = now.plus(IDLE.dividedBy(2));
+        store.load("a");
+        store.save("c", new byte[]{3});
+
+        now = now.plus(IDLE.dividedBy(2));
+        store.evictIdle(now);
+
+        assertThat(flows.load("b")).isEmpty();
+        assertThat(store.load("a")).isPresent();
+        assertThat(store.load("c")).isPresent();
+        assertThat(evicted).containsExactly(new byte[]{2});
+        assertThat(store.flowStats().getEvictedIdle()).isEqualTo(1);
+        assertThat(store.flowStats().getEvictedOverBudget()).isZero();
+    }
+
+    @Test
+    public void save_OverCountBudget_EvictsLeastRecentlyUsed() {
+        store.save("a", new byte[]{1});
+        store.save("b", new byte[]{2});
+        store.save("c", new byte[]{3});
+        store.load("a");
+
+        store.save("d", new byte[]{4});
+
+        assertThat(flows.load("b")).isEmpty();
+        assertThat(store.flowStats().getLiveFlows()).isEqualTo(3);
+        assertThat(evicted).containsExactly(new byte[]{2});
+        assertThat(store.flowStats().getEvictedOverBudget()).isEqualTo(1);
+    }
+
+    /**
+     * A large flow evicts as many others as needed but is kept itself.
+     */
+    @Test
+    public void save_OverByteBudget_EvictsUntilWithinBudget() {
+        store.save("a", new byte[10]);
+        store.save("b", new byte[10]);
+
+        store.save("c", new byte[3 * EvictingReservationFlowStore.ENTRY_OVERHEAD_BYTES]);
+
+        assertThat(store.flowStats().getLiveFlows()).isEqualTo(1);
+        assertThat(store.load("c")).isPresent();
+        assertThat(store.flowStats().getEvictedOverBudget()).isEqualTo(2);
+
+        store.save("d", new byte[0]);
+        assertThat(flows.load("c")).isEmpty();
+        assertThat(store.load("d")).isPresent();
+    }
+
+    @Test
+    public void remove_NotAnEviction() {
+        store.save("a", new byte[]{1});
+
+        store.remove("a");
+        store.remove("a");
+
+        assertThat(flows.load("a")).isEmpty();
+        assertThat(store.flowStats().getLiveFlows()).isZero();
+        assertThat(store.flowStats().getLiveBytes()).isZero();
+        assertThat(evicted).isEmpty();
+    }
+
+    /**
+     * A flow saved by another node since it was last used here is only forgotten by this node, it is not evicted.
+     */
+    @Test
+    public void evictIdle_SavedByAnotherNode_Kept() {
+        ReservationFlowStore shared = mock(ReservationFlowStore.class);
+        when(shared.removeUnlessSavedAfter(anyString(), any(LocalDateTime.class))).thenReturn(Optional.empty());
+        EvictingReservationFlowStore node = new EvictingReservationFlowStore(shared, IDLE, 10, Long.MAX_VALUE,
+                evicted::add, timeProvider);
+        LocalDateTime saved = now;
+        node.save("a", new byte[]{1});
+
+        node.evictIdle(now.plus(IDLE));
+
+        verify(shared).removeUnlessSavedAfter("a", saved);
+        verify(shared, never()).remove(anyString());
+        assertThat(evicted).isEmpty();
+        assertThat(node.flowStats().getLiveFlows()).isZero();
+        assertThat(node.flowStats().getEvictedIdle()).isZero();
+    }
+
+    /**
+     * A failing eviction listener does not stop the other evicted flows being passed to it.
+     */
+    @Test
+    public void evictIdle_ListenerFails_OtherFlowsStillEvicted() {
+        List<byte[]> released = new ArrayList<>();
+        EvictingReservationFlowStore failing = new EvictingReservationFlowStore(flows, IDLE, 10, Long.MAX_VALUE,
+                state -> {
+                    if (state[0] == 1) {
+                        throw new IllegalArgumentException("unreadable");
+                    }
+                    released.add(state);
+                }, timeProvider);
+        failing.save("a", new byte[]{1});
+        failing.save("b", new byte[]{2});
+
+        failing.evictIdle(now.plus(IDLE));
+
+        assertThat(failing.flowStats().getLiveFlows()).isZero();
+        assertThat(released).containsExactly(new byte[]{2});
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.domain.DietaryRequirement;
+import com.demo.reservation.flow.forms.ReservationFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bytes stored per session and the time to encode and decode each flow using
+ * {@link BinaryReservationFlowCodec} against {@link JsonReservationFlowCodec}, the encoding used before it, over 100k
+ * simulated sessions spread across every step of the flow. Java serialisation is not an option as neither the flow
+ * nor the entities it holds are {@code Serializable}. The bytes per session are printed before the run.
+ *
+ * <p>Not a unit test, run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.demo.reservation.flow.store.ReservationFlowCodecBenchmark} or from the IDE.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationFlowCodecBenchmark {
+
+    static final int SESSIONS = 100_000;
+
+    @Param({"binary", "json"})
+    public String codecName;
+
+    private ReservationFlowCodec codec;
+    private ReservationFlowState[] sessions;
+    private byte[][] encoded;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        codec = codec(codecName);
+        sessions = simulatedSessions();
+        encoded = new byte[SESSIONS][];
+        for (int i = 0; i < SESSIONS; i++) {
+            encoded[i] = codec.encode(sessions[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        next = (next + 1) % SESSIONS;
+        return codec.encode(sessions[next]);
+    }
+
+    @Benchmark
+    public ReservationFlowState decode() {
+        next = (next + 1) % SESSIONS;
+        return codec.decode(encoded[next]);
+    }
+
+    static ReservationFlowCodec codec(String name) {
+        return name.equals("json")
+                ? new JsonReservationFlowCodec(Jackson2ObjectMapperBuilder.json().build())
+                : new BinaryReservationFlowCodec();
+    }
+
+    /**
+     * Sessions evenly spread over the steps, each step filling in what the user would have entered by then.
+     */
+    static ReservationFlowState[] simulatedSessions() {
+        Random random = new Random(42);
+        ReservationFlow.Step[] steps = ReservationFlow.Step.values();
+        DietaryRequirement[] diets = DietaryRequirement.values();
+        ReservationFlowState[] sessions = new ReservationFlowState[SESSIONS];
+
+        for (int i = 0; i < SESSIONS; i++) {
+            ReservationFlow.Step step = steps[i % steps.length];
+            Set<ReservationFlow.Step> completed = EnumSet.noneOf(ReservationFlow.Step.class);
+            for (int s = 0; s < step.ordinal(); s++) {
+                completed.add(steps[s]);
+            }
+            boolean datesEntered = step.ordinal() > 0;
+            LocalDate checkIn = datesEntered ? LocalDate.now().plusDays(random.nextInt(300)) : null;
+
+            List<ReservationFlowState.GuestState> guests = new ArrayList<>();
+            List<Long> generalExtraIds = new ArrayList<>();
+            List<ReservationFlowState.MealPlanState> mealPlans = new ArrayList<>();
+            if (step.ordinal() > 1) {
+                int guestCount = 1 + random.nextInt(4);
+                for (int g = 0; g < guestCount; g++) {
+                    guests.add(new ReservationFlowState.GuestState(UUID.randomUUID(), "First" + random.nextInt(1000),
+                            "Last" + random.nextInt(1000), g > 1));
+                }
+            }
+            if (step.ordinal() > 2) {
+                for (int e = random.nextInt(4); e > 0; e--) {
+                    generalExtraIds.add(1L + random.nextInt(20));
+                }
+                for (ReservationFlowState.GuestState guest : guests) {
+                    List<Long> food = new ArrayList<>();
+                    for (int f = random.nextInt(3); f > 0; f--) {
+                        food.add(1L + random.nextInt(20));
+                    }
+                    List<DietaryRequirement> diet = random.nextBoolean()
+                            ? List.of(diets[random.nextInt(diets.length)]) : List.of();
+                    mealPlans.add(new ReservationFlowState.MealPlanState(guest.getTempId(), food, diet));
+                }
+            }
+            sessions[i] = new ReservationFlowState(UUID.randomUUID(), 1L + random.nextInt(1_000_000),
+                    checkIn, datesEntered ? checkIn.plusDays(1 + random.nextInt(14)) : null,
+                    datesEntered ? LocalTime.of(10 + random.nextInt(8), 0) : null,
+                    datesEntered && random.nextBoolean(), datesEntered,
+                    guests, generalExtraIds, mealPlans, step, completed);
+        }
+        return sessions;
+    }
+
+    private static void printSizes() {
+        ReservationFlowState[] sessions = simulatedSessions();
+        for (String name : new String[]{"binary", "json"}) {
+            ReservationFlowCodec codec = codec(name);
+            long total = 0;
+            int max = 0;
+            for (ReservationFlowState session : sessions) {
+                int size = codec.encode(session).length;
+                total += size;
+                max = Math.max(max, size);
+            }
+            System.out.printf("%-6s %,d sessions: %,d bytes total, %d bytes per session on average, %d at most%n",
+                    name, SESSIONS, total, total / SESSIONS, max);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printSizes();
+        new Runner(new OptionsBuilder().include(ReservationFlowCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
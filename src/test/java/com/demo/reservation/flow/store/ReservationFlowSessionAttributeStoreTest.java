@@ -0,0 +1,157 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.reservation.flow.forms.ReservationFlow;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.Cookie;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ReservationFlowSessionAttributeStoreTest {
+
+    private final Map<String, byte[]> flows = new HashMap<>();
+
+    private ReservationFlowSessionAttributeStore sessionAttributeStore;
+
+    @Before
+    public void setup() {
+        ReservationFlowStore store = new ReservationFlowStore() {
+            @Override
+            public Optional<byte[]> load(String flowId) {
+                return Optional.ofNullable(flows.get(flowId));
+            }
+
+            @Override
+            public void save(String flowId, byte[] state) {
+                flows.put(flowId, state);
+            }
+
+            @Override
+            public void remove(String flowId) {
+                flows.remove(flowId);
+            }
+        };
+        sessionAttributeStore = new ReservationFlowSessionAttributeStore(new StoredReservationFlowCarrier(store, false),
+                new JsonReservationFlowCodec(Jackson2ObjectMapperBuilder.json().build()),
+                ReservationFlowStateTest.ROOMS, ReservationFlowStateTest.EXTRAS);
+    }
+
+    /**
+     * The first request stores the flow under a new id sent back in a cookie, a later request presenting the cookie,
+     * with no {@code HttpSession}, gets the flow back.
+     */
+    @Test
+    public void storeAttribute_RetrievedByLaterRequestWithCookie() {
+        ReservationFlow original = ReservationFlowStateTest.mealsFlow();
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        ServletWebRequest first = new ServletWebRequest(new MockHttpServletRequest(), firstResponse);
+
+        sessionAttributeStore.storeAttribute(first, "reservationFlow", original);
+
+        Cookie cookie = firstResponse.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(cookie.getSecure()).isFalse();
+        assertThat(flows).containsOnlyKeys(cookie.getValue());
+        assertThat(((MockHttpServletRequest) first.getRequest()).getSession(false)).isNull();
+
+        MockHttpServletRequest later = new MockHttpServletRequest();
+        later.setCookies(cookie);
+        Object restored = sessionAttributeStore.retrieveAttribute(
+                new ServletWebRequest(later, new MockHttpServletResponse()), "reservationFlow");
+
+        assertThat(restored).isInstanceOf(ReservationFlow.class);
+        ReservationFlowStateTest.assertSameFlow((ReservationFlow) restored, original);
+    }
+
+    /**
+     * A cookie set over HTTPS is never sent back over plain HTTP.
+     */
+    @Test
+    public void storeAttribute_SecureRequest_SecureCookie() {
+        MockHttpServletRequest secure = new MockHttpServletRequest();
+        secure.setSecure(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sessionAttributeStore.storeAttribute(new ServletWebRequest(secure, response), "reservationFlow",
+                ReservationFlowStateTest.mealsFlow());
+
+        assertThat(response.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME).getSecure()).isTrue();
+    }
+
+    /**
+     * Behind a proxy ending TLS every request looks like plain HTTP, the cookie must still only be sent over HTTPS.
+     */
+    @Test
+    public void storeAttribute_AlwaysSecure_SecureCookieOverHttp() {
+        ReservationFlowSessionAttributeStore alwaysSecure = new ReservationFlowSessionAttributeStore(
+                new StoredReservationFlowCarrier(new InMemoryReservationFlowStore(), true),
+                new JsonReservationFlowCodec(Jackson2ObjectMapperBuilder.json().build()),
+                ReservationFlowStateTest.ROOMS, ReservationFlowStateTest.EXTRAS);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        alwaysSecure.storeAttribute(new ServletWebRequest(new MockHttpServletRequest(), response), "reservationFlow",
+                ReservationFlowStateTest.mealsFlow());
+
+        assertThat(response.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME).getSecure()).isTrue();
+    }
+
+    @Test
+    public void storeAttribute_SameRequestStoresOnce() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), response);
+
+        sessionAttributeStore.storeAttribute(request, "reservationFlow", ReservationFlowStateTest.mealsFlow());
+        sessionAttributeStore.storeAttribute(request, "reservationFlow", ReservationFlowStateTest.mealsFlow());
+
+        assertThat(flows).hasSize(1);
+        assertThat(response.getCookies()).hasSize(1);
+    }
+
+    @Test
+    public void retrieveAttribute_NoOrUnknownCookie_Null() {
+        MockHttpServletRequest unknown = new MockHttpServletRequest();
+        unknown.setCookies(new Cookie(ReservationFlowSessionAttributeStore.COOKIE_NAME, "not-a-flow"));
+
+        assertThat(sessionAttributeStore.retrieveAttribute(new ServletWebRequest(new MockHttpServletRequest()),
+                "reservationFlow")).isNull();
+        assertThat(sessionAttributeStore.retrieveAttribute(new ServletWebRequest(unknown), "reservationFlow"))
+                .isNull();
+    }
+
+    @Test
+    public void cleanupAttribute_RemovesFlowAndCookie() {
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        sessionAttributeStore.storeAttribute(new ServletWebRequest(new MockHttpServletRequest(), firstResponse),
+                "reservationFlow", ReservationFlowStateTest.mealsFlow());
+
+        MockHttpServletRequest later = new MockHttpServletRequest();
+        later.setCookies(firstResponse.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME));
+        MockHttpServletResponse laterResponse = new MockHttpServletResponse();
+        sessionAttributeStore.cleanupAttribute(new ServletWebRequest(later, laterResponse), "reservationFlow");
+
+        assertThat(flows).isEmpty();
+        assertThat(laterResponse.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    /**
+     * Attributes other than the reservation flow stay in the {@code HttpSession}.
+     */
+    @Test
+    public void otherAttributes_KeptInSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        sessionAttributeStore.storeAttribute(new ServletWebRequest(request), "other", "value");
+
+        assertThat(request.getSession().getAttribute("other")).isEqualTo("value");
+        assertThat(flows).isEmpty();
+    }
+}
@@ -0,0 +1,136 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.domain.DietaryRequirement;
+import com.demo.domain.Extra;
+import com.demo.domain.Guest;
+import com.demo.domain.MealPlan;
+import com.demo.domain.Reservation;
+import com.demo.domain.Room;
+import com.demo.reservation.flow.forms.ReservationFlow;
+import com.demo.reservation.flow.helpers.FlowStages;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ReservationFlowStateTest {
+
+    static final Extra FOXTEL = extra(1L, "Foxtel", Extra.Category.General);
+    static final Extra BREAKFAST = extra(2L, "Breakfast", Extra.Category.Food);
+
+    private static Extra extra(Long id, String description, Extra.Category category) {
+        Extra extra = new Extra(description, new BigDecimal("2.00"), Extra.Type.Premium, category);
+        extra.setId(id);
+        return extra;
+    }
+
+    static final Room ROOM = FlowStages.createRoom();
+
+    static final Function<Long, Optional<Room>> ROOMS = id -> id.equals(ROOM.getId())
+            ? Optional.of(ROOM) : Optional.empty();
+
+    static final Function<Long, Optional<Extra>> EXTRAS = id -> Optional.ofNullable(
+            Map.of(FOXTEL.getId(), FOXTEL, BREAKFAST.getId(), BREAKFAST).get(id));
+
+    /**
+     * A flow part way through the meal plans step with every kind of user entered value.
+     */
+    static ReservationFlow mealsFlow() {
+        ReservationFlow reservationFlow = FlowStages.guestCompletedFlow();
+        Reservation reservation = reservationFlow.getReservation();
+        reservation.getDates().setLateCheckout(true);
+        reservation.addGuest(new Guest("jane", "smith", true));
+        reservation.setGeneralExtras(Set.of(FOXTEL));
+        reservation.createMealPlans();
+        MealPlan mealPlan = reservation.getMealPlans().get(0);
+        mealPlan.setFoodExtras(List.of(BREAKFAST));
+        mealPlan.setDietaryRequirements(List.of(DietaryRequirement.Vegetarian));
+
+        reservationFlow.completeStep(ReservationFlow.Step.Dates);
+        reservationFlow.completeStep(ReservationFlow.Step.Guests);
+        reservationFlow.completeStep(ReservationFlow.Step.Extras);
+        reservationFlow.setActive(ReservationFlow.Step.Meals);
+        return reservationFlow;
+    }
+
+    static void assertSameFlow(ReservationFlow restored, ReservationFlow original) {
+        Reservation reservation = restored.getReservation();
+        Reservation expected = original.getReservation();
+
+        assertThat(reservation.getReservationId()).isEqualTo(expected.getReservationId());
+        assertThat(reservation.getRoom()).isSameAs(ROOM);
+        assertThat(reservation.getDates()).isEqualToComparingFieldByField(expected.getDates());
+        assertThat(reservation.getGuests()).containsExactlyInAnyOrderElementsOf(expected.getGuests());
+        assertThat(reservation.getGuests()).extracting(Guest::getTempId)
+                .containsExactlyInAnyOrderElementsOf(expected.getGuests().stream().map(Guest::getTempId)
+                        .collect(Collectors.toList()));
+        assertThat(reservation.getGeneralExtras()).containsExactly(FOXTEL);
+        assertThat(reservation.getMealPlans()).hasSameSizeAs(expected.getMealPlans());
+        for (int i = 0; i < expected.getMealPlans().size(); i++) {
+            MealPlan mealPlan = reservation.getMealPlans().get(i);
+            assertThat(mealPlan.getGuest()).isEqualTo(expected.getMealPlans().get(i).getGuest());
+            assertThat(mealPlan.getReservation()).isSameAs(reservation);
+            assertThat(mealPlan.getFoodExtras()).isEqualTo(expected.getMealPlans().get(i).getFoodExtras());
+            assertThat(mealPlan.getDietaryRequirements())
+                    .isEqualTo(expected.getMealPlans().get(i).getDietaryRequirements());
+        }
+        assertThat(reservation.getTotalCostIncludingTax())
+                .isEqualByComparingTo(expected.getTotalCostIncludingTax());
+        assertThat(restored.getActiveStep()).isEqualTo(ReservationFlow.Step.Meals);
+        assertThat(restored.getCompletedSteps()).isEqualTo(original.getCompletedSteps());
+    }
+
+    @Test
+    public void restore_RebuildsFlow() {
+        ReservationFlow original = mealsFlow();
+
+        ReservationFlow restored = ReservationFlowState.of(original).restore(ROOMS, EXTRAS).orElseThrow();
+
+        assertSameFlow(restored, original);
+    }
+
+    @Test
+    public void restore_JsonRoundTrip() {
+        JsonReservationFlowCodec codec = new JsonReservationFlowCodec(Jackson2ObjectMapperBuilder.json().build());
+        ReservationFlow original = mealsFlow();
+
+        byte[] bytes = codec.encode(ReservationFlowState.of(original));
+        ReservationFlow restored = codec.decode(bytes).restore(ROOMS, EXTRAS).orElseThrow();
+
+        assertSameFlow(restored, original);
+    }
+
+    @Test
+    public void restore_RoomRemoved_Empty() {
+        ReservationFlowState state = ReservationFlowState.of(mealsFlow());
+
+        assertThat(state.restore(id -> Optional.empty(), EXTRAS)).isEmpty();
+    }
+
+    @Test
+    public void restore_ExtraRemoved_Dropped() {
+        ReservationFlowState state = ReservationFlowState.of(mealsFlow());
+
+        ReservationFlow restored = state.restore(ROOMS, id -> Optional.empty()).orElseThrow();
+
+        assertThat(restored.getReservation().getGeneralExtras()).isEmpty();
+        assertThat(restored.getReservation().getMealPlans()).allSatisfy(mealPlan ->
+                assertThat(mealPlan.getFoodExtras()).isEmpty());
+    }
+
+    @Test
+    public void decode_NotAFlow_Throws() {
+        JsonReservationFlowCodec codec = new JsonReservationFlowCodec(Jackson2ObjectMapperBuilder.json().build());
+
+        assertThatThrownBy(() -> codec.decode(new byte[]{1, 2, 3}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import com.demo.reservation.flow.forms.ReservationFlow;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.servlet.http.Cookie;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.demo.reservation.flow.controller.DateFlowTest.toReservationDatesParams;
+import static com.demo.reservation.flow.helpers.FlowMatchers.modelHasCompletedFlowStep;
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Token flows must not fall back on the {@code HttpSession} anywhere between the steps, including the redirects.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "reservation.flow.store=token",
+        "reservation.flow.token.secret=0123456789abcdef0123456789abcdef"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SignedTokenFlowSessionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Room persistRoom() {
+        Hotel hotel = new Hotel("Hotel Token",
+                new Address("Hotel Token", "33 kent street", null,
+                        State.VIC, "Melbourne", new Postcode("3000")),
+                4, "token@hotel.com");
+        Room room = new Room("Token", RoomType.Luxury, 4, BigDecimal.valueOf(63.3));
+        hotel.addRoom(room);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(hotel));
+        return room;
+    }
+
+    private Cookie tokenOf(MvcResult result) {
+        Cookie token = result.getResponse().getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME);
+        assertThat(token).isNotNull();
+        return token;
+    }
+
+    @Test
+    public void datesToGuests_NoSessionCreated() throws Exception {
+        Room room = persistRoom();
+
+        MvcResult start = mockMvc.perform(get("/reservation").param("roomId", room.getId().toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(start.getRequest().getSession(false)).isNull();
+
+        ReservationDates dates = new ReservationDates(LocalDate.now().plusDays(1), LocalDate.now().plusDays(3),
+                LocalTime.of(10, 0), false, true);
+        MvcResult datesPosted = mockMvc.perform(post("/reservation/dates")
+                .cookie(tokenOf(start))
+                .params(toReservationDatesParams(dates)))
+                .andExpect(redirectedUrl("/reservation/guests"))
+                .andReturn();
+        assertThat(datesPosted.getRequest().getSession(false)).isNull();
+
+        MvcResult guests = mockMvc.perform(get("/reservation/guests").cookie(tokenOf(datesPosted)))
+                .andExpect(status().isOk())
+                .andExpect(modelHasCompletedFlowStep(ReservationFlow.Step.Dates))
+                .andReturn();
+        assertThat(guests.getRequest().getSession(false)).isNull();
+    }
+}
@@ -0,0 +1,124 @@
+package com.demo.reservation.flow.store;
+
+import com.demo.reservation.flow.forms.ReservationFlow;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class SignedTokenReservationFlowCarrierTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final BinaryReservationFlowCodec codec = new BinaryReservationFlowCodec();
+    private long now = 1_000_000L;
+    private SignedTokenReservationFlowCarrier carrier;
+
+    @Before
+    public void setup() {
+        carrier = new SignedTokenReservationFlowCarrier(SECRET, 60, () -> now, false);
+    }
+
+    /**
+     * The flow travels in the cookie alone, a later request gets it back with nothing kept on the server.
+     */
+    @Test
+    public void write_RestoredFromCookieOfLaterRequest() {
+        ReservationFlowSessionAttributeStore sessionAttributeStore = new ReservationFlowSessionAttributeStore(carrier,
+                codec, ReservationFlowStateTest.ROOMS, ReservationFlowStateTest.EXTRAS);
+        ReservationFlow original = ReservationFlowStateTest.mealsFlow();
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+
+        sessionAttributeStore.storeAttribute(new ServletWebRequest(first, firstResponse), "reservationFlow",
+                original);
+
+        Cookie cookie = firstResponse.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME);
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(cookie.getValue().length()).isLessThan(500);
+        assertThat(first.getSession(false)).isNull();
+
+        MockHttpServletRequest later = new MockHttpServletRequest();
+        later.setCookies(cookie);
+        Object restored = sessionAttributeStore.retrieveAttribute(
+                new ServletWebRequest(later, new MockHttpServletResponse()), "reservationFlow");
+
+        ReservationFlowStateTest.assertSameFlow((ReservationFlow) restored, original);
+    }
+
+    @Test
+    public void verify_CompressibleFlow_Deflated() {
+        byte[] flow = new byte[1000];
+
+        String token = carrier.issue(flow);
+
+        assertThat(token.length()).isLessThan(100);
+        assertThat(carrier.verify(token)).hasValueSatisfying(bytes -> assertThat(bytes).isEqualTo(flow));
+    }
+
+    /**
+     * Changing any byte of the payload, or signing with another key, invalidates the token.
+     */
+    @Test
+    public void verify_Tampered_Empty() {
+        String token = carrier.issue(codec.encode(ReservationFlowState.of(ReservationFlowStateTest.mealsFlow())));
+        int separator = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separator));
+
+        for (int i = 0; i < payload.length; i++) {
+            byte[] tampered = payload.clone();
+            tampered[i] ^= 1;
+            String tamperedToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tampered)
+                    + token.substring(separator);
+            assertThat(carrier.verify(tamperedToken)).as("byte %d", i).isEmpty();
+        }
+
+        byte[] otherSecret = SECRET.clone();
+        otherSecret[0] ^= 1;
+        assertThat(new SignedTokenReservationFlowCarrier(otherSecret, 60, () -> now, false).verify(token)).isEmpty();
+        assertThat(carrier.verify(token)).isPresent();
+    }
+
+    @Test
+    public void verify_Malformed_Empty() {
+        assertThat(carrier.verify("")).isEmpty();
+        assertThat(carrier.verify("no-separator")).isEmpty();
+        assertThat(carrier.verify("!!.!!")).isEmpty();
+        assertThat(carrier.verify(".")).isEmpty();
+    }
+
+    @Test
+    public void verify_OlderThanTimeToLive_Empty() {
+        String token = carrier.issue(new byte[]{1, 2, 3});
+
+        now += TimeUnit.MINUTES.toMillis(60);
+        assertThat(carrier.verify(token)).isPresent();
+
+        now += 1;
+        assertThat(carrier.verify(token)).isEmpty();
+    }
+
+    @Test
+    public void clear_ExpiresCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReservationFlowSessionAttributeStore.COOKIE_NAME, carrier.issue(new byte[1])));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        carrier.clear(new ServletWebRequest(request, response));
+
+        assertThat(response.getCookie(ReservationFlowSessionAttributeStore.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortSecret_Rejected() {
+        new SignedTokenReservationFlowCarrier(new byte[16], 60, () -> now, false);
+    }
+}
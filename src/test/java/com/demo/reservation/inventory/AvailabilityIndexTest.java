@@ -0,0 +1,144 @@
+package com.demo.reservation.inventory;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import com.demo.domain.location.Address;
+import com.demo.domain.location.Postcode;
+import com.demo.domain.location.State;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class AvailabilityIndexTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2030, 1, 10);
+
+    private Hotel createHotel() {
+        Hotel hotel = new Hotel("Hotel Royal", new Address("Hotel Royal", "33 kent street", null,
+                State.VIC, "Melbourne", new Postcode("3000")), 4, "royal@hotel.com");
+        hotel.setId(1L);
+        return hotel;
+    }
+
+    private Room createRoom(Hotel hotel, long id) {
+        return createRoom(hotel, id, 2, BigDecimal.valueOf(50));
+    }
+
+    private Room createRoom(Hotel hotel, long id, int beds, BigDecimal costPerNight) {
+        Room room = new Room("R" + id, RoomType.Economy, beds, costPerNight);
+        room.setId(id);
+        hotel.addRoom(room);
+        return room;
+    }
+
+    private Reservation reservationFor(Room room, LocalDate checkIn, LocalDate checkOut) {
+        Reservation reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.setDates(new ReservationDates(checkIn, checkOut, LocalTime.of(10, 0), false, true));
+        return reservation;
+    }
+
+    @Test
+    public void isAvailable_UnknownRoom_IsFree() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        assertThat(index.isAvailable(99L, JAN_10, JAN_10.plusDays(1))).isTrue();
+    }
+
+    @Test
+    public void unavailableRoomIds_OnlyRoomsBookedInRange() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Hotel hotel = createHotel();
+        Room roomA = createRoom(hotel, 1);
+        Room roomB = createRoom(hotel, 2);
+        Room roomC = createRoom(hotel, 3);
+        index.register(roomA);
+        index.register(roomB);
+        index.register(roomC);
+
+        index.book(reservationFor(roomA, JAN_10, JAN_10.plusDays(3)));
+        index.book(reservationFor(roomB, JAN_10.plusDays(3), JAN_10.plusDays(6)));
+
+        assertThat(index.unavailableRoomIds(hotel.getId(), JAN_10, JAN_10.plusDays(2))).containsOnly(1L);
+        assertThat(index.unavailableRoomIds(hotel.getId(), JAN_10.plusDays(2), JAN_10.plusDays(4))).containsOnly(1L, 2L);
+        assertThat(index.unavailableRoomIds(hotel.getId(), JAN_10.plusDays(6), JAN_10.plusDays(8))).isEmpty();
+        assertThat(index.unavailableRoomIds(42L, JAN_10, JAN_10.plusDays(8))).isEmpty();
+    }
+
+    @Test
+    public void release_RoomAvailableAgain() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Room room = createRoom(createHotel(), 1);
+        Reservation reservation = reservationFor(room, JAN_10, JAN_10.plusDays(3));
+
+        index.book(reservation);
+        assertThat(index.isAvailable(room.getId(), JAN_10, JAN_10.plusDays(1))).isFalse();
+
+        index.release(reservation);
+        assertThat(index.isAvailable(room.getId(), JAN_10, JAN_10.plusDays(1))).isTrue();
+    }
+
+    /**
+     * The lowest rate only considers rooms with enough beds that are free for the whole stay.
+     */
+    @Test
+    public void lowestAvailableRates_CheapestSuitableFreeRoom() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Hotel hotel = createHotel();
+        Room cheapButSmall = createRoom(hotel, 1, 1, BigDecimal.valueOf(20));
+        Room cheapButBooked = createRoom(hotel, 2, 4, BigDecimal.valueOf(30));
+        Room expensive = createRoom(hotel, 3, 4, BigDecimal.valueOf(90));
+        index.register(cheapButSmall);
+        index.register(cheapButBooked);
+        index.register(expensive);
+        index.book(reservationFor(cheapButBooked, JAN_10, JAN_10.plusDays(2)));
+
+        assertThat(index.lowestAvailableRates(List.of(hotel.getId()), JAN_10, JAN_10.plusDays(3), 3))
+                .containsEntry(hotel.getId(), BigDecimal.valueOf(90));
+        assertThat(index.lowestAvailableRates(List.of(hotel.getId()), JAN_10.plusDays(2), JAN_10.plusDays(3), 3))
+                .containsEntry(hotel.getId(), BigDecimal.valueOf(30));
+        assertThat(index.lowestAvailableRates(List.of(hotel.getId()), JAN_10, JAN_10.plusDays(3), 1))
+                .containsEntry(hotel.getId(), BigDecimal.valueOf(20));
+        assertThat(index.lowestAvailableRates(List.of(hotel.getId()), JAN_10, JAN_10.plusDays(3), 5)).isEmpty();
+    }
+
+    /**
+     * Registering an updated room replaces its beds and rate but keeps its booked nights.
+     */
+    @Test
+    public void register_UpdatedRoom_KeepsBookedNights() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Hotel hotel = createHotel();
+        Room room = createRoom(hotel, 1, 2, BigDecimal.valueOf(50));
+        index.register(room);
+        index.book(reservationFor(room, JAN_10, JAN_10.plusDays(2)));
+
+        room.setBeds(4);
+        room.setCostPerNight(BigDecimal.valueOf(70));
+        index.register(room);
+
+        assertThat(index.isAvailable(room.getId(), JAN_10, JAN_10.plusDays(1))).isFalse();
+        assertThat(index.lowestAvailableRates(List.of(hotel.getId()), JAN_10.plusDays(2), JAN_10.plusDays(3), 4))
+                .containsEntry(hotel.getId(), BigDecimal.valueOf(70));
+    }
+
+    @Test
+    public void remove_RoomNoLongerOffered() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        Hotel hotel = createHotel();
+        Room room = createRoom(hotel, 1);
+        index.register(room);
+
+        index.remove(room.getId());
+        index.remove(room.getId());
+
+        assertThat(index.lowestAvailableRates(List.of(hotel.getId()), JAN_10, JAN_10.plusDays(1), 1)).isEmpty();
+    }
+}
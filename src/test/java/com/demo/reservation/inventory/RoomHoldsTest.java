@@ -0,0 +1,120 @@
+package com.demo.reservation.inventory;
+
+import com.demo.domain.Hotel;
+import com.demo.domain.Reservation;
+import com.demo.domain.ReservationDates;
+import com.demo.domain.Room;
+import com.demo.domain.RoomType;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RoomHoldsTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2030, 1, 10);
+    private static final Duration TTL = Duration.ofMinutes(15);
+    private static final long NOW = 1_000_000_000L;
+    private static final Long ROOM_ID = 1L;
+
+    private final AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+
+    private RoomHolds createHolds() {
+        return new RoomHolds(TTL, availabilityIndex, NOW);
+    }
+
+    @Test
+    public void hold_OverlappingHoldByAnotherHolder_Rejected() {
+        RoomHolds holds = createHolds();
+        UUID first = UUID.randomUUID();
+
+        assertThat(holds.hold(first, ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW)).isTrue();
+        assertThat(holds.hold(UUID.randomUUID(), ROOM_ID, JAN_10.plusDays(2), JAN_10.plusDays(4), NOW)).isFalse();
+        // back to back and other rooms are unaffected.
+        assertThat(holds.hold(UUID.randomUUID(), ROOM_ID, JAN_10.plusDays(3), JAN_10.plusDays(4), NOW)).isTrue();
+        assertThat(holds.hold(UUID.randomUUID(), 2L, JAN_10, JAN_10.plusDays(3), NOW)).isTrue();
+        assertThat(holds.activeHolds()).isEqualTo(3);
+    }
+
+    /**
+     * Changing dates replaces the holder's previous hold rather than conflicting with it.
+     */
+    @Test
+    public void hold_SameHolder_ReplacesPreviousHold() {
+        RoomHolds holds = createHolds();
+        UUID holder = UUID.randomUUID();
+
+        holds.hold(holder, ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW);
+        assertThat(holds.hold(holder, ROOM_ID, JAN_10.plusDays(1), JAN_10.plusDays(5), NOW)).isTrue();
+
+        assertThat(holds.activeHolds()).isEqualTo(1);
+        assertThat(holds.isHeldBy(holder, ROOM_ID, JAN_10.plusDays(1), JAN_10.plusDays(5), NOW)).isTrue();
+        assertThat(holds.hold(UUID.randomUUID(), ROOM_ID, JAN_10, JAN_10.plusDays(1), NOW)).isTrue();
+    }
+
+    @Test
+    public void hold_BookedNights_Rejected() {
+        Hotel hotel = new Hotel();
+        hotel.setId(1L);
+        Room room = new Room("R1", RoomType.Economy, 2, BigDecimal.valueOf(50));
+        room.setId(ROOM_ID);
+        hotel.addRoom(room);
+        Reservation reservation = new Reservation();
+        reservation.setRoom(room);
+        reservation.setDates(new ReservationDates(JAN_10, JAN_10.plusDays(2), LocalTime.of(10, 0), false, true));
+        availabilityIndex.book(reservation);
+
+        assertThat(createHolds().hold(UUID.randomUUID(), ROOM_ID, JAN_10.plusDays(1), JAN_10.plusDays(3), NOW))
+                .isFalse();
+    }
+
+    @Test
+    public void expireHolds_AfterTtl_NightsFreed() {
+        RoomHolds holds = createHolds();
+        UUID holder = UUID.randomUUID();
+        holds.hold(holder, ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW);
+
+        holds.expireHolds(NOW + TTL.toMillis() - 1000);
+        assertThat(holds.isHeldBy(holder, ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW)).isTrue();
+
+        holds.expireHolds(NOW + TTL.toMillis());
+        assertThat(holds.activeHolds()).isZero();
+        assertThat(holds.hold(UUID.randomUUID(), ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW + TTL.toMillis())).isTrue();
+    }
+
+    /**
+     * Holds lasting longer than a full revolution of the wheel must survive the earlier visits to their bucket.
+     */
+    @Test
+    public void expireHolds_TtlLongerThanWheel_NotExpiredEarly() {
+        Duration ttl = Duration.ofHours(1);
+        RoomHolds holds = new RoomHolds(ttl, availabilityIndex, NOW);
+        UUID holder = UUID.randomUUID();
+        holds.hold(holder, ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW);
+
+        for (long now = NOW; now < NOW + ttl.toMillis(); now += 60_000) {
+            holds.expireHolds(now);
+        }
+        assertThat(holds.activeHolds()).isEqualTo(1);
+
+        holds.expireHolds(NOW + ttl.toMillis());
+        assertThat(holds.activeHolds()).isZero();
+    }
+
+    @Test
+    public void release_NightsFreed() {
+        RoomHolds holds = createHolds();
+        UUID holder = UUID.randomUUID();
+        holds.hold(holder, ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW);
+
+        holds.release(holder);
+
+        assertThat(holds.activeHolds()).isZero();
+        assertThat(holds.hold(UUID.randomUUID(), ROOM_ID, JAN_10, JAN_10.plusDays(3), NOW)).isTrue();
+    }
+}
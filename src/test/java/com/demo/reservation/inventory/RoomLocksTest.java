@@ -0,0 +1,64 @@
+package com.demo.reservation.inventory;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RoomLocksTest {
+
+    @Test
+    public void stripeIndex_SequentialRooms_SpreadOverAllStripes() {
+        RoomLocks locks = new RoomLocks(8);
+        assertThat(LongStream.rangeClosed(1, 64).mapToObj(id -> locks.stripeIndex(id)).distinct().count())
+                .isEqualTo(8);
+    }
+
+    @Test
+    public void lock_Released_StatsRecorded() {
+        RoomLocks locks = new RoomLocks(4);
+        int stripe = locks.stripeIndex(7L);
+
+        try (RoomLocks.Lock ignored = locks.lock(7L)) {
+            assertThat(locks.stripeStats().get(stripe).getAcquisitions()).isEqualTo(1);
+        }
+        try (RoomLocks.Lock ignored = locks.lock(7L)) {
+            assertThat(locks.stripeStats().get(stripe).getAcquisitions()).isEqualTo(2);
+        }
+        assertThat(locks.stripeStats()).hasSize(4);
+    }
+
+    /**
+     * A second booking of the same room blocks until the first releases the stripe and the wait is recorded.
+     */
+    @Test
+    public void lock_SameRoom_WaitsForHolder() throws Exception {
+        RoomLocks locks = new RoomLocks(4);
+        int stripe = locks.stripeIndex(7L);
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        Thread waiter;
+        try (RoomLocks.Lock ignored = locks.lock(7L)) {
+            waiter = new Thread(() -> {
+                try (RoomLocks.Lock lock = locks.lock(7L)) {
+                    acquired.countDown();
+                }
+            });
+            waiter.start();
+            assertThat(acquired.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        }
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        waiter.join();
+
+        assertThat(locks.stripeStats().get(stripe).getAcquisitions()).isEqualTo(2);
+        assertThat(locks.stripeStats().get(stripe).getMaxWaitNanos()).isPositive();
+    }
+
+    @Test
+    public void constructor_NoStripes_Rejected() {
+        assertThatThrownBy(() -> new RoomLocks(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.reservation.inventory;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RoomNightsTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2030, 1, 10);
+
+    @Test
+    public void isFree_NothingBooked() {
+        RoomNights nights = new RoomNights();
+        assertThat(nights.isFree(JAN_10, JAN_10.plusDays(5))).isTrue();
+        assertThat(nights.bookedNights()).isEqualTo(0);
+    }
+
+    /**
+     * The check out day is not a booked night so a new stay can check in on the same day.
+     */
+    @Test
+    public void isFree_CheckInOnPreviousCheckOut() {
+        RoomNights nights = new RoomNights();
+        nights.book(JAN_10, JAN_10.plusDays(3));
+
+        assertThat(nights.bookedNights()).isEqualTo(3);
+        assertThat(nights.isFree(JAN_10.plusDays(3), JAN_10.plusDays(5))).isTrue();
+        assertThat(nights.isFree(JAN_10.minusDays(2), JAN_10)).isTrue();
+    }
+
+    @Test
+    public void isFree_OverlappingStays() {
+        RoomNights nights = new RoomNights();
+        nights.book(JAN_10, JAN_10.plusDays(3));
+
+        assertThat(nights.isFree(JAN_10.plusDays(2), JAN_10.plusDays(5))).isFalse();
+        assertThat(nights.isFree(JAN_10.minusDays(2), JAN_10.plusDays(1))).isFalse();
+        assertThat(nights.isFree(JAN_10.minusDays(2), JAN_10.plusDays(10))).isFalse();
+        assertThat(nights.isFree(JAN_10.plusDays(1), JAN_10.plusDays(2))).isFalse();
+    }
+
+    /**
+     * Booking a stay earlier than any existing night must keep all existing nights booked.
+     */
+    @Test
+    public void book_EarlierThanOrigin_KeepsExistingNights() {
+        RoomNights nights = new RoomNights();
+        nights.book(JAN_10, JAN_10.plusDays(2));
+        nights.book(JAN_10.minusDays(100), JAN_10.minusDays(98));
+
+        assertThat(nights.bookedNights()).isEqualTo(4);
+        assertThat(nights.isFree(JAN_10, JAN_10.plusDays(1))).isFalse();
+        assertThat(nights.isFree(JAN_10.minusDays(99), JAN_10.minusDays(98))).isFalse();
+        assertThat(nights.isFree(JAN_10.minusDays(98), JAN_10)).isTrue();
+    }
+
+    @Test
+    public void release_FreesNights() {
+        RoomNights nights = new RoomNights();
+        nights.book(JAN_10, JAN_10.plusDays(3));
+        nights.release(JAN_10, JAN_10.plusDays(3));
+
+        assertThat(nights.bookedNights()).isEqualTo(0);
+        assertThat(nights.isFree(JAN_10, JAN_10.plusDays(3))).isTrue();
+    }
+
+    @Test
+    public void freeNightsFrom_StopsAtFirstBookedNight() {
+        RoomNights nights = new RoomNights();
+        assertThat(nights.freeNightsFrom(JAN_10, 7)).isEqualTo(7);
+
+        nights.book(JAN_10, JAN_10.plusDays(2));
+        nights.book(JAN_10.plusDays(5), JAN_10.plusDays(6));
+
+        assertThat(nights.freeNightsFrom(JAN_10.minusDays(3), 7)).isEqualTo(3);
+        assertThat(nights.freeNightsFrom(JAN_10, 7)).isZero();
+        assertThat(nights.freeNightsFrom(JAN_10.plusDays(2), 7)).isEqualTo(3);
+        assertThat(nights.freeNightsFrom(JAN_10.plusDays(2), 2)).isEqualTo(2);
+        assertThat(nights.freeNightsFrom(JAN_10.plusDays(6), 7)).isEqualTo(7);
+    }
+}
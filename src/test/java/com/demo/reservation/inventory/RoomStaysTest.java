@@ -0,0 +1,64 @@
+package com.demo.reservation.inventory;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RoomStaysTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2030, 1, 10);
+
+    @Test
+    public void tryAdd_NoExistingStays_Added() {
+        RoomStays stays = new RoomStays();
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10, JAN_10.plusDays(2))).isEmpty();
+        assertThat(stays.size()).isEqualTo(1);
+    }
+
+    /**
+     * Back to back stays share the check out/check in day and must not be treated as overlapping.
+     */
+    @Test
+    public void tryAdd_BackToBackStays_Added() {
+        RoomStays stays = new RoomStays();
+        stays.tryAdd(UUID.randomUUID(), JAN_10, JAN_10.plusDays(2));
+
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10.plusDays(2), JAN_10.plusDays(4))).isEmpty();
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10.minusDays(3), JAN_10)).isEmpty();
+        assertThat(stays.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void tryAdd_Overlapping_ReturnsConflictingStay() {
+        RoomStays stays = new RoomStays();
+        UUID existing = UUID.randomUUID();
+        stays.tryAdd(existing, JAN_10, JAN_10.plusDays(5));
+
+        // starts inside, ends inside, fully contains and fully contained.
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10.plusDays(4), JAN_10.plusDays(8)))
+                .map(RoomStays.Stay::getReservationId).contains(existing);
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10.minusDays(2), JAN_10.plusDays(1)))
+                .map(RoomStays.Stay::getReservationId).contains(existing);
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10.minusDays(2), JAN_10.plusDays(9))).isPresent();
+        assertThat(stays.tryAdd(UUID.randomUUID(), JAN_10.plusDays(1), JAN_10.plusDays(2))).isPresent();
+        assertThat(stays.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void remove_OnlyRemovesOwnStay() {
+        RoomStays stays = new RoomStays();
+        UUID owner = UUID.randomUUID();
+        stays.tryAdd(owner, JAN_10, JAN_10.plusDays(2));
+
+        stays.remove(UUID.randomUUID(), JAN_10);
+        assertThat(stays.size()).isEqualTo(1);
+
+        stays.remove(owner, JAN_10);
+        Optional<RoomStays.Stay> overlap = stays.findOverlap(JAN_10, JAN_10.plusDays(2));
+        assertThat(overlap).isEmpty();
+    }
+}